@@ -0,0 +1,171 @@
+package info.coliver.linearalgebra;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs linear system transforms asynchronously on a bounded pool of dedicated threads.
+ * The calling thread, typically a virtual thread serving a request, only waits on the returned future and so never
+ * holds a carrier thread while the elimination runs. Work is admitted into a queue of fixed capacity; once the pool is
+ * busy and the queue is full further requests are refused immediately, their futures failing with a
+ * RejectedExecutionException, which is the signal to shed load or retry later.
+ * Cancelling a future, or reaching its deadline, removes a queued transform from the queue and stops a running one
+ * before its next elimination step.
+ */
+public class AsyncSolver implements AutoCloseable {
+
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor timer;
+
+    /**
+     * @param threads
+     * the number of transforms that run at once, usually at most the number of processors
+     * @param queueCapacity
+     * the number of transforms that may wait for a thread
+     */
+    public AsyncSolver(int threads, int queueCapacity) {
+
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("The number of threads and the capacity of the queue must be positive.");
+        }
+
+        String prefix = "linear-algebra-solver-" + POOLS.incrementAndGet() + "-";
+        AtomicInteger count = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> daemon(runnable, prefix + count.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> daemon(runnable, prefix + "deadlines"));
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    /**
+     * @return
+     * the number of transforms waiting for a thread
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Compute the Gauss-Jordan transform of the given linear system without a deadline.
+     * @param linearSystem
+     * a linear system to be transformed
+     * @return
+     * a future completed with the transformed system, or failed with a RejectedExecutionException if the queue is
+     * full or the solver is closed, an IllegalArgumentException if the system cannot be transformed, or a CancellationException if it was
+     * cancelled
+     */
+    public CompletableFuture<LinearSystem> gaussJordanTransform(LinearSystem linearSystem) {
+        return gaussJordanTransform(linearSystem, null);
+    }
+
+    /**
+     * Compute the Gauss-Jordan transform of the given linear system within a deadline.
+     * @param linearSystem
+     * a linear system to be transformed
+     * @param timeout
+     * the time from submission after which the transform is abandoned, or null for no deadline
+     * @return
+     * a future as for gaussJordanTransform(LinearSystem), which additionally fails with a TimeoutException if the
+     * deadline passes first
+     */
+    public CompletableFuture<LinearSystem> gaussJordanTransform(LinearSystem linearSystem, Duration timeout) {
+
+        CompletableFuture<LinearSystem> future = new CompletableFuture<>();
+
+        if (linearSystem == null) {
+            future.completeExceptionally(new IllegalArgumentException("The linear system may not be null."));
+            return future;
+        }
+
+        Transform transform = new Transform(linearSystem, future);
+
+        try {
+            executor.execute(transform);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // a transform abandoned while still queued gives up its place in the queue
+        future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                executor.remove(transform);
+            }
+        });
+
+        if (timeout != null) {
+            try {
+                ScheduledFuture<?> deadline = timer.schedule(
+                        () -> future.completeExceptionally(new TimeoutException("The transform did not complete within " + timeout + ".")),
+                        timeout.toNanos(), TimeUnit.NANOSECONDS);
+                future.whenComplete((result, failure) -> deadline.cancel(false));
+            } catch (RejectedExecutionException e) {
+                // the solver was closed after the transform was admitted
+                future.completeExceptionally(e);
+            }
+        }
+
+        return future;
+    }
+
+    /**
+     * Stop accepting transforms, interrupt running ones and cancel those that are queued.
+     */
+    @Override
+    public void close() {
+
+        List<Runnable> queued = executor.shutdownNow();
+        timer.shutdownNow();
+
+        for (Runnable runnable : queued) {
+            ((Transform) runnable).future.cancel(false);
+        }
+    }
+
+    private static final class Transform implements Runnable {
+
+        private final LinearSystem linearSystem;
+        private final CompletableFuture<LinearSystem> future;
+
+        private Transform(LinearSystem linearSystem, CompletableFuture<LinearSystem> future) {
+            this.linearSystem = linearSystem;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+
+            if (future.isDone()) {
+                return;
+            }
+
+            try {
+                Optional<LinearSystem> result = LinearSystem.gaussJordanTransform(linearSystem,
+                        () -> future.isDone() || Thread.currentThread().isInterrupted());
+                if (result.isPresent()) {
+                    future.complete(result.get());
+                } else {
+                    future.completeExceptionally(new IllegalArgumentException("The linear system could not be transformed."));
+                }
+            } catch (RuntimeException e) {
+                // a cancellation thrown between elimination steps lands here once the future is already done
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * Cholesky factorization A = LL^T of a symmetric positive definite matrix, where L is lower triangular with a positive
+ * diagonal. Only the lower triangle of A is read.
+ * A factorization can be updated for A + xx^T or downdated for A - xx^T in O(n^2) by a sequence of plane rotations
+ * applied to L, so a matrix that changes by a symmetric rank-1 term between solves need only be factored once.
+ */
+public class CholeskyDecomposition {
+
+    private final double[] l;
+    private final int size;
+
+    private CholeskyDecomposition(double[] l, int size) {
+        this.l = l;
+        this.size = size;
+    }
+
+    /**
+     * floating point operations: 1/3 n^3
+     * @param matrix
+     * a symmetric positive definite matrix
+     * @return
+     * an empty optional if the matrix is not square or not positive definite, or an optional containing the
+     * decomposition
+     */
+    public static Optional<CholeskyDecomposition> decompose(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        int n = matrix.getComponents().size();
+        if (n != matrix.getComponents().get(0).size()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Optional<CholeskyDecomposition> decomposition = Matrix.toArray(matrix)
+                .filter(a -> factor(a, n))
+                .map(a -> new CholeskyDecomposition(a, n));
+
+        long size = n;
+        if (decomposition.isPresent()) {
+            Metrics.record("CholeskyDecomposition.decompose", size * size * size / 3,
+                    8 * size * size, 2, start);
+        }
+
+        return decomposition;
+    }
+
+    /**
+     * Factor in place, column by column, leaving L in the lower triangle and zeros above it.
+     * @return
+     * false if a pivot is not positive
+     */
+    static boolean factor(double[] a, int n) {
+
+        for (int j = 0; j < n; j++) {
+
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[k * n + j] * a[k * n + j];
+            }
+            if (!(diagonal > 0.0)) {
+                return false;
+            }
+            diagonal = Math.sqrt(diagonal);
+            a[j * n + j] = diagonal;
+
+            for (int i = j + 1; i < n; i++) {
+                double sum = a[j * n + i];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[k * n + i] * a[k * n + j];
+                }
+                a[j * n + i] = sum / diagonal;
+            }
+            for (int i = 0; i < j; i++) {
+                a[j * n + i] = 0.0;
+            }
+        }
+
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return
+     * the lower triangular factor L
+     */
+    public Matrix getL() {
+        return Matrix.fromArray(l, size, size);
+    }
+
+    /**
+     * floating point operations: 2n^2 r
+     * @param rhs
+     * n by r right hand side
+     * @return
+     * an empty optional or an optional containing the n by r solution of A X = rhs
+     */
+    public Optional<Matrix> solve(Matrix rhs) {
+
+        if (rhs == null || rhs.getComponents().get(0).size() != size) {
+            return Optional.empty();
+        }
+
+        int n = size;
+        int r = rhs.getComponents().size();
+
+        return Matrix.toArray(rhs).map(b -> {
+            for (int c = 0; c < r; c++) {
+                int offset = c * n;
+                // L y = b
+                for (int j = 0; j < n; j++) {
+                    double value = b[offset + j] /= l[j * n + j];
+                    for (int i = j + 1; i < n; i++) {
+                        b[offset + i] -= l[j * n + i] * value;
+                    }
+                }
+                // L^T x = y
+                for (int j = n - 1; j >= 0; j--) {
+                    double sum = b[offset + j];
+                    for (int i = j + 1; i < n; i++) {
+                        sum -= l[j * n + i] * b[offset + i];
+                    }
+                    b[offset + j] = sum / l[j * n + j];
+                }
+            }
+            return Matrix.fromArray(b, n, r);
+        });
+    }
+
+    /**
+     * floating point operations: 4n^2
+     * @param x
+     * vector of size n
+     * @return
+     * an empty optional if the size differs or an optional containing the factorization of A + xx^T
+     */
+    public Optional<CholeskyDecomposition> update(Vector x) {
+        return rotate(x, 1.0, "CholeskyDecomposition.update");
+    }
+
+    /**
+     * floating point operations: 4n^2
+     * @param x
+     * vector of size n
+     * @return
+     * an empty optional if the size differs or A - xx^T is not positive definite, or an optional containing its
+     * factorization
+     */
+    public Optional<CholeskyDecomposition> downdate(Vector x) {
+        return rotate(x, -1.0, "CholeskyDecomposition.downdate");
+    }
+
+    /**
+     * Find L' with L'L'^T = LL^T + sign xx^T by zeroing x against the columns of L in turn: an ordinary rotation for
+     * an update, a hyperbolic one for a downdate.
+     */
+    private Optional<CholeskyDecomposition> rotate(Vector vector, double sign, String operation) {
+
+        if (vector == null || vector.getComponents().size() != size) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int n = size;
+        double[] factor = l.clone();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = vector.getComponents().get(i);
+        }
+
+        for (int k = 0; k < n; k++) {
+            double diagonal = factor[k * n + k];
+            double squared = diagonal * diagonal + sign * x[k] * x[k];
+            if (!(squared > 0.0)) {
+                return Optional.empty();
+            }
+            double root = Math.sqrt(squared);
+            double c = root / diagonal;
+            double s = x[k] / diagonal;
+            factor[k * n + k] = root;
+            for (int i = k + 1; i < n; i++) {
+                factor[k * n + i] = (factor[k * n + i] + sign * s * x[i]) / c;
+                x[i] = c * x[i] - s * factor[k * n + i];
+            }
+        }
+
+        Metrics.record(operation, 4L * n * n, 8L * n * n, 2, start);
+
+        return Optional.of(new CholeskyDecomposition(factor, n));
+    }
+}
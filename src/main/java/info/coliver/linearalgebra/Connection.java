@@ -0,0 +1,137 @@
+package info.coliver.linearalgebra;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A socket carrying the messages exchanged between a cluster and its workers and among the workers.
+ * A message is a header of six little endian 32 bit integers, the type, an identifier, a block row, a block column,
+ * a step and the length of the body, followed by the body, which is usually a tile in MatrixFormat. Header and body
+ * are sent with a single gathering write straight from their buffers, so a tile encoded once can be sent to any number
+ * of connections without being copied.
+ * Sending is thread safe; receiving is reserved to the single thread that reads the connection.
+ */
+final class Connection implements AutoCloseable {
+
+    static final int SETUP = 1;
+    static final int PUT = 2;
+    static final int GET = 3;
+    static final int TILE = 4;
+    static final int MULTIPLY = 5;
+    static final int PANEL_A = 6;
+    static final int PANEL_B = 7;
+    static final int DONE = 8;
+    static final int ERROR = 9;
+    static final int FREE = 10;
+    static final int ACKNOWLEDGE = 11;
+
+    private static final int HEADER_BYTES = 24;
+
+    private final SocketChannel channel;
+    private final ByteBuffer outgoing = ByteBuffer.allocateDirect(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer incoming = ByteBuffer.allocateDirect(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer body = ByteBuffer.allocateDirect(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+    Connection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(true);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    static Connection open(InetSocketAddress address) throws IOException {
+        return new Connection(SocketChannel.open(address));
+    }
+
+    /**
+     * @param body
+     * the body of the message, or null for none; its position and limit are left unchanged
+     */
+    synchronized void send(int type, int id, int row, int column, int step, ByteBuffer body) throws IOException {
+
+        ByteBuffer content = body == null ? ByteBuffer.allocate(0) : body.duplicate();
+
+        outgoing.clear();
+        outgoing.putInt(type).putInt(id).putInt(row).putInt(column).putInt(step).putInt(content.remaining());
+        outgoing.flip();
+
+        ByteBuffer[] buffers = {outgoing, content};
+        while (outgoing.hasRemaining() || content.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    /**
+     * @return
+     * the next message, whose body is only valid until the following call
+     */
+    Message receive() throws IOException {
+
+        incoming.clear();
+        fill(incoming);
+        incoming.flip();
+
+        int type = incoming.getInt();
+        int id = incoming.getInt();
+        int row = incoming.getInt();
+        int column = incoming.getInt();
+        int step = incoming.getInt();
+        int length = incoming.getInt();
+
+        if (length < 0) {
+            throw new IOException("A message may not have a body of negative length.");
+        }
+        if (length > body.capacity()) {
+            body = ByteBuffer.allocateDirect(Math.max(length, 2 * body.capacity())).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        body.clear();
+        body.limit(length);
+        fill(body);
+        body.flip();
+
+        return new Message(type, id, row, column, step, body);
+    }
+
+    private void fill(ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The connection was closed.");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing is left to release
+        }
+    }
+
+    static final class Message {
+
+        final int type;
+        final int id;
+        final int row;
+        final int column;
+        final int step;
+        final ByteBuffer body;
+
+        private Message(int type, int id, int row, int column, int step, ByteBuffer body) {
+            this.type = type;
+            this.id = id;
+            this.row = row;
+            this.column = column;
+            this.step = step;
+            this.body = body;
+        }
+    }
+}
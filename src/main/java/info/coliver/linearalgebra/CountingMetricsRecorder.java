@@ -0,0 +1,137 @@
+package info.coliver.linearalgebra;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A recorder that accumulates counters and power of two latency histograms per operation.
+ * Counters are striped so that concurrent operations do not contend, and may be read over JMX after register is
+ * called.
+ */
+public class CountingMetricsRecorder implements MetricsRecorder, CountingMetricsRecorderMXBean {
+
+    public static final String OBJECT_NAME = "info.coliver.linearalgebra:type=Metrics";
+
+    private static final int BUCKETS = 64;
+
+    private final ConcurrentMap<String, Statistics> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> iterations = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordOperation(String operation, long floatingPointOperations, long bytes, long allocations, long nanos) {
+
+        Statistics statistics = operations.computeIfAbsent(operation, name -> new Statistics());
+
+        statistics.calls.increment();
+        statistics.floatingPointOperations.add(floatingPointOperations);
+        statistics.bytes.add(bytes);
+        statistics.allocations.add(allocations);
+        statistics.nanos.add(nanos);
+        statistics.latency[BUCKETS - Long.numberOfLeadingZeros(Math.max(nanos, 0L))].increment();
+    }
+
+    @Override
+    public void recordIterations(String solver, long count) {
+        iterations.computeIfAbsent(solver, name -> new LongAdder()).add(count);
+    }
+
+    /**
+     * Register this recorder with the platform MBean server.
+     * @return
+     * the name under which the recorder was registered
+     * @throws JMException
+     * if a recorder is already registered under that name or registration fails
+     */
+    public ObjectName register() throws JMException {
+
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+
+        return name;
+    }
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return snapshot(statistics -> statistics.calls);
+    }
+
+    @Override
+    public Map<String, Long> getFloatingPointOperations() {
+        return snapshot(statistics -> statistics.floatingPointOperations);
+    }
+
+    @Override
+    public Map<String, Long> getBytes() {
+        return snapshot(statistics -> statistics.bytes);
+    }
+
+    @Override
+    public Map<String, Long> getAllocations() {
+        return snapshot(statistics -> statistics.allocations);
+    }
+
+    @Override
+    public Map<String, Long> getTotalNanos() {
+        return snapshot(statistics -> statistics.nanos);
+    }
+
+    @Override
+    public Map<String, Long> getIterations() {
+
+        Map<String, Long> result = new TreeMap<>();
+        iterations.forEach((name, counter) -> result.put(name, counter.sum()));
+
+        return result;
+    }
+
+    @Override
+    public long[] latencyHistogram(String operation) {
+
+        long[] histogram = new long[BUCKETS + 1];
+        Statistics statistics = operations.get(operation);
+
+        if (statistics != null) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = statistics.latency[i].sum();
+            }
+        }
+
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+        iterations.clear();
+    }
+
+    private Map<String, Long> snapshot(Function<Statistics, LongAdder> counter) {
+
+        Map<String, Long> result = new TreeMap<>();
+        operations.forEach((name, statistics) -> result.put(name, counter.apply(statistics).sum()));
+
+        return result;
+    }
+
+    private static final class Statistics {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder floatingPointOperations = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder allocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder[] latency = new LongAdder[BUCKETS + 1];
+
+        private Statistics() {
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package info.coliver.linearalgebra;
+
+import java.util.Map;
+
+/**
+ * Management interface through which a CountingMetricsRecorder is exported over JMX.
+ * Every map is keyed by operation or solver name.
+ */
+public interface CountingMetricsRecorderMXBean {
+
+    Map<String, Long> getCalls();
+
+    Map<String, Long> getFloatingPointOperations();
+
+    Map<String, Long> getBytes();
+
+    Map<String, Long> getAllocations();
+
+    Map<String, Long> getTotalNanos();
+
+    Map<String, Long> getIterations();
+
+    /**
+     * @param operation
+     * the name of the operation
+     * @return
+     * the number of calls of the operation whose latency in nanoseconds lies in [2^(i - 1), 2^i) for each bucket i
+     */
+    long[] latencyHistogram(String operation);
+
+    void reset();
+}
@@ -0,0 +1,183 @@
+package info.coliver.linearalgebra;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+/**
+ * A matrix whose blocks are held by the workers of a MatrixCluster in a block-cyclic layout.
+ * The matrix is cut into square blocks of blockSize, the last block row and column being smaller when the size is
+ * not a multiple of it, and block (I, J) lives on the worker that the cluster assigns to it. Only the descriptor lives
+ * in the coordinating process, so a matrix may be as large as the memory of all the workers together.
+ * Closing a distributed matrix releases its blocks on the workers.
+ */
+public class DistributedMatrix implements AutoCloseable {
+
+    private final MatrixCluster cluster;
+    private final int id;
+    private final int height;
+    private final int width;
+    private final int blockSize;
+
+    private DistributedMatrix(MatrixCluster cluster, int id, int height, int width, int blockSize) {
+        this.cluster = cluster;
+        this.id = id;
+        this.height = height;
+        this.width = width;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Cut the matrix into blocks and send every block to its owner.
+     * memory operations: mn
+     * @return
+     * an empty optional if the matrix is ragged or the block size is not positive, or an optional containing the
+     * distributed matrix
+     */
+    public static Optional<DistributedMatrix> distribute(MatrixCluster cluster, Matrix matrix, int blockSize) {
+
+        if (cluster == null || matrix == null || blockSize <= 0) {
+            return Optional.empty();
+        }
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+        Optional<double[]> components = Matrix.toArray(matrix);
+        if (!components.isPresent()) {
+            return Optional.empty();
+        }
+
+        DistributedMatrix distributed = new DistributedMatrix(cluster, cluster.nextIdentifier(), height, width, blockSize);
+        double[] a = components.get();
+
+        synchronized (cluster) {
+            for (int j = 0; j < distributed.getBlockColumns(); j++) {
+                for (int i = 0; i < distributed.getBlockRows(); i++) {
+                    int rows = Math.min(blockSize, height - i * blockSize);
+                    int columns = Math.min(blockSize, width - j * blockSize);
+                    double[] block = new double[rows * columns];
+                    for (int q = 0; q < columns; q++) {
+                        System.arraycopy(a, (j * blockSize + q) * height + i * blockSize, block, q * rows, rows);
+                    }
+                    cluster.send(cluster.owner(i, j), Connection.PUT, distributed.id, i, j, MatrixFormat.encode(block, rows, columns));
+                }
+            }
+        }
+
+        return Optional.of(distributed);
+    }
+
+    /**
+     * Fetch every block from its owner, all requests being sent before the first reply is read.
+     * memory operations: mn
+     * @return
+     * the matrix assembled in the coordinating process
+     */
+    public Matrix gather() {
+
+        int[] owners = new int[getBlockRows() * getBlockColumns()];
+        double[] a = new double[height * width];
+
+        synchronized (cluster) {
+            for (int j = 0; j < getBlockColumns(); j++) {
+                for (int i = 0; i < getBlockRows(); i++) {
+                    owners[j * getBlockRows() + i] = cluster.owner(i, j);
+                    cluster.send(cluster.owner(i, j), Connection.GET, id, i, j, null);
+                }
+            }
+
+            // every worker answers its requests in the order in which they were sent, and every tile names its block
+            cluster.receive(owners, Connection.TILE, reply -> {
+                MatrixFormat.Tile tile = MatrixFormat.read(reply.body)
+                        .orElseThrow(() -> new IllegalStateException("A worker returned a malformed block."));
+                for (int q = 0; q < tile.width; q++) {
+                    System.arraycopy(tile.components, q * tile.height, a,
+                            (reply.column * blockSize + q) * height + reply.row * blockSize, tile.height);
+                }
+            });
+        }
+
+        return Matrix.fromArray(a, height, width);
+    }
+
+    /**
+     * Multiply by SUMMA, the scalable universal matrix multiplication algorithm: the workers step through the block
+     * columns of a, broadcasting each panel of a along the rows of the process grid and the matching panel of b along
+     * its columns, and accumulate the products into the blocks of the result they own. A worker sends the panels of a
+     * step only once every receiver has acknowledged those of its previous one, so besides its own blocks a worker
+     * holds at most the panels of one step from each other worker of its process row and column, however unevenly
+     * the workers progress. The coordinating process exchanges no components at all.
+     * floating point operations: 2mnp, spread over the workers
+     * memory operations: (mn / gridRows + np / gridColumns) per worker
+     * @param a
+     * m by n distributed matrix
+     * @param b
+     * n by p distributed matrix on the same cluster with the same block size
+     * @return
+     * an empty optional or an optional containing the m by p product, distributed like its factors
+     */
+    public static Optional<DistributedMatrix> multiply(DistributedMatrix a, DistributedMatrix b) {
+
+        if (a == null || b == null || a.cluster != b.cluster || a.width != b.height || a.blockSize != b.blockSize) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        MatrixCluster cluster = a.cluster;
+        DistributedMatrix product = new DistributedMatrix(cluster, cluster.nextIdentifier(), a.height, b.width, a.blockSize);
+
+        ByteBuffer command = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        command.putInt(a.id).putInt(b.id).putInt(a.getBlockRows()).putInt(a.getBlockColumns()).putInt(b.getBlockColumns());
+        command.flip();
+
+        int[] ranks = new int[cluster.size()];
+
+        synchronized (cluster) {
+            for (int rank = 0; rank < cluster.size(); rank++) {
+                ranks[rank] = rank;
+                cluster.send(rank, Connection.MULTIPLY, product.id, 0, 0, command);
+            }
+            cluster.receive(ranks, Connection.DONE, reply -> { });
+        }
+
+        long m = a.height;
+        long n = a.width;
+        long p = b.width;
+        Metrics.record("DistributedMatrix.multiply", 2 * m * n * p, 8 * (m * n + n * p), 0, start);
+
+        return Optional.of(product);
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlockRows() {
+        return (height + blockSize - 1) / blockSize;
+    }
+
+    public int getBlockColumns() {
+        return (width + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Release the blocks of this matrix on every worker.
+     */
+    @Override
+    public void close() {
+        synchronized (cluster) {
+            for (int rank = 0; rank < cluster.size(); rank++) {
+                cluster.send(rank, Connection.FREE, id, 0, 0, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package info.coliver.linearalgebra;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Element-wise kernels over components held in column major primitive arrays, in each of the modes of Execution.
+ * A parallel operation splits the array into blocks of whole columns, or of consecutive components when a column is
+ * longer than a block, so that every task streams through a contiguous range.
+ * Reductions combine partial results in a different order from a sequential pass, so parallel and vectorized
+ * reductions expect an associative function of which the identity is a neutral element, as Stream.reduce does.
+ */
+final class ElementWise {
+
+    // components processed by a single task, fewer are not worth forking
+    private static final int GRAIN = 1 << 14;
+
+    private ElementWise() {
+    }
+
+    static double[] map(double[] a, int height, DoubleUnaryOperator function, Execution execution) {
+
+        double[] result = new double[a.length];
+
+        if (execution == Execution.PARALLEL && a.length > GRAIN) {
+            int block = block(height);
+            blocks(a.length, block).forEach(b -> map(a, result, function, b * block, Math.min(a.length, (b + 1) * block)));
+        } else if (execution == Execution.VECTORIZED) {
+            int i = 0;
+            for (; i + 3 < a.length; i += 4) {
+                result[i] = function.applyAsDouble(a[i]);
+                result[i + 1] = function.applyAsDouble(a[i + 1]);
+                result[i + 2] = function.applyAsDouble(a[i + 2]);
+                result[i + 3] = function.applyAsDouble(a[i + 3]);
+            }
+            map(a, result, function, i, a.length);
+        } else {
+            map(a, result, function, 0, a.length);
+        }
+
+        return result;
+    }
+
+    private static void map(double[] a, double[] result, DoubleUnaryOperator function, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = function.applyAsDouble(a[i]);
+        }
+    }
+
+    static double[] zipWith(double[] a, double[] b, int height, DoubleBinaryOperator function, Execution execution) {
+
+        double[] result = new double[a.length];
+
+        if (execution == Execution.PARALLEL && a.length > GRAIN) {
+            int block = block(height);
+            blocks(a.length, block).forEach(k -> zipWith(a, b, result, function, k * block, Math.min(a.length, (k + 1) * block)));
+        } else if (execution == Execution.VECTORIZED) {
+            int i = 0;
+            for (; i + 3 < a.length; i += 4) {
+                result[i] = function.applyAsDouble(a[i], b[i]);
+                result[i + 1] = function.applyAsDouble(a[i + 1], b[i + 1]);
+                result[i + 2] = function.applyAsDouble(a[i + 2], b[i + 2]);
+                result[i + 3] = function.applyAsDouble(a[i + 3], b[i + 3]);
+            }
+            zipWith(a, b, result, function, i, a.length);
+        } else {
+            zipWith(a, b, result, function, 0, a.length);
+        }
+
+        return result;
+    }
+
+    private static void zipWith(double[] a, double[] b, double[] result, DoubleBinaryOperator function, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = function.applyAsDouble(a[i], b[i]);
+        }
+    }
+
+    /**
+     * The product is written without a function so that every mode runs a plain multiplication loop, which the just in
+     * time compiler vectorizes.
+     */
+    static double[] hadamard(double[] a, double[] b, int height, Execution execution) {
+
+        double[] result = new double[a.length];
+
+        if (execution == Execution.PARALLEL && a.length > GRAIN) {
+            int block = block(height);
+            blocks(a.length, block).forEach(k -> hadamard(a, b, result, k * block, Math.min(a.length, (k + 1) * block)));
+        } else {
+            hadamard(a, b, result, 0, a.length);
+        }
+
+        return result;
+    }
+
+    private static void hadamard(double[] a, double[] b, double[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = a[i] * b[i];
+        }
+    }
+
+    static double reduce(double[] a, int height, double identity, DoubleBinaryOperator function, Execution execution) {
+
+        if (execution == Execution.PARALLEL && a.length > GRAIN) {
+            int block = block(height);
+            int count = (a.length + block - 1) / block;
+            double[] partial = new double[count];
+            blocks(a.length, block).forEach(k -> partial[k] = reduce(a, identity, function, k * block, Math.min(a.length, (k + 1) * block)));
+            // combine in block order so that the result does not depend on the scheduling of the tasks
+            double result = identity;
+            for (double value : partial) {
+                result = function.applyAsDouble(result, value);
+            }
+            return result;
+        }
+
+        if (execution == Execution.VECTORIZED) {
+            double first = identity;
+            double second = identity;
+            double third = identity;
+            double fourth = identity;
+            int i = 0;
+            for (; i + 3 < a.length; i += 4) {
+                first = function.applyAsDouble(first, a[i]);
+                second = function.applyAsDouble(second, a[i + 1]);
+                third = function.applyAsDouble(third, a[i + 2]);
+                fourth = function.applyAsDouble(fourth, a[i + 3]);
+            }
+            double result = function.applyAsDouble(function.applyAsDouble(first, second), function.applyAsDouble(third, fourth));
+            return function.applyAsDouble(result, reduce(a, identity, function, i, a.length));
+        }
+
+        return reduce(a, identity, function, 0, a.length);
+    }
+
+    private static double reduce(double[] a, double identity, DoubleBinaryOperator function, int from, int to) {
+
+        double result = identity;
+        for (int i = from; i < to; i++) {
+            result = function.applyAsDouble(result, a[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return
+     * the number of components per task: whole columns if a column is shorter than the grain
+     */
+    private static int block(int height) {
+        return height >= GRAIN ? GRAIN : (GRAIN / height) * height;
+    }
+
+    private static IntStream blocks(int length, int block) {
+        return IntStream.range(0, (length + block - 1) / block).parallel();
+    }
+}
@@ -0,0 +1,27 @@
+package info.coliver.linearalgebra;
+
+/**
+ * The ways in which an element-wise operation may run over the components of a vector or matrix.
+ * Whatever the mode, the components are unboxed once into a primitive array, every function receives and returns
+ * primitive doubles, and the results are boxed once into the new vector or matrix.
+ */
+public enum Execution {
+
+    /**
+     * One pass over the components in column major order on the calling thread.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Blocks of whole columns, or of consecutive components of a vector, processed in parallel on the common fork
+     * join pool; operations too small to repay the forking run sequentially.
+     */
+    PARALLEL,
+
+    /**
+     * One pass on the calling thread, unrolled over four lanes: maps and products are written so that the just in time
+     * compiler can turn them into SIMD instructions, and reductions keep four independent accumulators so that
+     * consecutive steps do not wait on each other.
+     */
+    VECTORIZED
+}
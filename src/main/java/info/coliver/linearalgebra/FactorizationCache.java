@@ -0,0 +1,223 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * A bounded cache of LU factorizations keyed by the content of the factored matrix.
+ * A matrix is looked up by its dimensions, its pivot strategy and a 64 bit hash of its components; the components are
+ * then compared in full, so a hash collision can never return the factors of a different matrix. Entries are evicted
+ * in least recently used order whenever the bytes held by the cached matrices and their factors exceed the bound, and
+ * a factorization larger than the bound is computed but never cached. Looking up a matrix costs a single pass over its
+ * components, so a repeated system is solved in O(n^2) instead of O(n^3).
+ * The cache is safe for concurrent use; factorizations are computed outside of its lock.
+ */
+public class FactorizationCache {
+
+    // bytes charged per entry for the key, the map node and the decomposition object
+    private static final long ENTRY_OVERHEAD = 128;
+
+    private final long maximumBytes;
+    private final LinkedHashMap<Key, LUDecomposition> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maximumBytes
+     * the number of bytes of matrices and factors that may be held at once
+     */
+    public FactorizationCache(long maximumBytes) {
+
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("The maximum size of a cache must be positive.");
+        }
+
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * @param matrix
+     * a square matrix
+     * @return
+     * an empty optional if the matrix is singular or an optional containing the cached or newly computed
+     * factorization with partial pivoting
+     */
+    public Optional<LUDecomposition> decompose(Matrix matrix) {
+        return decompose(matrix, LUDecomposition.PivotStrategy.PARTIAL);
+    }
+
+    /**
+     * floating point operations: 2/3 n^3 on a miss, none on a hit
+     * memory operations: n^2
+     * @param matrix
+     * a square matrix
+     * @param strategy
+     * the way in which each pivot is chosen
+     * @return
+     * an empty optional if the matrix is singular or an optional containing the cached or newly computed factorization
+     */
+    public Optional<LUDecomposition> decompose(Matrix matrix, LUDecomposition.PivotStrategy strategy) {
+
+        if (matrix == null || strategy == null) {
+            return Optional.empty();
+        }
+
+        int n = matrix.getComponents().size();
+        if (n != matrix.getComponents().get(0).size()) {
+            return Optional.empty();
+        }
+
+        Optional<double[]> components = Matrix.toArray(matrix);
+        if (!components.isPresent()) {
+            return Optional.empty();
+        }
+
+        Key key = new Key(components.get(), n, strategy);
+
+        synchronized (this) {
+            LUDecomposition cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return Optional.of(cached);
+            }
+            misses++;
+        }
+
+        Optional<LUDecomposition> decomposition = LUDecomposition.decompose(components.get().clone(), n, strategy);
+        decomposition.ifPresent(lu -> put(key, lu));
+
+        return decomposition;
+    }
+
+    /**
+     * Solve the system with the cached factorization of its left hand side, factoring it on a miss.
+     * floating point operations: 2n^2 r on a hit
+     * @param linearSystem
+     * a linear system to be solved
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the solved system in the form of
+     * LinearSystem.solve
+     */
+    public Optional<LinearSystem> solve(LinearSystem linearSystem) {
+
+        if (linearSystem == null) {
+            return Optional.empty();
+        }
+
+        return decompose(linearSystem.getLhs()).flatMap(lu -> LinearSystem.solve(linearSystem, lu));
+    }
+
+    /**
+     * floating point operations: 2n^3 on a hit
+     * @param matrix
+     * a square matrix
+     * @return
+     * an empty optional if the matrix is singular or an optional containing its inverse
+     */
+    public Optional<Matrix> inverse(Matrix matrix) {
+        return decompose(matrix).flatMap(lu -> Matrix.identity(matrix).flatMap(lu::solve));
+    }
+
+    private synchronized void put(Key key, LUDecomposition decomposition) {
+
+        long size = key.bytes() + decomposition.bytes();
+
+        if (size > maximumBytes || entries.containsKey(key)) {
+            return;
+        }
+
+        entries.put(key, decomposition);
+        bytes += size;
+
+        Iterator<Map.Entry<Key, LUDecomposition>> eldest = entries.entrySet().iterator();
+        while (bytes > maximumBytes) {
+            Map.Entry<Key, LUDecomposition> entry = eldest.next();
+            bytes -= entry.getKey().bytes() + entry.getValue().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return
+     * the number of bytes of matrices and factors currently held
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return
+     * a 64 bit hash of the bit patterns of the components, mixed so that permuted or nearby components differ
+     */
+    static long contentHash(double[] components) {
+
+        long hash = 0xcbf29ce484222325L;
+
+        for (double component : components) {
+            hash ^= Double.doubleToLongBits(component);
+            hash *= 0x100000001b3L;
+            hash ^= hash >>> 29;
+        }
+
+        return hash;
+    }
+
+    private static final class Key {
+
+        private final double[] components;
+        private final int size;
+        private final LUDecomposition.PivotStrategy strategy;
+        private final long hash;
+
+        private Key(double[] components, int size, LUDecomposition.PivotStrategy strategy) {
+            this.components = components;
+            this.size = size;
+            this.strategy = strategy;
+            this.hash = contentHash(components);
+        }
+
+        private long bytes() {
+            return 8L * components.length + ENTRY_OVERHEAD;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+
+            return hash == key.hash && size == key.size && strategy == key.strategy && Arrays.equals(components, key.components);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * A matrix whose components can never change once it has been built.
+ * Components are kept in a private column major array that is written only before construction completes and is never
+ * handed out, so by the final field semantics of the Java memory model an instance may be shared between any number
+ * of threads, through any kind of publication, without copies or locks. A shared operator is therefore built once,
+ * with a builder or from a Matrix, and read concurrently by every request; changes are made by building a new matrix,
+ * either with a builder or with the copy-on-write method with.
+ */
+public final class ImmutableMatrix {
+
+    private final double[] components;
+    private final int height;
+    private final int width;
+
+    private ImmutableMatrix(double[] components, int height, int width) {
+        this.components = components;
+        this.height = height;
+        this.width = width;
+    }
+
+    public static Builder builder(int height, int width) {
+        return new Builder(height, width);
+    }
+
+    /**
+     * memory operations: mn
+     * @param matrix
+     * the matrix who's components should be copied
+     * @return
+     * an empty optional or an optional containing the immutable copy of the matrix
+     */
+    public static Optional<ImmutableMatrix> of(Matrix matrix) {
+
+        if (matrix == null || matrix.getComponents() == null || matrix.getComponents().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> columns = matrix.getComponents();
+        int width = columns.size();
+        int height = columns.get(0) == null ? 0 : columns.get(0).size();
+
+        if (height == 0) {
+            return Optional.empty();
+        }
+
+        double[] components = new double[Math.multiplyExact(height, width)];
+
+        for (int j = 0; j < width; j++) {
+            List<Double> column = columns.get(j);
+            if (column == null || column.size() != height) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < height; i++) {
+                Double component = column.get(i);
+                if (component == null) {
+                    return Optional.empty();
+                }
+                components[j * height + i] = component;
+            }
+        }
+
+        return Optional.of(new ImmutableMatrix(components, height, width));
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public double get(int row, int column) {
+
+        if (row < 0 || row >= height || column < 0 || column >= width) {
+            throw new IndexOutOfBoundsException("The component (" + row + ", " + column + ") lies outside of a " + height + " by " + width + " matrix.");
+        }
+
+        return components[column * height + row];
+    }
+
+    /**
+     * memory operations: m
+     * @return
+     * the column at the given index
+     */
+    public ImmutableVector column(int column) {
+
+        if (column < 0 || column >= width) {
+            throw new IndexOutOfBoundsException("The column " + column + " lies outside of a " + height + " by " + width + " matrix.");
+        }
+
+        return ImmutableVector.wrap(Arrays.copyOfRange(components, column * height, (column + 1) * height));
+    }
+
+    /**
+     * floating point operations: 0
+     * memory operations: mn
+     * @return
+     * a new matrix equal to this one except for the component at the given row and column
+     */
+    public ImmutableMatrix with(int row, int column, double value) {
+
+        if (row < 0 || row >= height || column < 0 || column >= width) {
+            throw new IndexOutOfBoundsException("The component (" + row + ", " + column + ") lies outside of a " + height + " by " + width + " matrix.");
+        }
+
+        double[] copy = components.clone();
+        copy[column * height + row] = value;
+
+        return new ImmutableMatrix(copy, height, width);
+    }
+
+    /**
+     * Expose this matrix to the operations of Matrix without copying it.
+     * memory operations: n
+     * @return
+     * a matrix reading the components of this matrix in place, whose column lists refuse modification
+     */
+    public Matrix asMatrix() {
+
+        List<List<Double>> columns = new ArrayList<>(width);
+        for (int j = 0; j < width; j++) {
+            columns.add(new ImmutableVector.ComponentList(components, j * height, height));
+        }
+
+        return new Matrix(Collections.unmodifiableList(columns));
+    }
+
+    /**
+     * memory operations: mn
+     * @return
+     * a mutable copy of this matrix
+     */
+    public Matrix toMatrix() {
+        return Matrix.fromArray(components, height, width);
+    }
+
+    /**
+     * memory operations: mn
+     */
+    public static Optional<ImmutableMatrix> transpose(ImmutableMatrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ImmutableMatrix(Kernels.transpose(matrix.components, matrix.height, matrix.width), matrix.width, matrix.height));
+    }
+
+    /**
+     * floating point operations: mn
+     * memory operations: mn
+     */
+    public static Optional<ImmutableMatrix> scale(ImmutableMatrix matrix, double factor) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        double[] product = new double[matrix.components.length];
+        for (int i = 0; i < product.length; i++) {
+            product[i] = factor * matrix.components[i];
+        }
+
+        return Optional.of(new ImmutableMatrix(product, matrix.height, matrix.width));
+    }
+
+    /**
+     * floating point operations: mn
+     * memory operations: 2mn
+     */
+    public static Optional<ImmutableMatrix> add(ImmutableMatrix a, ImmutableMatrix b) {
+
+        if (a == null || b == null || a.height != b.height || a.width != b.width) {
+            return Optional.empty();
+        }
+
+        double[] sum = new double[a.components.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = a.components[i] + b.components[i];
+        }
+
+        return Optional.of(new ImmutableMatrix(sum, a.height, a.width));
+    }
+
+    /**
+     * floating point operations: mn
+     * memory operations: 2mn
+     */
+    public static Optional<ImmutableMatrix> subtract(ImmutableMatrix a, ImmutableMatrix b) {
+
+        if (a == null || b == null || a.height != b.height || a.width != b.width) {
+            return Optional.empty();
+        }
+
+        double[] difference = new double[a.components.length];
+        for (int i = 0; i < difference.length; i++) {
+            difference[i] = a.components[i] - b.components[i];
+        }
+
+        return Optional.of(new ImmutableMatrix(difference, a.height, a.width));
+    }
+
+    /**
+     * floating point operations: 2mnp
+     * memory operations: 3mnp
+     * @param a
+     * m by n matrix
+     * @param b
+     * n by p matrix
+     * @return
+     * an empty optional or an optional containing the m by p product
+     */
+    public static Optional<ImmutableMatrix> matrixMultiplication(ImmutableMatrix a, ImmutableMatrix b) {
+
+        if (a == null || b == null || a.width != b.height) {
+            return Optional.empty();
+        }
+
+        double[] product = new double[a.height * b.width];
+        Kernels.multiply(a.components, b.components, product, a.height, a.width, b.width);
+
+        return Optional.of(new ImmutableMatrix(product, a.height, b.width));
+    }
+
+    /**
+     * floating point operations: 2mn
+     * memory operations: 2mn
+     * @param matrix
+     * m by n matrix
+     * @param vector
+     * vector of size n
+     * @return
+     * an empty optional or an optional containing the product of the matrix and the vector
+     */
+    public static Optional<ImmutableVector> vectorMultiplication(ImmutableMatrix matrix, ImmutableVector vector) {
+
+        if (matrix == null || vector == null || matrix.width != vector.size()) {
+            return Optional.empty();
+        }
+
+        double[] product = new double[matrix.height];
+        Kernels.multiply(matrix.components, vector.components(), product, matrix.height, matrix.width, 1);
+
+        return Optional.of(ImmutableVector.wrap(product));
+    }
+
+    /**
+     * Solve lhs X = rhs by LU factorization with partial pivoting, working on a private copy of the left hand side.
+     * floating point operations: 2/3 n^3 + 2n^2 r
+     * @param lhs
+     * n by n left hand side
+     * @param rhs
+     * n by r right hand side
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the n by r solution
+     */
+    public static Optional<ImmutableMatrix> solve(ImmutableMatrix lhs, ImmutableMatrix rhs) {
+
+        if (lhs == null || rhs == null || lhs.height != lhs.width || lhs.height != rhs.height) {
+            return Optional.empty();
+        }
+
+        return LUDecomposition.decompose(lhs.components.clone(), lhs.height, LUDecomposition.PivotStrategy.PARTIAL)
+                .map(lu -> {
+                    double[] solution = rhs.components.clone();
+                    lu.solve(solution, rhs.width);
+                    return new ImmutableMatrix(solution, rhs.height, rhs.width);
+                });
+    }
+
+    @Override
+    public boolean equals(Object other) {
+
+        if (!(other instanceof ImmutableMatrix)) {
+            return false;
+        }
+
+        ImmutableMatrix matrix = (ImmutableMatrix) other;
+
+        return height == matrix.height && width == matrix.width && Arrays.equals(components, matrix.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * height + width) + Arrays.hashCode(components);
+    }
+
+    /**
+     * Collects components for a single matrix; it is not thread safe and should stay confined to the building thread.
+     */
+    public static final class Builder {
+
+        private final double[] components;
+        private final int height;
+        private final int width;
+
+        private Builder(int height, int width) {
+
+            if (height <= 0 || width <= 0) {
+                throw new IllegalArgumentException("The height and width of a matrix must be positive.");
+            }
+
+            this.components = new double[Math.multiplyExact(height, width)];
+            this.height = height;
+            this.width = width;
+        }
+
+        public Builder set(int row, int column, double value) {
+
+            if (row < 0 || row >= height || column < 0 || column >= width) {
+                throw new IndexOutOfBoundsException("The component (" + row + ", " + column + ") lies outside of a " + height + " by " + width + " matrix.");
+            }
+
+            components[column * height + row] = value;
+            return this;
+        }
+
+        /**
+         * @return
+         * a matrix holding a copy of the components, so that the builder may be reused
+         */
+        public ImmutableMatrix build() {
+            return new ImmutableMatrix(components.clone(), height, width);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * A vector whose components can never change once it has been built.
+ * The components live in a private array that is written only before construction completes and is never handed
+ * out, so by the final field semantics of the Java memory model an instance may be shared between any number of
+ * threads, through any kind of publication, without copies or locks. Changes are made by building a new vector,
+ * either with a builder or with the copy-on-write method with.
+ */
+public final class ImmutableVector {
+
+    private final double[] components;
+
+    private ImmutableVector(double[] components) {
+        this.components = components;
+    }
+
+    public static Builder builder(int size) {
+        return new Builder(size);
+    }
+
+    /**
+     * memory operations: n
+     * @param vector
+     * the vector who's components should be copied
+     * @return
+     * an empty optional or an optional containing the immutable copy of the vector
+     */
+    public static Optional<ImmutableVector> of(Vector vector) {
+
+        if (vector == null || vector.getComponents().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Double> source = vector.getComponents();
+        double[] components = new double[source.size()];
+
+        for (int i = 0; i < components.length; i++) {
+            Double component = source.get(i);
+            if (component == null) {
+                return Optional.empty();
+            }
+            components[i] = component;
+        }
+
+        return Optional.of(new ImmutableVector(components));
+    }
+
+    public int size() {
+        return components.length;
+    }
+
+    public double get(int index) {
+        return components[index];
+    }
+
+    /**
+     * floating point operations: 0
+     * memory operations: n
+     * @return
+     * a new vector equal to this one except for the component at the given index
+     */
+    public ImmutableVector with(int index, double value) {
+
+        if (index < 0 || index >= components.length) {
+            throw new IndexOutOfBoundsException("The index " + index + " lies outside of a vector of size " + components.length + ".");
+        }
+
+        double[] copy = components.clone();
+        copy[index] = value;
+
+        return new ImmutableVector(copy);
+    }
+
+    /**
+     * memory operations: 1
+     * @return
+     * a vector reading the components of this vector in place, whose component list refuses modification
+     */
+    public Vector asVector() {
+        return new Vector(new ComponentList(components, 0, components.length));
+    }
+
+    /**
+     * memory operations: n
+     * @return
+     * a mutable copy of this vector
+     */
+    public Vector toVector() {
+
+        List<Double> copy = new ArrayList<>(components.length);
+        for (double component : components) {
+            copy.add(component);
+        }
+
+        return new Vector(copy);
+    }
+
+    double[] components() {
+        return components;
+    }
+
+    static ImmutableVector wrap(double[] components) {
+        return new ImmutableVector(components);
+    }
+
+    /**
+     * floating point operations: n
+     * memory operations: 2n
+     */
+    public static Optional<ImmutableVector> add(ImmutableVector a, ImmutableVector b) {
+
+        if (a == null || b == null || a.components.length != b.components.length) {
+            return Optional.empty();
+        }
+
+        double[] sum = new double[a.components.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = a.components[i] + b.components[i];
+        }
+
+        return Optional.of(new ImmutableVector(sum));
+    }
+
+    /**
+     * floating point operations: n
+     * memory operations: 2n
+     */
+    public static Optional<ImmutableVector> subtract(ImmutableVector a, ImmutableVector b) {
+
+        if (a == null || b == null || a.components.length != b.components.length) {
+            return Optional.empty();
+        }
+
+        double[] difference = new double[a.components.length];
+        for (int i = 0; i < difference.length; i++) {
+            difference[i] = a.components[i] - b.components[i];
+        }
+
+        return Optional.of(new ImmutableVector(difference));
+    }
+
+    /**
+     * floating point operations: n
+     * memory operations: n
+     */
+    public static Optional<ImmutableVector> scale(ImmutableVector vector, double factor) {
+
+        if (vector == null) {
+            return Optional.empty();
+        }
+
+        double[] product = new double[vector.components.length];
+        for (int i = 0; i < product.length; i++) {
+            product[i] = factor * vector.components[i];
+        }
+
+        return Optional.of(new ImmutableVector(product));
+    }
+
+    /**
+     * floating point operations: 2n
+     * memory operations: 2n
+     */
+    public static Optional<Double> dotProduct(ImmutableVector a, ImmutableVector b) {
+
+        if (a == null || b == null || a.components.length != b.components.length) {
+            return Optional.empty();
+        }
+
+        double sum = 0.0;
+        for (int i = 0; i < a.components.length; i++) {
+            sum += a.components[i] * b.components[i];
+        }
+
+        return Optional.of(sum);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ImmutableVector && Arrays.equals(components, ((ImmutableVector) other).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+
+    /**
+     * Collects components for a single vector; it is not thread safe and should stay confined to the building thread.
+     */
+    public static final class Builder {
+
+        private final double[] components;
+
+        private Builder(int size) {
+
+            if (size <= 0) {
+                throw new IllegalArgumentException("The size of a vector must be positive.");
+            }
+
+            this.components = new double[size];
+        }
+
+        public Builder set(int index, double value) {
+            components[index] = value;
+            return this;
+        }
+
+        /**
+         * @return
+         * a vector holding a copy of the components, so that the builder may be reused
+         */
+        public ImmutableVector build() {
+            return new ImmutableVector(components.clone());
+        }
+    }
+
+    /**
+     * A read-only list over a range of a component array, used for zero-copy views.
+     */
+    static final class ComponentList extends AbstractList<Double> implements RandomAccess {
+
+        private final double[] components;
+        private final int offset;
+        private final int size;
+
+        ComponentList(double[] components, int offset, int size) {
+            this.components = components;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public Double get(int index) {
+
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("The index " + index + " lies outside of a list of size " + size + ".");
+            }
+
+            return components[offset + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
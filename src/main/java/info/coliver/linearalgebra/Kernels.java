@@ -0,0 +1,211 @@
+package info.coliver.linearalgebra;
+
+/**
+ * Dense kernels working on primitive arrays in column major order, where the component at row i and column j of an
+ * m by n matrix lives at index j * m + i. These back the algorithms that are too expensive to run on lists of boxed
+ * components.
+ */
+final class Kernels {
+
+    // depth of the panel of a that is kept hot in cache while sweeping the columns of b
+    private static final int BLOCK = 256;
+
+    // side of the blocks at which a transpose stops halving: a block of each matrix then fits in 16 KB of L1 cache
+    static final int TRANSPOSE_BLOCK = 32;
+
+    private Kernels() {
+    }
+
+    /**
+     * Accumulate the product of a and b into c.
+     * floating point operations: 2mkn
+     * @param a
+     * m by k matrix
+     * @param b
+     * k by n matrix
+     * @param c
+     * m by n matrix to which the product is added
+     */
+    static void multiply(double[] a, double[] b, double[] c, int m, int k, int n) {
+
+        for (int pp = 0; pp < k; pp += BLOCK) {
+            int pEnd = Math.min(k, pp + BLOCK);
+            for (int j = 0; j < n; j++) {
+                int cOffset = j * m;
+                for (int p = pp; p < pEnd; p++) {
+                    double bpj = b[j * k + p];
+                    if (bpj == 0.0) {
+                        continue;
+                    }
+                    int aOffset = p * m;
+                    for (int i = 0; i < m; i++) {
+                        c[cOffset + i] += a[aOffset + i] * bpj;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulate the product of the transpose of a and b into c.
+     * Every component of c is the dot product of a column of a and a column of b, so both operands are read with unit
+     * stride and the transpose is never formed.
+     * floating point operations: 2mkn
+     * @param a
+     * k by m matrix
+     * @param b
+     * k by n matrix
+     * @param c
+     * m by n matrix to which the product is added
+     */
+    static void multiplyTransposed(double[] a, double[] b, double[] c, int m, int k, int n) {
+
+        for (int j = 0; j < n; j++) {
+            int bOffset = j * k;
+            for (int i = 0; i < m; i++) {
+                int aOffset = i * k;
+                double sum = 0.0;
+                for (int p = 0; p < k; p++) {
+                    sum += a[aOffset + p] * b[bOffset + p];
+                }
+                c[j * m + i] += sum;
+            }
+        }
+    }
+
+    /**
+     * Accumulate the product of a and the transpose of b into c.
+     * floating point operations: 2mkn
+     * @param a
+     * m by k matrix
+     * @param b
+     * n by k matrix
+     * @param c
+     * m by n matrix to which the product is added
+     */
+    static void multiplyTransposedRight(double[] a, double[] b, double[] c, int m, int k, int n) {
+
+        for (int p = 0; p < k; p++) {
+            int aOffset = p * m;
+            for (int j = 0; j < n; j++) {
+                double bjp = b[p * n + j];
+                if (bjp == 0.0) {
+                    continue;
+                }
+                int cOffset = j * m;
+                for (int i = 0; i < m; i++) {
+                    c[cOffset + i] += a[aOffset + i] * bjp;
+                }
+            }
+        }
+    }
+
+    /**
+     * Transpose out of place by recursive halving: the larger dimension is split until a block of each matrix fits in
+     * the smallest cache, so that every cache line and page of both matrices is brought in about once whatever the
+     * sizes of the caches and of the TLB, where a simple double loop reads one of the two matrices with a stride of a
+     * whole column.
+     * memory operations: 2mn
+     * @param a
+     * m by n matrix
+     * @return
+     * the n by m transpose of a
+     */
+    static double[] transpose(double[] a, int m, int n) {
+
+        double[] result = new double[m * n];
+        transpose(a, 0, m, result, 0, n, m, n);
+
+        return result;
+    }
+
+    /**
+     * Write the transpose of the rows by columns block of a at offset aOffset into b at offset bOffset, the columns of
+     * a being aStride apart and those of b bStride apart.
+     */
+    private static void transpose(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, int rows, int columns) {
+
+        while (rows > TRANSPOSE_BLOCK || columns > TRANSPOSE_BLOCK) {
+            if (rows >= columns) {
+                int half = rows / 2;
+                transpose(a, aOffset, aStride, b, bOffset, bStride, half, columns);
+                aOffset += half;
+                bOffset += half * bStride;
+                rows -= half;
+            } else {
+                int half = columns / 2;
+                transpose(a, aOffset, aStride, b, bOffset, bStride, rows, half);
+                aOffset += half * aStride;
+                bOffset += half;
+                columns -= half;
+            }
+        }
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                b[bOffset + i * bStride + j] = a[aOffset + j * aStride + i];
+            }
+        }
+    }
+
+    /**
+     * Transpose a square matrix in place by recursive halving: the diagonal quadrants are transposed in place and the
+     * off diagonal quadrants are transposed into each other, so no second matrix is needed and the accesses stay as
+     * local as those of the out of place transpose.
+     * memory operations: n^2
+     * @param a
+     * n by n matrix, overwritten by its transpose
+     */
+    static void transposeSquare(double[] a, int n) {
+        transposeSquare(a, 0, n, n);
+    }
+
+    private static void transposeSquare(double[] a, int offset, int stride, int n) {
+
+        if (n <= TRANSPOSE_BLOCK) {
+            for (int j = 0; j < n; j++) {
+                for (int i = j + 1; i < n; i++) {
+                    double temp = a[offset + j * stride + i];
+                    a[offset + j * stride + i] = a[offset + i * stride + j];
+                    a[offset + i * stride + j] = temp;
+                }
+            }
+            return;
+        }
+
+        int half = n / 2;
+        transposeSquare(a, offset, stride, half);
+        transposeSquare(a, offset + half * stride + half, stride, n - half);
+        swapTransposed(a, offset + half, offset + half * stride, stride, n - half, half);
+    }
+
+    /**
+     * Exchange the rows by columns block at offset x with the transpose of the columns by rows block at offset y.
+     */
+    private static void swapTransposed(double[] a, int x, int y, int stride, int rows, int columns) {
+
+        while (rows > TRANSPOSE_BLOCK || columns > TRANSPOSE_BLOCK) {
+            if (rows >= columns) {
+                int half = rows / 2;
+                swapTransposed(a, x, y, stride, half, columns);
+                x += half;
+                y += half * stride;
+                rows -= half;
+            } else {
+                int half = columns / 2;
+                swapTransposed(a, x, y, stride, rows, half);
+                x += half * stride;
+                y += half;
+                columns -= half;
+            }
+        }
+
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                double temp = a[x + j * stride + i];
+                a[x + j * stride + i] = a[y + i * stride + j];
+                a[y + i * stride + j] = temp;
+            }
+        }
+    }
+}
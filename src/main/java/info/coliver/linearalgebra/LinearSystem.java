@@ -1,7 +1,10 @@
 package info.coliver.linearalgebra;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 public class LinearSystem {
 
@@ -9,6 +12,9 @@ public class LinearSystem {
     private Matrix rhs;
     private Vector pivot;
     private int size;
+    private double conditionNumber = Double.NaN;
+    private double pivotGrowth = Double.NaN;
+    private List<Integer> columnPermutation;
 
     LinearSystem (Matrix lhs, Matrix rhs) {
 
@@ -81,8 +87,36 @@ public class LinearSystem {
         return size;
     }
 
+    /**
+     * @return
+     * the estimated 1-norm condition number of the left hand side of the solved system, or NaN if it was not estimated
+     */
+    public double getConditionNumber() {
+        return conditionNumber;
+    }
+
+    /**
+     * @return
+     * the pivot growth of the elimination that solved the system, or NaN if it was not measured
+     */
+    public double getPivotGrowth() {
+        return pivotGrowth;
+    }
+
+    /**
+     * @return
+     * an empty optional if the elimination that solved the system interchanged no columns, or an optional containing
+     * the columns of the left hand side in the order in which they were eliminated, which together with the row
+     * interchanges held by the pivot describes a rook pivoted factorization
+     */
+    public Optional<List<Integer>> getColumnPermutation() {
+        return Optional.ofNullable(columnPermutation);
+    }
+
     /**
      * Compute the Gauss-Jordan transform of the given linear system.
+     * Each step applies the elementary transform that clears one column, performing exactly the arithmetic of
+     * multiplying by that transform, but in place on primitive buffers allocated for the call.
      * floating point operations: 2n^3
      * @param linearSystem
      * A linear system to be transformed
@@ -90,141 +124,264 @@ public class LinearSystem {
      * The linear system solution.
      */
     public static Optional<LinearSystem> gaussJordanTransform(LinearSystem linearSystem) {
+        return gaussJordanTransform(linearSystem, () -> false);
+    }
+
+    /**
+     * @param cancelled
+     * polled before every elimination step
+     * @throws CancellationException
+     * if the transform was cancelled before it completed
+     */
+    static Optional<LinearSystem> gaussJordanTransform(LinearSystem linearSystem, BooleanSupplier cancelled) {
 
         if (linearSystem == null) {
             return Optional.empty();
         }
 
-        Matrix transformedLhs = linearSystem.getLhs();
-        Matrix transformedRhs = linearSystem.getRhs();
+        long start = Metrics.start();
+
+        int n = linearSystem.getSize();
+        int r = linearSystem.getRhs().getComponents().size();
+        // the pivot is tracked in a copy so that the system passed in is never modified
+        List<Double> pivot = new ArrayList<>(linearSystem.getPivot().getComponents());
 
-        for (int i = 0; i < linearSystem.getSize(); i++ ) {
+        double[] lhs = new double[n * n];
+        double[] rhs = new double[n * r];
+        double[] multipliers = new double[n];
 
-            Optional<Matrix> transform = Matrix.identity(transformedLhs);
+        if (!copy(linearSystem.getLhs(), lhs, n) || !copy(linearSystem.getRhs(), rhs, n)) {
+            return Optional.empty();
+        }
 
-            if (!transform.isPresent()) {
-                return Optional.empty();
+        for (int i = 0; i < n; i++) {
+
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("The transform was cancelled after " + i + " of " + n + " elimination steps.");
             }
 
-            List<Double> newTransformColumn = transform.get().getComponents().get(i);
-            List<Double> matrixColumn = transformedLhs.getComponents().get(i);
-
-            Double divisor = matrixColumn.get(i);
-
-            if (divisor == 0.0) {
-                Optional<LinearSystem> systemPivoted = pivot(new LinearSystem(transformedLhs, transformedRhs), i);
-                if (systemPivoted.isPresent()) {
-                    transformedLhs = systemPivoted.get().getLhs();
-                    transformedRhs = systemPivoted.get().getRhs();
-                    linearSystem.setPivot(systemPivoted.get().getPivot());
-                    matrixColumn = transformedLhs.getComponents().get(i);
-                    divisor = matrixColumn.get(i);
-                } else {
-                    return Optional.empty();
-                }
+            if (lhs[i * n + i] == 0.0) {
+                int swap = pivot(lhs, rhs, n, r, i);
+                pivot.set(i, (double) (swap - i));
             } else {
-                Vector newPivot = linearSystem.getPivot();
-                newPivot.getComponents().set(i, 0.0);
-                linearSystem.setPivot(newPivot);
+                pivot.set(i, 0.0);
             }
 
-            for (int j = 0; j < linearSystem.getSize(); j++) {
-                Double dividend = 1.0;
-                if (j == i) {
-                    newTransformColumn.set(j, dividend / divisor);
-                } else {
-                    dividend = matrixColumn.get(j);
-                    newTransformColumn.set(j, dividend / divisor * -1);
-                }
+            double divisor = lhs[i * n + i];
+            for (int j = 0; j < n; j++) {
+                multipliers[j] = j == i ? 1.0 / divisor : lhs[i * n + j] / divisor * -1;
             }
 
-            transform.get().getComponents().set(i, newTransformColumn);
+            eliminate(lhs, n, n, multipliers, i);
+            eliminate(rhs, n, r, multipliers, i);
+        }
+
+        long size = n;
+        Metrics.record("LinearSystem.gaussJordanTransform", 2 * size * size * (size + r), 8 * size * (size + r), 2, start);
+        Metrics.iterations("LinearSystem.gaussJordanTransform", size);
 
-            Optional<Matrix> stepILhs = Matrix.matrixMultiplication(transform.get(), transformedLhs);
+        return Optional.of(new LinearSystem(Matrix.fromArray(lhs, n, n), Matrix.fromArray(rhs, n, r), new Vector(pivot)));
+    }
 
-            Optional<Matrix> transposeTransform = Matrix.transpose(transform.get());
-            if (!transposeTransform.isPresent()) {
-                return Optional.empty();
+    private static boolean copy(Matrix matrix, double[] destination, int height) {
+
+        List<List<Double>> columns = matrix.getComponents();
+
+        for (int j = 0; j < columns.size(); j++) {
+            List<Double> column = columns.get(j);
+            if (column.size() != height) {
+                return false;
+            }
+            for (int i = 0; i < height; i++) {
+                destination[j * height + i] = column.get(i);
             }
-            Optional<Matrix> stepIRhs = permuteRhs(transformedRhs, transposeTransform.get());
+        }
 
-            if (!stepILhs.isPresent() || !stepIRhs.isPresent()) {
-                return Optional.empty();
+        return true;
+    }
+
+    /**
+     * Multiply a matrix by the elementary transform that is the identity with its ith column replaced by the
+     * multipliers. Adding zero makes every zero result positive, as a dot product with the transform would.
+     */
+    private static void eliminate(double[] matrix, int height, int width, double[] multipliers, int i) {
+
+        for (int c = 0; c < width; c++) {
+            int offset = c * height;
+            double value = matrix[offset + i];
+            for (int j = 0; j < height; j++) {
+                if (j != i) {
+                    matrix[offset + j] = matrix[offset + j] + value * multipliers[j] + 0.0;
+                }
             }
+            matrix[offset + i] = value * multipliers[i] + 0.0;
+        }
+    }
+
+    /**
+     * Interchange row i with the first row below it that has a non zero component in column i.
+     * @return
+     * the row interchanged with row i, which is i itself if no such row exists
+     */
+    private static int pivot(double[] lhs, double[] rhs, int n, int r, int i) {
 
-            transformedLhs = stepILhs.get();
-            transformedRhs = stepIRhs.get();
+        for (int j = i + 1; j < n; j++) {
+            if (lhs[i * n + j] != 0) {
+                swapRows(lhs, n, n, i, j);
+                swapRows(rhs, n, r, i, j);
+                return j;
+            }
         }
 
-        return Optional.of(new LinearSystem(transformedLhs, transformedRhs, linearSystem.getPivot()));
+        return i;
     }
 
-    private static Optional<LinearSystem> pivot(LinearSystem linearSystem, int i) {
+    /**
+     * Interchange two rows, leaving no negative zeros just as a product with a permutation matrix would.
+     */
+    private static void swapRows(double[] matrix, int height, int width, int from, int to) {
 
-        if (linearSystem == null) {
-            return Optional.empty();
+        for (int c = 0; c < width; c++) {
+            int offset = c * height;
+            double temp = matrix[offset + from];
+            matrix[offset + from] = matrix[offset + to];
+            matrix[offset + to] = temp;
         }
 
-        List<Double> ithColumn = linearSystem.getLhs().getComponents().get(i);
+        for (int e = 0; e < height * width; e++) {
+            matrix[e] += 0.0;
+        }
+    }
 
-        for (int j = i + 1; j < ithColumn.size(); j++) {
-            if (ithColumn.get(j) != 0) {
+    /**
+     * Solve a system held in primitive arrays, drawing every temporary from the workspace of the current thread.
+     * floating point operations: 2/3 n^3 + 2n^2 r
+     * @param lhs
+     * n by n left hand side in column major order, which is only read
+     * @param rhs
+     * n by r right hand side in column major order, overwritten by the solution
+     * @return
+     * true if the system was solved, false if the left hand side is singular
+     */
+    public static boolean solve(double[] lhs, double[] rhs, int n, int r) {
+        return solve(lhs, rhs, n, r, Workspace.local());
+    }
 
-                // calculate a permutation matrix
-                Optional<Matrix> permutation = Matrix.identity(linearSystem.getLhs());
-                if (!permutation.isPresent()) {
-                    return Optional.empty();
-                }
+    /**
+     * Solve a system held in primitive arrays without allocating, using LU factorization with partial pivoting.
+     * Every temporary is drawn from the workspace, so repeated solves of one size perform no heap allocation.
+     * floating point operations: 2/3 n^3 + 2n^2 r
+     * @param lhs
+     * n by n left hand side in column major order, which is only read
+     * @param rhs
+     * n by r right hand side in column major order, overwritten by the solution
+     * @param workspace
+     * the arena from which the factors and pivots are drawn
+     * @return
+     * true if the system was solved, false if the left hand side is singular
+     */
+    public static boolean solve(double[] lhs, double[] rhs, int n, int r, Workspace workspace) {
 
-                Matrix permutationMatrix = permutation.get();
-                permutation = Matrix.swapRows(permutationMatrix, j, i);
-                if (!permutation.isPresent()) {
-                    return Optional.empty();
-                }
+        if (lhs == null || rhs == null || workspace == null || n <= 0 || r <= 0 || lhs.length < n * n || rhs.length < n * r) {
+            throw new IllegalArgumentException("The arrays must hold an n by n left hand side and an n by r right hand side.");
+        }
 
-                // multiply the transformedLhs and the transformedRhs by the permutation matrix
-                Optional<Matrix> newLhs = Matrix.matrixMultiplication(permutation.get(), linearSystem.getLhs());
+        long start = Metrics.start();
+        long mark = workspace.mark();
 
-                // multiply each column of the transformedRhs by the permutation matrix
-                Optional<Matrix> newRhs = permuteRhs(linearSystem.getRhs(), permutation.get());
+        try {
+            double[] lu = workspace.doubles(n * n);
+            System.arraycopy(lhs, 0, lu, 0, n * n);
+            int[] rows = workspace.ints(n);
+            int[] columns = workspace.ints(n);
+            int[] swaps = workspace.ints(n);
 
-                if (!newLhs.isPresent() || !newRhs.isPresent()) {
-                    return Optional.empty();
-                }
+            if (!LUDecomposition.factor(lu, n, LUDecomposition.PivotStrategy.PARTIAL, rows, columns, swaps)) {
+                return false;
+            }
 
-                // update the pivot vector
-                List<Double> pivot = linearSystem.getPivot().getComponents();
-                pivot.set(i, (double)(j - i));
-                Vector newPivot = new Vector(pivot);
+            LUDecomposition.solve(lu, n, rows, columns, rhs, r, workspace.doubles(n));
 
-                return Optional.of(new LinearSystem(newLhs.get(), newRhs.get(), newPivot));
-            }
-        }
+            long size = n;
+            Metrics.record("LinearSystem.solve", 2 * size * size * size / 3 + 2 * size * size * r, 8 * size * (size + r), 0, start);
 
-        return Optional.of(linearSystem);
+            return true;
+        } finally {
+            workspace.release(mark);
+        }
     }
 
-    private static Optional<Matrix> permuteRhs(Matrix rhs, Matrix permutation) {
+    /**
+     * Solve the system by LU factorization, choosing every pivot by magnitude.
+     * The returned system is in the same reduced form as that of gaussJordanTransform: an identity left hand side, the
+     * solution as right hand side and the row interchanges as pivot. The pivot holds row interchanges only; the column
+     * interchanges of rook pivoting are reported by getColumnPermutation. It also reports the pivot growth and an
+     * estimate of the condition number, either of which flags a solution that cannot be trusted.
+     * floating point operations: 2/3 n^3 + 2n^2 r + O(n^2)
+     * @param linearSystem
+     * a linear system to be solved
+     * @param strategy
+     * partial or rook pivoting
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the solved system
+     */
+    public static Optional<LinearSystem> solve(LinearSystem linearSystem, LUDecomposition.PivotStrategy strategy) {
 
-        if (rhs == null || permutation == null) {
+        if (linearSystem == null || strategy == null) {
             return Optional.empty();
         }
 
-        if (rhs.getComponents().get(0).size() != permutation.getComponents().size()) {
+        return LUDecomposition.decompose(linearSystem.getLhs(), strategy).flatMap(decomposition -> solve(linearSystem, decomposition));
+    }
+
+    /**
+     * Solve the system with an existing factorization of its left hand side.
+     */
+    static Optional<LinearSystem> solve(LinearSystem linearSystem, LUDecomposition decomposition) {
+
+        Optional<Matrix> identity = Matrix.identity(linearSystem.getLhs());
+        Optional<Matrix> solution = decomposition.solve(linearSystem.getRhs());
+
+        if (!identity.isPresent() || !solution.isPresent()) {
             return Optional.empty();
         }
 
-        List<List<Double>> rhsComponents = rhs.getComponents();
+        List<Double> pivot = new ArrayList<>(linearSystem.getSize());
+        for (int swap : decomposition.rowSwaps()) {
+            pivot.add((double) swap);
+        }
 
-        for (int k = 0; k < rhsComponents.size(); k++) {
-            Vector rhsVector = new Vector(rhsComponents.get(k));
-            Optional<Vector> newRhsVector = Vector.matrixMultiplication(rhsVector, permutation);
-            if (!newRhsVector.isPresent()) {
-                return Optional.empty();
+        LinearSystem solved = new LinearSystem(identity.get(), solution.get(), new Vector(pivot));
+        solved.conditionNumber = decomposition.getConditionNumber();
+        solved.pivotGrowth = decomposition.getPivotGrowth();
+        List<Integer> columns = decomposition.getColumnPermutation();
+        for (int j = 0; j < columns.size(); j++) {
+            if (columns.get(j) != j) {
+                solved.columnPermutation = columns;
+                break;
             }
-            rhsComponents.set(k, newRhsVector.get().getComponents());
         }
 
-        return Optional.of(new Matrix(rhsComponents));
+        return Optional.of(solved);
+    }
+
+    /**
+     * Solve an overdetermined system in the least squares sense using a Householder QR factorization, which avoids
+     * forming the normal equations A^T A.
+     * floating point operations: 2mn^2 - 2/3 n^3 + 4mnr
+     * @param lhs
+     * m by n left hand side with m >= n
+     * @param rhs
+     * m by r right hand side
+     * @return
+     * an empty optional or an optional containing the n by r least squares solution
+     */
+    public static Optional<Matrix> leastSquares(Matrix lhs, Matrix rhs) {
+
+        if (lhs == null || rhs == null) {
+            return Optional.empty();
+        }
+
+        return QRDecomposition.decompose(lhs).flatMap(qr -> qr.leastSquares(rhs));
     }
 }
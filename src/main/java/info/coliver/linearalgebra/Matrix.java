@@ -1,6 +1,8 @@
 package info.coliver.linearalgebra;
 
 import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
 
 public class Matrix {
@@ -275,29 +277,153 @@ public class Matrix {
         return Optional.of(new Matrix(components));
     }
 
+    /**
+     * Transpose by recursive halving, as Kernels.transpose does for primitive arrays, so that both matrices are
+     * traversed in blocks that fit in cache rather than one of them with a stride of a whole column. The components
+     * are moved by reference and never unboxed.
+     * memory operations: 2mn
+     * @param matrix
+     * m by n matrix
+     * @return
+     * an empty optional if the matrix is null or its columns differ in height, or an optional containing the n by m
+     * transpose
+     */
     public static Optional<Matrix> transpose(Matrix matrix) {
 
         if (matrix == null) {
             return Optional.empty();
         }
 
-        List<List<Double>> components = new ArrayList<>();
+        List<List<Double>> columns = matrix.getComponents();
+        int width = columns.size();
+        int height = columns.get(0).size();
 
-        for (int i = 0; i < matrix.getComponents().size(); i++) {
-            for (int j = 0; j < matrix.getComponents().get(i).size(); j++) {
-                if (i == 0) {
-                    List<Double> outputColumn = new ArrayList<>();
-                    outputColumn.add(matrix.getComponents().get(i).get(j));
-                    components.add(outputColumn);
-                } else {
-                    components.get(j).add(matrix.getComponents().get(i).get(j));
-                }
+        Object[][] source = new Object[width][];
+        for (int j = 0; j < width; j++) {
+            if (columns.get(j).size() != height) {
+                return Optional.empty();
             }
+            source[j] = columns.get(j).toArray();
+        }
+
+        Double[][] target = new Double[height][width];
+        transpose(source, target, 0, height, 0, width);
+
+        List<List<Double>> components = new ArrayList<>(height);
+        for (Double[] row : target) {
+            components.add(new ArrayList<>(Arrays.asList(row)));
         }
 
         return Optional.of(new Matrix(components));
     }
 
+    private static void transpose(Object[][] source, Double[][] target, int row, int rows, int column, int columns) {
+
+        while (rows > Kernels.TRANSPOSE_BLOCK || columns > Kernels.TRANSPOSE_BLOCK) {
+            if (rows >= columns) {
+                int half = rows / 2;
+                transpose(source, target, row, half, column, columns);
+                row += half;
+                rows -= half;
+            } else {
+                int half = columns / 2;
+                transpose(source, target, row, rows, column, half);
+                column += half;
+                columns -= half;
+            }
+        }
+
+        for (int j = column; j < column + columns; j++) {
+            Object[] sourceColumn = source[j];
+            for (int i = row; i < row + rows; i++) {
+                target[i][j] = (Double) sourceColumn[i];
+            }
+        }
+    }
+
+    /**
+     * Transpose a square matrix in place by recursive halving, exchanging components between its columns, so that no
+     * second matrix is built. Every matrix sharing the columns of this one sees the change.
+     * memory operations: n^2
+     * @param matrix
+     * n by n matrix whose columns may be modified
+     * @return
+     * an empty optional if the matrix is null, not square, its columns differ in height, cannot be modified, as those
+     * of ImmutableMatrix.asMatrix cannot, or are one list appearing more than once, or an optional containing the
+     * given matrix, now transposed
+     */
+    public static Optional<Matrix> transposeInPlace(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> columns = matrix.getComponents();
+        int n = columns.size();
+        Set<List<Double>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<Double> column : columns) {
+            if (column.size() != n || !distinct.add(column)) {
+                return Optional.empty();
+            }
+            // writing a component back onto itself finds an unmodifiable column before anything has been exchanged
+            try {
+                column.set(0, column.get(0));
+            } catch (UnsupportedOperationException e) {
+                return Optional.empty();
+            }
+        }
+
+        transposeSquare(columns, 0, n);
+
+        return Optional.of(matrix);
+    }
+
+    private static void transposeSquare(List<List<Double>> columns, int first, int n) {
+
+        if (n <= Kernels.TRANSPOSE_BLOCK) {
+            for (int j = first; j < first + n; j++) {
+                List<Double> column = columns.get(j);
+                for (int i = j + 1; i < first + n; i++) {
+                    column.set(i, columns.get(i).set(j, column.get(i)));
+                }
+            }
+            return;
+        }
+
+        int half = n / 2;
+        transposeSquare(columns, first, half);
+        transposeSquare(columns, first + half, n - half);
+        swapMirrored(columns, first + half, first, n - half, half);
+    }
+
+    /**
+     * Exchange every component of the block below the diagonal at the given row and column with its mirror image
+     * above the diagonal.
+     */
+    private static void swapMirrored(List<List<Double>> columns, int row, int column, int rows, int width) {
+
+        while (rows > Kernels.TRANSPOSE_BLOCK || width > Kernels.TRANSPOSE_BLOCK) {
+            if (rows >= width) {
+                int half = rows / 2;
+                swapMirrored(columns, row, column, half, width);
+                row += half;
+                rows -= half;
+            } else {
+                int half = width / 2;
+                swapMirrored(columns, row, column, rows, half);
+                column += half;
+                width -= half;
+            }
+        }
+
+        for (int j = column; j < column + width; j++) {
+            List<Double> lower = columns.get(j);
+            for (int i = row; i < row + rows; i++) {
+                lower.set(i, columns.get(i).set(j, lower.get(i)));
+            }
+        }
+    }
+
     public static Optional<Matrix> symmetrizeFromLowerTriangular(Matrix matrix) {
 
         if (matrix == null) {
@@ -488,6 +614,8 @@ public class Matrix {
             return Optional.empty();
         }
 
+        long start = Metrics.start();
+
         List<List<Double>> components = new ArrayList<>();
 
         for (int i = 0; i < aHeight; i++) {
@@ -508,7 +636,336 @@ public class Matrix {
             components.add(ithColumn.get().getComponents());
         }
 
-        return Matrix.transpose(new Matrix(components));
+        Optional<Matrix> product = Matrix.transpose(new Matrix(components));
+
+        if (product.isPresent()) {
+            Metrics.record("Matrix.matrixMultiplication", 2L * aHeight * aWidth * bWidth,
+                    8L * (aHeight * aWidth + bHeight * bWidth + aHeight * bWidth), 3L * aHeight + bWidth, start);
+        }
+
+        return product;
+    }
+
+    /**
+     * Multiply square matrices using the Strassen-Winograd algorithm with the default crossover size.
+     * floating point operations: O(n^2.81)
+     * memory operations: O(n^2)
+     * @param a
+     * square matrix
+     * @param b
+     * square matrix of the same size as a
+     * @return
+     * matrix resulting from the ordered multiplication of matrices a and b
+     */
+    public static Optional<Matrix> strassenMultiplication(Matrix a, Matrix b) {
+        return strassenMultiplication(a, b, Strassen.DEFAULT_CROSSOVER);
+    }
+
+    /**
+     * Multiply square matrices using the Strassen-Winograd algorithm.
+     * Sub-products at or below the crossover size use the classical algorithm.
+     * floating point operations: O(n^2.81)
+     * memory operations: O(n^2)
+     * @param a
+     * square matrix
+     * @param b
+     * square matrix of the same size as a
+     * @param crossover
+     * the size at or below which the classical algorithm is used
+     * @return
+     * matrix resulting from the ordered multiplication of matrices a and b
+     */
+    public static Optional<Matrix> strassenMultiplication(Matrix a, Matrix b, int crossover) {
+
+        if (a == null || b == null || crossover < 1) {
+            return Optional.empty();
+        }
+
+        int n = a.getComponents().size();
+
+        if (n != a.getComponents().get(0).size() || n != b.getComponents().size() || n != b.getComponents().get(0).size()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Optional<double[]> aComponents = toArray(a);
+        Optional<double[]> bComponents = toArray(b);
+
+        if (!aComponents.isPresent() || !bComponents.isPresent()) {
+            return Optional.empty();
+        }
+
+        Matrix product = fromArray(Strassen.multiply(aComponents.get(), bComponents.get(), n, crossover), n, n);
+
+        Metrics.record("Matrix.strassenMultiplication", Strassen.floatingPointOperations(n, crossover), 24L * n * n, 3L + n, start);
+
+        return Optional.of(product);
+    }
+
+    /**
+     * Multiply a chain of matrices, choosing the order of multiplication that needs the fewest floating point
+     * operations.
+     * floating point operations: at most that of multiplying from left to right
+     * @param factors
+     * list of matrices where the width of each matrix equals the height of the next
+     * @return
+     * an empty optional or an optional containing the ordered product of the factors
+     */
+    public static Optional<Matrix> multiplyChain(List<Matrix> factors) {
+        return multiplyChain(factors, false);
+    }
+
+    /**
+     * Multiply a chain of matrices, choosing the order of multiplication that needs the fewest floating point
+     * operations.
+     * floating point operations: at most that of multiplying from left to right
+     * @param factors
+     * list of matrices where the width of each matrix equals the height of the next
+     * @param parallel
+     * whether independent sub-products may be computed in parallel
+     * @return
+     * an empty optional or an optional containing the ordered product of the factors
+     */
+    public static Optional<Matrix> multiplyChain(List<Matrix> factors, boolean parallel) {
+
+        if (factors == null || factors.isEmpty() || factors.stream().anyMatch(Objects::isNull)) {
+            return Optional.empty();
+        }
+
+        if (factors.size() == 1) {
+            return Optional.of(new Matrix(factors.get(0).getComponents()));
+        }
+
+        long start = Metrics.start();
+
+        int[] dimensions = new int[factors.size() + 1];
+        double[][] components = new double[factors.size()][];
+        dimensions[0] = factors.get(0).getComponents().get(0).size();
+
+        for (int i = 0; i < factors.size(); i++) {
+            List<List<Double>> factorComponents = factors.get(i).getComponents();
+            if (factorComponents.get(0).size() != dimensions[i]) {
+                return Optional.empty();
+            }
+            Optional<double[]> factor = toArray(factors.get(i));
+            if (!factor.isPresent()) {
+                return Optional.empty();
+            }
+            components[i] = factor.get();
+            dimensions[i + 1] = factorComponents.size();
+        }
+
+        MatrixChain chain = new MatrixChain(components, dimensions, parallel);
+        double[] product = chain.multiply();
+
+        Metrics.record("Matrix.multiplyChain", chain.floatingPointOperations(), 8L * chain.components(), 2L * factors.size() - 1, start);
+
+        return Optional.of(fromArray(product, dimensions[0], dimensions[factors.size()]));
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: 2mn
+     * @param matrix
+     * the matrix whose components are mapped
+     * @param function
+     * the function applied to every component
+     * @return
+     * an empty optional or an optional containing the new matrix of the mapped components
+     */
+    public static Optional<Matrix> map(Matrix matrix, DoubleUnaryOperator function) {
+        return map(matrix, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: 2mn
+     * @param matrix
+     * the matrix whose components are mapped
+     * @param function
+     * the function applied to every component, which may be called from several threads at once
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the new matrix of the mapped components
+     */
+    public static Optional<Matrix> map(Matrix matrix, DoubleUnaryOperator function, Execution execution) {
+
+        if (matrix == null || function == null || execution == null) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+        Optional<Matrix> result = toArray(matrix)
+                .map(a -> fromArray(ElementWise.map(a, height, function, execution), height, width));
+
+        long size = (long) height * width;
+        if (result.isPresent()) {
+            Metrics.record("Matrix.map", size, 16 * size, 2, start);
+        }
+
+        return result;
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: 3mn
+     * @param a
+     * matrix supplying the first argument of the function
+     * @param b
+     * matrix of the same size supplying the second argument of the function
+     * @param function
+     * the function applied to every pair of components in the same place
+     * @return
+     * an empty optional or an optional containing the new matrix of the combined components
+     */
+    public static Optional<Matrix> zipWith(Matrix a, Matrix b, DoubleBinaryOperator function) {
+        return zipWith(a, b, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: 3mn
+     * @param a
+     * matrix supplying the first argument of the function
+     * @param b
+     * matrix of the same size supplying the second argument of the function
+     * @param function
+     * the function applied to every pair of components in the same place, which may be called from several threads at
+     * once
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the new matrix of the combined components
+     */
+    public static Optional<Matrix> zipWith(Matrix a, Matrix b, DoubleBinaryOperator function, Execution execution) {
+
+        if (function == null) {
+            return Optional.empty();
+        }
+
+        return elementWise(a, b, execution, "Matrix.zipWith",
+                (x, y, height) -> ElementWise.zipWith(x, y, height, function, execution));
+    }
+
+    /**
+     * floating point operations: mn
+     * memory operations: 3mn
+     * @param a
+     * matrix factor
+     * @param b
+     * matrix factor of the same size
+     * @return
+     * an empty optional or an optional containing the matrix of the products of the components in the same place
+     */
+    public static Optional<Matrix> hadamardProduct(Matrix a, Matrix b) {
+        return hadamardProduct(a, b, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: mn
+     * memory operations: 3mn
+     * @param a
+     * matrix factor
+     * @param b
+     * matrix factor of the same size
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the matrix of the products of the components in the same place
+     */
+    public static Optional<Matrix> hadamardProduct(Matrix a, Matrix b, Execution execution) {
+        return elementWise(a, b, execution, "Matrix.hadamardProduct",
+                (x, y, height) -> ElementWise.hadamard(x, y, height, execution));
+    }
+
+    private interface Kernel {
+        double[] apply(double[] a, double[] b, int height);
+    }
+
+    private static Optional<Matrix> elementWise(Matrix a, Matrix b, Execution execution, String operation, Kernel kernel) {
+
+        if (a == null || b == null || execution == null) {
+            return Optional.empty();
+        }
+
+        int width = a.getComponents().size();
+        int height = a.getComponents().get(0).size();
+        if (b.getComponents().size() != width || b.getComponents().get(0).size() != height) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Optional<double[]> x = toArray(a);
+        Optional<double[]> y = toArray(b);
+        if (!x.isPresent() || !y.isPresent()) {
+            return Optional.empty();
+        }
+
+        Matrix result = fromArray(kernel.apply(x.get(), y.get(), height), height, width);
+
+        long size = (long) height * width;
+        Metrics.record(operation, size, 24 * size, 3, start);
+
+        return Optional.of(result);
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: mn
+     * @param matrix
+     * the matrix whose components are combined
+     * @param identity
+     * the value of the reduction of no components
+     * @param function
+     * the function combining the running result with the next component in column major order
+     * @return
+     * an empty optional or an optional containing the result of the reduction
+     */
+    public static Optional<Double> reduce(Matrix matrix, double identity, DoubleBinaryOperator function) {
+        return reduce(matrix, identity, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: mn applications of the function
+     * memory operations: mn
+     * @param matrix
+     * the matrix whose components are combined
+     * @param identity
+     * the value of the reduction of no components; for a parallel or vectorized reduction it must leave any value
+     * unchanged when combined with it
+     * @param function
+     * the function combining the running result with the next component; for a parallel or vectorized reduction it
+     * must be associative, since partial results are combined in another grouping
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the result of the reduction
+     */
+    public static Optional<Double> reduce(Matrix matrix, double identity, DoubleBinaryOperator function, Execution execution) {
+
+        if (matrix == null || function == null || execution == null) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+        Optional<Double> result = toArray(matrix)
+                .map(a -> ElementWise.reduce(a, height, identity, function, execution));
+
+        long size = (long) height * width;
+        if (result.isPresent()) {
+            Metrics.record("Matrix.reduce", size, 8 * size, 1, start);
+        }
+
+        return result;
     }
 
     public static Optional<Matrix> swapRows(Matrix matrix, int from, int to) {
@@ -521,19 +978,67 @@ public class Matrix {
             return Optional.of(matrix);
         }
 
-        Optional<Matrix> transposedMatrix = Matrix.transpose(matrix);
+        // exchanging the two components of every column leaves the other rows where they are, so nothing is transposed
+        List<List<Double>> components = new ArrayList<>(matrix.getComponents().size());
+        for (List<Double> column : matrix.getComponents()) {
+            List<Double> swapped = new ArrayList<>(column);
+            Collections.swap(swapped, from, to);
+            components.add(swapped);
+        }
+
+        return Optional.of(new Matrix(components));
+    }
 
-        if (!transposedMatrix.isPresent()) {
-            return Optional.of(matrix);
+    /**
+     * memory operations: mn
+     * @param matrix
+     * matrix to be copied
+     * @return
+     * an empty optional if the columns of the matrix differ in height or an optional containing its components in
+     * column major order
+     */
+    static Optional<double[]> toArray(Matrix matrix) {
+
+        List<List<Double>> columns = matrix.getComponents();
+        int height = columns.get(0).size();
+        double[] components = new double[columns.size() * height];
+
+        for (int j = 0; j < columns.size(); j++) {
+            List<Double> column = columns.get(j);
+            if (column.size() != height) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < height; i++) {
+                components[j * height + i] = column.get(i);
+            }
         }
 
-        List<List<Double>> transposedComponents = transposedMatrix.get().getComponents();
-        List<Double> fromColumn = transposedComponents.get(from);
-        List<Double> toColumn = transposedComponents.get(to);
+        return Optional.of(components);
+    }
 
-        transposedComponents.set(to, fromColumn);
-        transposedComponents.set(from, toColumn);
+    /**
+     * memory operations: mn
+     * @param components
+     * components in column major order
+     * @param height
+     * the number of rows
+     * @param width
+     * the number of columns
+     * @return
+     * the matrix holding the given components
+     */
+    static Matrix fromArray(double[] components, int height, int width) {
+
+        List<List<Double>> columns = new ArrayList<>(width);
+
+        for (int j = 0; j < width; j++) {
+            List<Double> column = new ArrayList<>(height);
+            for (int i = 0; i < height; i++) {
+                column.add(components[j * height + i]);
+            }
+            columns.add(column);
+        }
 
-        return Matrix.transpose(new Matrix(transposedComponents));
+        return new Matrix(columns);
     }
 }
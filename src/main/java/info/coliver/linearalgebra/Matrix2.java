@@ -0,0 +1,231 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable 2 by 2 matrix.
+ * Every operation is fully unrolled and works directly on fields rather than through lists of components, so
+ * apart from their result no operation allocates, and the JIT can usually scalar replace short lived results.
+ * Component mij lies in row i and column j.
+ */
+public final class Matrix2 {
+
+    private final double m00;
+    private final double m01;
+    private final double m10;
+    private final double m11;
+
+    Matrix2 (double m00, double m01,
+             double m10, double m11) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m10 = m10;
+        this.m11 = m11;
+    }
+
+    /**
+     * @param row
+     * the row index
+     * @param column
+     * the column index
+     * @return
+     * the component at the given row and column
+     */
+    public double get(int row, int column) {
+
+        if (row < 0 || row >= 2 || column < 0 || column >= 2) {
+            throw new IndexOutOfBoundsException("Row and column must lie between 0 and 1.");
+        }
+
+        switch (row * 2 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m10;
+            case 3: return m11;
+            default: throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return
+     * the 2 by 2 identity matrix
+     */
+    public static Matrix2 identity() {
+        return new Matrix2(1.0, 0.0, 0.0, 1.0);
+    }
+
+    /**
+     * memory operations: 4
+     * @param matrix
+     * a 2 by 2 matrix
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the matrix
+     */
+    public static Optional<Matrix2> from(Matrix matrix) {
+
+        if (matrix == null || matrix.getComponents().size() != 2) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> components = matrix.getComponents();
+
+        for (List<Double> column : components) {
+            if (column.size() != 2) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new Matrix2(components.get(0).get(0), components.get(1).get(0),
+                components.get(0).get(1), components.get(1).get(1)));
+    }
+
+    /**
+     * memory operations: 4
+     * @return
+     * a general matrix holding the components of this matrix
+     */
+    public Matrix toMatrix() {
+
+        List<List<Double>> components = new ArrayList<>(2);
+
+        List<Double> column0 = new ArrayList<>(2);
+        column0.add(m00);
+        column0.add(m10);
+        components.add(column0);
+        List<Double> column1 = new ArrayList<>(2);
+        column1.add(m01);
+        column1.add(m11);
+        components.add(column1);
+
+        return new Matrix(components);
+    }
+
+    /**
+     * @param matrix
+     * the matrix to be transposed
+     * @return
+     * the transpose of the matrix
+     */
+    public static Matrix2 transpose(Matrix2 matrix) {
+        return new Matrix2(matrix.m00, matrix.m10,
+                matrix.m01, matrix.m11);
+    }
+
+    /**
+     * floating point operations: 4
+     * @param matrix
+     * the matrix to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled matrix
+     */
+    public static Matrix2 scale(Matrix2 matrix, double factor) {
+        return new Matrix2(factor * matrix.m00, factor * matrix.m01,
+                factor * matrix.m10, factor * matrix.m11);
+    }
+
+    /**
+     * floating point operations: 4
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the sum of a and b
+     */
+    public static Matrix2 add(Matrix2 a, Matrix2 b) {
+        return new Matrix2(a.m00 + b.m00, a.m01 + b.m01,
+                a.m10 + b.m10, a.m11 + b.m11);
+    }
+
+    /**
+     * floating point operations: 4
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the difference of a and b
+     */
+    public static Matrix2 subtract(Matrix2 a, Matrix2 b) {
+        return new Matrix2(a.m00 - b.m00, a.m01 - b.m01,
+                a.m10 - b.m10, a.m11 - b.m11);
+    }
+
+    /**
+     * floating point operations: 16
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the ordered product of matrices a and b
+     */
+    public static Matrix2 matrixMultiplication(Matrix2 a, Matrix2 b) {
+        return new Matrix2(a.m00 * b.m00 + a.m01 * b.m10, a.m00 * b.m01 + a.m01 * b.m11,
+                a.m10 * b.m00 + a.m11 * b.m10, a.m10 * b.m01 + a.m11 * b.m11);
+    }
+
+    /**
+     * floating point operations: 8
+     * @param matrix
+     * matrix
+     * @param vector
+     * vector
+     * @return
+     * the product of the matrix and the column vector
+     */
+    public static Vector2 vectorMultiplication(Matrix2 matrix, Vector2 vector) {
+        return new Vector2(matrix.m00 * vector.getX() + matrix.m01 * vector.getY(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY());
+    }
+
+    /**
+     * floating point operations: 3
+     * @param m
+     * matrix
+     * @return
+     * the determinant of the matrix
+     */
+    public static double determinant(Matrix2 m) {
+        return m.m00 * m.m11 - m.m01 * m.m10;
+    }
+
+    /**
+     * Invert the matrix through its adjugate.
+     * floating point operations: 8
+     * @param m
+     * matrix
+     * @return
+     * an empty optional if the matrix is singular or an optional containing the inverse
+     */
+    public static Optional<Matrix2> inverse(Matrix2 m) {
+
+        double determinant = determinant(m);
+
+        if (determinant == 0.0) {
+            return Optional.empty();
+        }
+
+        double inverseDeterminant = 1.0 / determinant;
+
+        return Optional.of(new Matrix2(m.m11 * inverseDeterminant, -m.m01 * inverseDeterminant,
+                -m.m10 * inverseDeterminant, m.m00 * inverseDeterminant));
+    }
+
+    /**
+     * floating point operations: 16
+     * @param lhs
+     * the left hand side of the system
+     * @param rhs
+     * the right hand side of the system
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the solution of the system
+     */
+    public static Optional<Vector2> solve(Matrix2 lhs, Vector2 rhs) {
+        return inverse(lhs).map(inverse -> vectorMultiplication(inverse, rhs));
+    }
+}
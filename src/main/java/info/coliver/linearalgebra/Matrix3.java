@@ -0,0 +1,275 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable 3 by 3 matrix.
+ * Every operation is fully unrolled and works directly on fields rather than through lists of components, so
+ * apart from their result no operation allocates, and the JIT can usually scalar replace short lived results.
+ * Component mij lies in row i and column j.
+ */
+public final class Matrix3 {
+
+    private final double m00;
+    private final double m01;
+    private final double m02;
+    private final double m10;
+    private final double m11;
+    private final double m12;
+    private final double m20;
+    private final double m21;
+    private final double m22;
+
+    Matrix3 (double m00, double m01, double m02,
+             double m10, double m11, double m12,
+             double m20, double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+    }
+
+    /**
+     * @param row
+     * the row index
+     * @param column
+     * the column index
+     * @return
+     * the component at the given row and column
+     */
+    public double get(int row, int column) {
+
+        if (row < 0 || row >= 3 || column < 0 || column >= 3) {
+            throw new IndexOutOfBoundsException("Row and column must lie between 0 and 2.");
+        }
+
+        switch (row * 3 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m10;
+            case 4: return m11;
+            case 5: return m12;
+            case 6: return m20;
+            case 7: return m21;
+            case 8: return m22;
+            default: throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return
+     * the 3 by 3 identity matrix
+     */
+    public static Matrix3 identity() {
+        return new Matrix3(1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 1.0);
+    }
+
+    /**
+     * memory operations: 9
+     * @param matrix
+     * a 3 by 3 matrix
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the matrix
+     */
+    public static Optional<Matrix3> from(Matrix matrix) {
+
+        if (matrix == null || matrix.getComponents().size() != 3) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> components = matrix.getComponents();
+
+        for (List<Double> column : components) {
+            if (column.size() != 3) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new Matrix3(components.get(0).get(0), components.get(1).get(0), components.get(2).get(0),
+                components.get(0).get(1), components.get(1).get(1), components.get(2).get(1),
+                components.get(0).get(2), components.get(1).get(2), components.get(2).get(2)));
+    }
+
+    /**
+     * memory operations: 9
+     * @return
+     * a general matrix holding the components of this matrix
+     */
+    public Matrix toMatrix() {
+
+        List<List<Double>> components = new ArrayList<>(3);
+
+        List<Double> column0 = new ArrayList<>(3);
+        column0.add(m00);
+        column0.add(m10);
+        column0.add(m20);
+        components.add(column0);
+        List<Double> column1 = new ArrayList<>(3);
+        column1.add(m01);
+        column1.add(m11);
+        column1.add(m21);
+        components.add(column1);
+        List<Double> column2 = new ArrayList<>(3);
+        column2.add(m02);
+        column2.add(m12);
+        column2.add(m22);
+        components.add(column2);
+
+        return new Matrix(components);
+    }
+
+    /**
+     * @param matrix
+     * the matrix to be transposed
+     * @return
+     * the transpose of the matrix
+     */
+    public static Matrix3 transpose(Matrix3 matrix) {
+        return new Matrix3(matrix.m00, matrix.m10, matrix.m20,
+                matrix.m01, matrix.m11, matrix.m21,
+                matrix.m02, matrix.m12, matrix.m22);
+    }
+
+    /**
+     * floating point operations: 9
+     * @param matrix
+     * the matrix to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled matrix
+     */
+    public static Matrix3 scale(Matrix3 matrix, double factor) {
+        return new Matrix3(factor * matrix.m00, factor * matrix.m01, factor * matrix.m02,
+                factor * matrix.m10, factor * matrix.m11, factor * matrix.m12,
+                factor * matrix.m20, factor * matrix.m21, factor * matrix.m22);
+    }
+
+    /**
+     * floating point operations: 9
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the sum of a and b
+     */
+    public static Matrix3 add(Matrix3 a, Matrix3 b) {
+        return new Matrix3(a.m00 + b.m00, a.m01 + b.m01, a.m02 + b.m02,
+                a.m10 + b.m10, a.m11 + b.m11, a.m12 + b.m12,
+                a.m20 + b.m20, a.m21 + b.m21, a.m22 + b.m22);
+    }
+
+    /**
+     * floating point operations: 9
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the difference of a and b
+     */
+    public static Matrix3 subtract(Matrix3 a, Matrix3 b) {
+        return new Matrix3(a.m00 - b.m00, a.m01 - b.m01, a.m02 - b.m02,
+                a.m10 - b.m10, a.m11 - b.m11, a.m12 - b.m12,
+                a.m20 - b.m20, a.m21 - b.m21, a.m22 - b.m22);
+    }
+
+    /**
+     * floating point operations: 54
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the ordered product of matrices a and b
+     */
+    public static Matrix3 matrixMultiplication(Matrix3 a, Matrix3 b) {
+        return new Matrix3(a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20, a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21, a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22,
+                a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20, a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21, a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22,
+                a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20, a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21, a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22);
+    }
+
+    /**
+     * floating point operations: 18
+     * @param matrix
+     * matrix
+     * @param vector
+     * vector
+     * @return
+     * the product of the matrix and the column vector
+     */
+    public static Vector3 vectorMultiplication(Matrix3 matrix, Vector3 vector) {
+        return new Vector3(matrix.m00 * vector.getX() + matrix.m01 * vector.getY() + matrix.m02 * vector.getZ(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY() + matrix.m12 * vector.getZ(),
+                matrix.m20 * vector.getX() + matrix.m21 * vector.getY() + matrix.m22 * vector.getZ());
+    }
+
+    /**
+     * floating point operations: 14
+     * @param m
+     * matrix
+     * @return
+     * the determinant of the matrix
+     */
+    public static double determinant(Matrix3 m) {
+        return m.m00 * (m.m11 * m.m22 - m.m12 * m.m21)
+                - m.m01 * (m.m10 * m.m22 - m.m12 * m.m20)
+                + m.m02 * (m.m10 * m.m21 - m.m11 * m.m20);
+    }
+
+    /**
+     * Invert the matrix through its adjugate.
+     * floating point operations: 36
+     * @param m
+     * matrix
+     * @return
+     * an empty optional if the matrix is singular or an optional containing the inverse
+     */
+    public static Optional<Matrix3> inverse(Matrix3 m) {
+
+        // cofactors of the first row are shared between the determinant and the adjugate
+        double c00 = m.m11 * m.m22 - m.m12 * m.m21;
+        double c01 = m.m12 * m.m20 - m.m10 * m.m22;
+        double c02 = m.m10 * m.m21 - m.m11 * m.m20;
+
+        double determinant = m.m00 * c00 + m.m01 * c01 + m.m02 * c02;
+
+        if (determinant == 0.0) {
+            return Optional.empty();
+        }
+
+        double inverseDeterminant = 1.0 / determinant;
+
+        return Optional.of(new Matrix3(c00 * inverseDeterminant,
+                (m.m02 * m.m21 - m.m01 * m.m22) * inverseDeterminant,
+                (m.m01 * m.m12 - m.m02 * m.m11) * inverseDeterminant,
+                c01 * inverseDeterminant,
+                (m.m00 * m.m22 - m.m02 * m.m20) * inverseDeterminant,
+                (m.m02 * m.m10 - m.m00 * m.m12) * inverseDeterminant,
+                c02 * inverseDeterminant,
+                (m.m01 * m.m20 - m.m00 * m.m21) * inverseDeterminant,
+                (m.m00 * m.m11 - m.m01 * m.m10) * inverseDeterminant));
+    }
+
+    /**
+     * floating point operations: 54
+     * @param lhs
+     * the left hand side of the system
+     * @param rhs
+     * the right hand side of the system
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the solution of the system
+     */
+    public static Optional<Vector3> solve(Matrix3 lhs, Vector3 rhs) {
+        return inverse(lhs).map(inverse -> vectorMultiplication(inverse, rhs));
+    }
+}
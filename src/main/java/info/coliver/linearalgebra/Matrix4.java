@@ -0,0 +1,344 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable 4 by 4 matrix.
+ * Every operation is fully unrolled and works directly on fields rather than through lists of components, so
+ * apart from their result no operation allocates, and the JIT can usually scalar replace short lived results.
+ * Component mij lies in row i and column j.
+ */
+public final class Matrix4 {
+
+    private final double m00;
+    private final double m01;
+    private final double m02;
+    private final double m03;
+    private final double m10;
+    private final double m11;
+    private final double m12;
+    private final double m13;
+    private final double m20;
+    private final double m21;
+    private final double m22;
+    private final double m23;
+    private final double m30;
+    private final double m31;
+    private final double m32;
+    private final double m33;
+
+    Matrix4 (double m00, double m01, double m02, double m03,
+             double m10, double m11, double m12, double m13,
+             double m20, double m21, double m22, double m23,
+             double m30, double m31, double m32, double m33) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m03 = m03;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m30 = m30;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+    }
+
+    /**
+     * @param row
+     * the row index
+     * @param column
+     * the column index
+     * @return
+     * the component at the given row and column
+     */
+    public double get(int row, int column) {
+
+        if (row < 0 || row >= 4 || column < 0 || column >= 4) {
+            throw new IndexOutOfBoundsException("Row and column must lie between 0 and 3.");
+        }
+
+        switch (row * 4 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m03;
+            case 4: return m10;
+            case 5: return m11;
+            case 6: return m12;
+            case 7: return m13;
+            case 8: return m20;
+            case 9: return m21;
+            case 10: return m22;
+            case 11: return m23;
+            case 12: return m30;
+            case 13: return m31;
+            case 14: return m32;
+            case 15: return m33;
+            default: throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return
+     * the 4 by 4 identity matrix
+     */
+    public static Matrix4 identity() {
+        return new Matrix4(1.0, 0.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 0.0, 1.0);
+    }
+
+    /**
+     * memory operations: 16
+     * @param matrix
+     * a 4 by 4 matrix
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the matrix
+     */
+    public static Optional<Matrix4> from(Matrix matrix) {
+
+        if (matrix == null || matrix.getComponents().size() != 4) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> components = matrix.getComponents();
+
+        for (List<Double> column : components) {
+            if (column.size() != 4) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new Matrix4(components.get(0).get(0), components.get(1).get(0), components.get(2).get(0), components.get(3).get(0),
+                components.get(0).get(1), components.get(1).get(1), components.get(2).get(1), components.get(3).get(1),
+                components.get(0).get(2), components.get(1).get(2), components.get(2).get(2), components.get(3).get(2),
+                components.get(0).get(3), components.get(1).get(3), components.get(2).get(3), components.get(3).get(3)));
+    }
+
+    /**
+     * memory operations: 16
+     * @return
+     * a general matrix holding the components of this matrix
+     */
+    public Matrix toMatrix() {
+
+        List<List<Double>> components = new ArrayList<>(4);
+
+        List<Double> column0 = new ArrayList<>(4);
+        column0.add(m00);
+        column0.add(m10);
+        column0.add(m20);
+        column0.add(m30);
+        components.add(column0);
+        List<Double> column1 = new ArrayList<>(4);
+        column1.add(m01);
+        column1.add(m11);
+        column1.add(m21);
+        column1.add(m31);
+        components.add(column1);
+        List<Double> column2 = new ArrayList<>(4);
+        column2.add(m02);
+        column2.add(m12);
+        column2.add(m22);
+        column2.add(m32);
+        components.add(column2);
+        List<Double> column3 = new ArrayList<>(4);
+        column3.add(m03);
+        column3.add(m13);
+        column3.add(m23);
+        column3.add(m33);
+        components.add(column3);
+
+        return new Matrix(components);
+    }
+
+    /**
+     * @param matrix
+     * the matrix to be transposed
+     * @return
+     * the transpose of the matrix
+     */
+    public static Matrix4 transpose(Matrix4 matrix) {
+        return new Matrix4(matrix.m00, matrix.m10, matrix.m20, matrix.m30,
+                matrix.m01, matrix.m11, matrix.m21, matrix.m31,
+                matrix.m02, matrix.m12, matrix.m22, matrix.m32,
+                matrix.m03, matrix.m13, matrix.m23, matrix.m33);
+    }
+
+    /**
+     * floating point operations: 16
+     * @param matrix
+     * the matrix to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled matrix
+     */
+    public static Matrix4 scale(Matrix4 matrix, double factor) {
+        return new Matrix4(factor * matrix.m00, factor * matrix.m01, factor * matrix.m02, factor * matrix.m03,
+                factor * matrix.m10, factor * matrix.m11, factor * matrix.m12, factor * matrix.m13,
+                factor * matrix.m20, factor * matrix.m21, factor * matrix.m22, factor * matrix.m23,
+                factor * matrix.m30, factor * matrix.m31, factor * matrix.m32, factor * matrix.m33);
+    }
+
+    /**
+     * floating point operations: 16
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the sum of a and b
+     */
+    public static Matrix4 add(Matrix4 a, Matrix4 b) {
+        return new Matrix4(a.m00 + b.m00, a.m01 + b.m01, a.m02 + b.m02, a.m03 + b.m03,
+                a.m10 + b.m10, a.m11 + b.m11, a.m12 + b.m12, a.m13 + b.m13,
+                a.m20 + b.m20, a.m21 + b.m21, a.m22 + b.m22, a.m23 + b.m23,
+                a.m30 + b.m30, a.m31 + b.m31, a.m32 + b.m32, a.m33 + b.m33);
+    }
+
+    /**
+     * floating point operations: 16
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the difference of a and b
+     */
+    public static Matrix4 subtract(Matrix4 a, Matrix4 b) {
+        return new Matrix4(a.m00 - b.m00, a.m01 - b.m01, a.m02 - b.m02, a.m03 - b.m03,
+                a.m10 - b.m10, a.m11 - b.m11, a.m12 - b.m12, a.m13 - b.m13,
+                a.m20 - b.m20, a.m21 - b.m21, a.m22 - b.m22, a.m23 - b.m23,
+                a.m30 - b.m30, a.m31 - b.m31, a.m32 - b.m32, a.m33 - b.m33);
+    }
+
+    /**
+     * floating point operations: 128
+     * @param a
+     * matrix
+     * @param b
+     * matrix
+     * @return
+     * the ordered product of matrices a and b
+     */
+    public static Matrix4 matrixMultiplication(Matrix4 a, Matrix4 b) {
+        return new Matrix4(a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20 + a.m03 * b.m30, a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21 + a.m03 * b.m31, a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22 + a.m03 * b.m32, a.m00 * b.m03 + a.m01 * b.m13 + a.m02 * b.m23 + a.m03 * b.m33,
+                a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20 + a.m13 * b.m30, a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21 + a.m13 * b.m31, a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22 + a.m13 * b.m32, a.m10 * b.m03 + a.m11 * b.m13 + a.m12 * b.m23 + a.m13 * b.m33,
+                a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20 + a.m23 * b.m30, a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21 + a.m23 * b.m31, a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22 + a.m23 * b.m32, a.m20 * b.m03 + a.m21 * b.m13 + a.m22 * b.m23 + a.m23 * b.m33,
+                a.m30 * b.m00 + a.m31 * b.m10 + a.m32 * b.m20 + a.m33 * b.m30, a.m30 * b.m01 + a.m31 * b.m11 + a.m32 * b.m21 + a.m33 * b.m31, a.m30 * b.m02 + a.m31 * b.m12 + a.m32 * b.m22 + a.m33 * b.m32, a.m30 * b.m03 + a.m31 * b.m13 + a.m32 * b.m23 + a.m33 * b.m33);
+    }
+
+    /**
+     * floating point operations: 32
+     * @param matrix
+     * matrix
+     * @param vector
+     * vector
+     * @return
+     * the product of the matrix and the column vector
+     */
+    public static Vector4 vectorMultiplication(Matrix4 matrix, Vector4 vector) {
+        return new Vector4(matrix.m00 * vector.getX() + matrix.m01 * vector.getY() + matrix.m02 * vector.getZ() + matrix.m03 * vector.getW(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY() + matrix.m12 * vector.getZ() + matrix.m13 * vector.getW(),
+                matrix.m20 * vector.getX() + matrix.m21 * vector.getY() + matrix.m22 * vector.getZ() + matrix.m23 * vector.getW(),
+                matrix.m30 * vector.getX() + matrix.m31 * vector.getY() + matrix.m32 * vector.getZ() + matrix.m33 * vector.getW());
+    }
+
+    /**
+     * floating point operations: 41
+     * @param m
+     * matrix
+     * @return
+     * the determinant of the matrix
+     */
+    public static double determinant(Matrix4 m) {
+
+        double s0 = m.m00 * m.m11 - m.m10 * m.m01;
+        double s1 = m.m00 * m.m12 - m.m10 * m.m02;
+        double s2 = m.m00 * m.m13 - m.m10 * m.m03;
+        double s3 = m.m01 * m.m12 - m.m11 * m.m02;
+        double s4 = m.m01 * m.m13 - m.m11 * m.m03;
+        double s5 = m.m02 * m.m13 - m.m12 * m.m03;
+
+        double c5 = m.m22 * m.m33 - m.m32 * m.m23;
+        double c4 = m.m21 * m.m33 - m.m31 * m.m23;
+        double c3 = m.m21 * m.m32 - m.m31 * m.m22;
+        double c2 = m.m20 * m.m33 - m.m30 * m.m23;
+        double c1 = m.m20 * m.m32 - m.m30 * m.m22;
+        double c0 = m.m20 * m.m31 - m.m30 * m.m21;
+
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    /**
+     * Invert the matrix through its adjugate.
+     * floating point operations: 122
+     * @param m
+     * matrix
+     * @return
+     * an empty optional if the matrix is singular or an optional containing the inverse
+     */
+    public static Optional<Matrix4> inverse(Matrix4 m) {
+
+        // 2 by 2 minors of the upper and lower row pairs, shared between the determinant and the adjugate
+        double s0 = m.m00 * m.m11 - m.m10 * m.m01;
+        double s1 = m.m00 * m.m12 - m.m10 * m.m02;
+        double s2 = m.m00 * m.m13 - m.m10 * m.m03;
+        double s3 = m.m01 * m.m12 - m.m11 * m.m02;
+        double s4 = m.m01 * m.m13 - m.m11 * m.m03;
+        double s5 = m.m02 * m.m13 - m.m12 * m.m03;
+
+        double c5 = m.m22 * m.m33 - m.m32 * m.m23;
+        double c4 = m.m21 * m.m33 - m.m31 * m.m23;
+        double c3 = m.m21 * m.m32 - m.m31 * m.m22;
+        double c2 = m.m20 * m.m33 - m.m30 * m.m23;
+        double c1 = m.m20 * m.m32 - m.m30 * m.m22;
+        double c0 = m.m20 * m.m31 - m.m30 * m.m21;
+
+        double determinant = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+
+        if (determinant == 0.0) {
+            return Optional.empty();
+        }
+
+        double d = 1.0 / determinant;
+
+        return Optional.of(new Matrix4(
+                (m.m11 * c5 - m.m12 * c4 + m.m13 * c3) * d,
+                (-m.m01 * c5 + m.m02 * c4 - m.m03 * c3) * d,
+                (m.m31 * s5 - m.m32 * s4 + m.m33 * s3) * d,
+                (-m.m21 * s5 + m.m22 * s4 - m.m23 * s3) * d,
+                (-m.m10 * c5 + m.m12 * c2 - m.m13 * c1) * d,
+                (m.m00 * c5 - m.m02 * c2 + m.m03 * c1) * d,
+                (-m.m30 * s5 + m.m32 * s2 - m.m33 * s1) * d,
+                (m.m20 * s5 - m.m22 * s2 + m.m23 * s1) * d,
+                (m.m10 * c4 - m.m11 * c2 + m.m13 * c0) * d,
+                (-m.m00 * c4 + m.m01 * c2 - m.m03 * c0) * d,
+                (m.m30 * s4 - m.m31 * s2 + m.m33 * s0) * d,
+                (-m.m20 * s4 + m.m21 * s2 - m.m23 * s0) * d,
+                (-m.m10 * c3 + m.m11 * c1 - m.m12 * c0) * d,
+                (m.m00 * c3 - m.m01 * c1 + m.m02 * c0) * d,
+                (-m.m30 * s3 + m.m31 * s1 - m.m32 * s0) * d,
+                (m.m20 * s3 - m.m21 * s1 + m.m22 * s0) * d));
+    }
+
+    /**
+     * floating point operations: 154
+     * @param lhs
+     * the left hand side of the system
+     * @param rhs
+     * the right hand side of the system
+     * @return
+     * an empty optional if the left hand side is singular or an optional containing the solution of the system
+     */
+    public static Optional<Vector4> solve(Matrix4 lhs, Vector4 rhs) {
+        return inverse(lhs).map(inverse -> vectorMultiplication(inverse, rhs));
+    }
+}
@@ -0,0 +1,415 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * A batch of equally shaped matrices stored in a single contiguous array.
+ * Components are kept in struct-of-arrays order: the (i, j) component of every matrix in the batch is stored
+ * contiguously, so the component at row i, column j of the matrix at index b lives at
+ * ((j * rows) + i) * count + b. Operations on a batch run the same kernel across every matrix at once and are
+ * split into chunks that are processed in parallel.
+ */
+public class MatrixBatch {
+
+    // number of matrices processed together by a single task
+    private static final int CHUNK_SIZE = 256;
+
+    private final double[] components;
+    private final int count;
+    private final int rows;
+    private final int columns;
+
+    MatrixBatch (int count, int rows, int columns) {
+        this(new double[checkedLength(count, rows, columns)], count, rows, columns);
+    }
+
+    MatrixBatch (double[] components, int count, int rows, int columns) {
+
+        if (components == null || components.length != checkedLength(count, rows, columns)) {
+            throw new IllegalArgumentException("The length of the components must equal count * rows * columns.");
+        }
+
+        this.components = components;
+        this.count = count;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    private static int checkedLength(int count, int rows, int columns) {
+
+        if (count <= 0 || rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("The count, height and width of a batch must be positive.");
+        }
+
+        return Math.multiplyExact(count, Math.multiplyExact(rows, columns));
+    }
+
+    public double[] getComponents() {
+        return components;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * memory operations: mn
+     * @param index
+     * the position of the matrix within the batch
+     * @return
+     * an empty optional or an optional containing a copy of the matrix at the given index
+     */
+    public Optional<Matrix> get(int index) {
+
+        if (index < 0 || index >= count) {
+            return Optional.empty();
+        }
+
+        List<List<Double>> matrixComponents = new ArrayList<>(columns);
+
+        for (int j = 0; j < columns; j++) {
+            List<Double> column = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                column.add(components[(j * rows + i) * count + index]);
+            }
+            matrixComponents.add(column);
+        }
+
+        return Optional.of(new Matrix(matrixComponents));
+    }
+
+    /**
+     * memory operations: mn
+     * @param index
+     * the position of the matrix within the batch
+     * @param matrix
+     * the matrix who's components should be copied into the batch
+     */
+    public void set(int index, Matrix matrix) {
+
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("The index must lie within the batch.");
+        }
+
+        if (matrix == null || matrix.getComponents().size() != columns || matrix.getComponents().get(0).size() != rows) {
+            throw new IllegalArgumentException("The matrix must have the same height and width as the batch.");
+        }
+
+        for (int j = 0; j < columns; j++) {
+            List<Double> column = matrix.getComponents().get(j);
+            if (column.size() != rows) {
+                throw new IllegalArgumentException("The matrix must have the same height and width as the batch.");
+            }
+            for (int i = 0; i < rows; i++) {
+                components[(j * rows + i) * count + index] = column.get(i);
+            }
+        }
+    }
+
+    /**
+     * memory operations: x * mn
+     * @param matrices
+     * list of equally shaped matrices to be packed into a batch
+     * @return
+     * an empty optional or an optional containing the new batch
+     */
+    public static Optional<MatrixBatch> of(List<Matrix> matrices) {
+
+        if (matrices == null || matrices.isEmpty() || matrices.get(0) == null) {
+            return Optional.empty();
+        }
+
+        int columns = matrices.get(0).getComponents().size();
+        int rows = matrices.get(0).getComponents().get(0).size();
+
+        MatrixBatch batch = new MatrixBatch(matrices.size(), rows, columns);
+
+        for (int b = 0; b < matrices.size(); b++) {
+            try {
+                batch.set(b, matrices.get(b));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(batch);
+    }
+
+    /**
+     * floating point operations: x * 2mnp
+     * memory operations: x * 3mnp
+     * @param a
+     * batch of m by n matrices
+     * @param b
+     * batch of n by p matrices
+     * @return
+     * an empty optional or an optional containing the batch of ordered products of the matrices of a and b
+     */
+    public static Optional<MatrixBatch> matrixMultiplication(MatrixBatch a, MatrixBatch b) {
+
+        if (a == null || b == null || a.count != b.count || a.columns != b.rows) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        MatrixBatch product = new MatrixBatch(a.count, a.rows, b.columns);
+
+        chunks(a.count).forEach(chunk -> multiplyChunk(a, b, product, chunk * CHUNK_SIZE, Math.min(a.count, (chunk + 1) * CHUNK_SIZE)));
+
+        long count = a.count;
+        Metrics.record("MatrixBatch.matrixMultiplication", 2 * count * a.rows * a.columns * b.columns,
+                24 * count * a.rows * a.columns * b.columns, 1, start);
+
+        return Optional.of(product);
+    }
+
+    /**
+     * Invert every matrix of the batch using Gauss-Jordan elimination with partial pivoting.
+     * floating point operations: x * 2n^3
+     * @param batch
+     * batch of square matrices
+     * @return
+     * an empty optional if any matrix of the batch is singular or an optional containing the batch of inverses
+     */
+    public static Optional<MatrixBatch> inverse(MatrixBatch batch) {
+
+        if (batch == null || batch.rows != batch.columns) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        MatrixBatch inverse = new MatrixBatch(batch.count, batch.rows, batch.columns);
+
+        boolean invertible = chunks(batch.count).allMatch(chunk -> invertChunk(batch, inverse, chunk * CHUNK_SIZE, Math.min(batch.count, (chunk + 1) * CHUNK_SIZE)));
+
+        long n = batch.rows;
+        Metrics.record("MatrixBatch.inverse", 2 * batch.count * n * n * n, 16 * batch.count * n * n,
+                1 + 2L * ((batch.count + CHUNK_SIZE - 1) / CHUNK_SIZE), start);
+
+        return invertible ? Optional.of(inverse) : Optional.empty();
+    }
+
+    /**
+     * Solve every system of the batch using Gaussian elimination with partial pivoting.
+     * floating point operations: x * (2/3 n^3 + 2n^2 r)
+     * @param lhs
+     * batch of square n by n left hand sides
+     * @param rhs
+     * batch of n by r right hand sides
+     * @return
+     * an empty optional if any left hand side of the batch is singular or an optional containing the batch of solutions
+     */
+    public static Optional<MatrixBatch> solve(MatrixBatch lhs, MatrixBatch rhs) {
+
+        if (lhs == null || rhs == null || lhs.rows != lhs.columns || lhs.count != rhs.count || lhs.rows != rhs.rows) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        MatrixBatch solution = new MatrixBatch(rhs.count, rhs.rows, rhs.columns);
+
+        boolean solvable = chunks(lhs.count).allMatch(chunk -> solveChunk(lhs, rhs, solution, chunk * CHUNK_SIZE, Math.min(lhs.count, (chunk + 1) * CHUNK_SIZE)));
+
+        long n = lhs.rows;
+        long r = rhs.columns;
+        Metrics.record("MatrixBatch.solve", lhs.count * (2 * n * n * n / 3 + 2 * n * n * r), 8 * lhs.count * (n * n + 2 * n * r),
+                1 + 2L * ((lhs.count + CHUNK_SIZE - 1) / CHUNK_SIZE), start);
+
+        return solvable ? Optional.of(solution) : Optional.empty();
+    }
+
+    private static IntStream chunks(int count) {
+
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream stream = IntStream.range(0, chunks);
+
+        return chunks > 1 ? stream.parallel() : stream;
+    }
+
+    private static void multiplyChunk(MatrixBatch a, MatrixBatch b, MatrixBatch c, int from, int to) {
+
+        int m = a.rows;
+        int n = a.columns;
+        int count = a.count;
+        double[] aComponents = a.components;
+        double[] bComponents = b.components;
+        double[] cComponents = c.components;
+
+        // the innermost loop runs across the batch so that every access is unit stride
+        for (int j = 0; j < c.columns; j++) {
+            for (int k = 0; k < n; k++) {
+                int bOffset = (j * n + k) * count;
+                for (int i = 0; i < m; i++) {
+                    int aOffset = (k * m + i) * count;
+                    int cOffset = (j * m + i) * count;
+                    for (int x = from; x < to; x++) {
+                        cComponents[cOffset + x] += aComponents[aOffset + x] * bComponents[bOffset + x];
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean invertChunk(MatrixBatch batch, MatrixBatch inverse, int from, int to) {
+
+        // chunks run on pool threads, so their temporaries are allocated per chunk rather than kept by the threads
+        return invertChunk(batch, inverse, from, to, new double[batch.rows * batch.rows], new double[batch.rows * batch.rows]);
+    }
+
+    private static boolean invertChunk(MatrixBatch batch, MatrixBatch inverse, int from, int to, double[] work, double[] result) {
+
+        int n = batch.rows;
+
+        for (int x = from; x < to; x++) {
+
+            gather(batch, x, work, n * n);
+            Arrays.fill(result, 0, n * n, 0.0);
+            for (int i = 0; i < n; i++) {
+                result[i * n + i] = 1.0;
+            }
+
+            for (int k = 0; k < n; k++) {
+
+                int p = pivotRow(work, n, k);
+                if (work[k * n + p] == 0.0) {
+                    return false;
+                }
+                swapRows(work, n, n, k, p);
+                swapRows(result, n, n, k, p);
+
+                double divisor = work[k * n + k];
+                for (int j = 0; j < n; j++) {
+                    work[j * n + k] /= divisor;
+                    result[j * n + k] /= divisor;
+                }
+
+                for (int i = 0; i < n; i++) {
+                    double factor = work[k * n + i];
+                    if (i == k || factor == 0.0) {
+                        continue;
+                    }
+                    for (int j = 0; j < n; j++) {
+                        work[j * n + i] -= factor * work[j * n + k];
+                        result[j * n + i] -= factor * result[j * n + k];
+                    }
+                }
+            }
+
+            scatter(result, inverse, x, n * n);
+        }
+
+        return true;
+    }
+
+    private static boolean solveChunk(MatrixBatch lhs, MatrixBatch rhs, MatrixBatch solution, int from, int to) {
+
+        return solveChunk(lhs, rhs, solution, from, to, new double[lhs.rows * lhs.rows], new double[rhs.rows * rhs.columns]);
+    }
+
+    private static boolean solveChunk(MatrixBatch lhs, MatrixBatch rhs, MatrixBatch solution, int from, int to, double[] work, double[] result) {
+
+        int n = lhs.rows;
+        int r = rhs.columns;
+
+        for (int x = from; x < to; x++) {
+
+            gather(lhs, x, work, n * n);
+            gather(rhs, x, result, n * r);
+
+            // forward elimination
+            for (int k = 0; k < n; k++) {
+
+                int p = pivotRow(work, n, k);
+                if (work[k * n + p] == 0.0) {
+                    return false;
+                }
+                swapRows(work, n, n, k, p);
+                swapRows(result, n, r, k, p);
+
+                double divisor = work[k * n + k];
+                for (int i = k + 1; i < n; i++) {
+                    double factor = work[k * n + i] / divisor;
+                    if (factor == 0.0) {
+                        continue;
+                    }
+                    for (int j = k + 1; j < n; j++) {
+                        work[j * n + i] -= factor * work[j * n + k];
+                    }
+                    for (int j = 0; j < r; j++) {
+                        result[j * n + i] -= factor * result[j * n + k];
+                    }
+                }
+            }
+
+            // back substitution
+            for (int j = 0; j < r; j++) {
+                for (int i = n - 1; i >= 0; i--) {
+                    double sum = result[j * n + i];
+                    for (int k = i + 1; k < n; k++) {
+                        sum -= work[k * n + i] * result[j * n + k];
+                    }
+                    result[j * n + i] = sum / work[i * n + i];
+                }
+            }
+
+            scatter(result, solution, x, n * r);
+        }
+
+        return true;
+    }
+
+    private static int pivotRow(double[] work, int n, int k) {
+
+        int pivot = k;
+        double max = Math.abs(work[k * n + k]);
+
+        for (int i = k + 1; i < n; i++) {
+            double candidate = Math.abs(work[k * n + i]);
+            if (candidate > max) {
+                max = candidate;
+                pivot = i;
+            }
+        }
+
+        return pivot;
+    }
+
+    private static void swapRows(double[] matrix, int height, int width, int from, int to) {
+
+        if (from == to) {
+            return;
+        }
+
+        for (int j = 0; j < width; j++) {
+            double temp = matrix[j * height + from];
+            matrix[j * height + from] = matrix[j * height + to];
+            matrix[j * height + to] = temp;
+        }
+    }
+
+    private static void gather(MatrixBatch batch, int index, double[] matrix, int length) {
+
+        for (int e = 0; e < length; e++) {
+            matrix[e] = batch.components[e * batch.count + index];
+        }
+    }
+
+    private static void scatter(double[] matrix, MatrixBatch batch, int index, int length) {
+
+        for (int e = 0; e < length; e++) {
+            batch.components[e * batch.count + index] = matrix[e];
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package info.coliver.linearalgebra;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multiplication of a chain of matrices in the order that minimizes the number of floating point operations.
+ * The optimal parenthesization is found with the classical O(x^3) dynamic program over the dimensions of the chain,
+ * after which the product tree is executed with the dense kernel. The two sides of every split are independent, so
+ * they may be computed in parallel.
+ */
+final class MatrixChain {
+
+    // products of fewer floating point operations are not worth forking
+    private static final long PARALLEL_THRESHOLD = 1L << 20;
+
+    private final double[][] factors;
+    private final int[] dimensions;
+    private final long[][] cost;
+    private final int[][] split;
+    private final boolean parallel;
+
+    /**
+     * @param factors
+     * the factors in column major order
+     * @param dimensions
+     * dimensions[i] by dimensions[i + 1] is the shape of factor i
+     */
+    MatrixChain(double[][] factors, int[] dimensions, boolean parallel) {
+        this.factors = factors;
+        this.dimensions = dimensions;
+        this.parallel = parallel;
+        this.cost = new long[factors.length][factors.length];
+        this.split = order(dimensions, cost);
+    }
+
+    /**
+     * @param dimensions
+     * the x + 1 dimensions of a chain of x matrices
+     * @return
+     * split[i][j], the factor after which the optimal product of factors i to j is split
+     */
+    static int[][] order(int[] dimensions) {
+        return order(dimensions, new long[dimensions.length - 1][dimensions.length - 1]);
+    }
+
+    private static int[][] order(int[] dimensions, long[][] cost) {
+
+        int x = dimensions.length - 1;
+        int[][] split = new int[x][x];
+
+        for (int length = 2; length <= x; length++) {
+            for (int i = 0; i + length - 1 < x; i++) {
+                int j = i + length - 1;
+                cost[i][j] = Long.MAX_VALUE;
+                for (int k = i; k < j; k++) {
+                    long candidate = cost[i][k] + cost[k + 1][j] + (long) dimensions[i] * dimensions[k + 1] * dimensions[j + 1];
+                    if (candidate < cost[i][j]) {
+                        cost[i][j] = candidate;
+                        split[i][j] = k;
+                    }
+                }
+            }
+        }
+
+        return split;
+    }
+
+    /**
+     * @return
+     * the number of floating point operations of the optimal order
+     */
+    long floatingPointOperations() {
+        return 2L * cost[0][factors.length - 1];
+    }
+
+    /**
+     * @return
+     * the number of components of the factors, the intermediate products and the result
+     */
+    long components() {
+        return components(0, factors.length - 1);
+    }
+
+    private long components(int i, int j) {
+
+        long result = (long) dimensions[i] * dimensions[j + 1];
+
+        if (i < j) {
+            result += components(i, split[i][j]) + components(split[i][j] + 1, j);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return
+     * the dimensions[0] by dimensions[x] product of the chain
+     */
+    double[] multiply() {
+        return multiply(0, factors.length - 1);
+    }
+
+    private double[] multiply(int i, int j) {
+
+        if (i == j) {
+            return factors[i];
+        }
+
+        int k = split[i][j];
+        double[] left;
+        double[] right;
+
+        if (parallel && (long) dimensions[i] * dimensions[k + 1] * dimensions[j + 1] >= PARALLEL_THRESHOLD) {
+            Product leftTask = new Product(i, k);
+            Product rightTask = new Product(k + 1, j);
+            ForkJoinTask.invokeAll(leftTask, rightTask);
+            left = leftTask.join();
+            right = rightTask.join();
+        } else {
+            left = multiply(i, k);
+            right = multiply(k + 1, j);
+        }
+
+        double[] product = new double[dimensions[i] * dimensions[j + 1]];
+        Kernels.multiply(left, right, product, dimensions[i], dimensions[k + 1], dimensions[j + 1]);
+
+        return product;
+    }
+
+    // fork join tasks are never serialized
+    @SuppressWarnings("serial")
+    private final class Product extends RecursiveTask<double[]> {
+
+        private final int from;
+        private final int to;
+
+        private Product(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            return multiply(from, to);
+        }
+    }
+}
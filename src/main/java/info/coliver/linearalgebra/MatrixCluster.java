@@ -0,0 +1,155 @@
+package info.coliver.linearalgebra;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The connections from a coordinating process to a grid of MatrixWorker processes.
+ * The workers form a gridRows by gridColumns process grid in row major order. Block (I, J) of every distributed matrix
+ * is owned by the worker in grid row I mod gridRows and grid column J mod gridColumns, which spreads the blocks of any
+ * row or column of blocks, and so the work of a multiplication, evenly over the grid.
+ * Operations on a cluster are serialized: every operation of a DistributedMatrix holds the lock of its cluster from
+ * its first request to its last reply, so the replies of concurrent operations never interleave. A failure to reach a
+ * worker, or a failure reported by one, is thrown as an UncheckedIOException once every outstanding reply of the
+ * operation has been read, which leaves the connections in step for the next operation.
+ */
+public class MatrixCluster implements AutoCloseable {
+
+    private final Connection[] workers;
+    private final int gridRows;
+    private final int gridColumns;
+    private final AtomicInteger identifiers = new AtomicInteger();
+
+    private MatrixCluster(Connection[] workers, int gridRows, int gridColumns) {
+        this.workers = workers;
+        this.gridRows = gridRows;
+        this.gridColumns = gridColumns;
+    }
+
+    /**
+     * @param addresses
+     * the addresses of gridRows times gridColumns running workers, in row major order of the grid
+     * @return
+     * a cluster connected to every worker, each of which has been told its place in the grid
+     * @throws IOException
+     * if a worker cannot be reached
+     */
+    public static MatrixCluster connect(List<InetSocketAddress> addresses, int gridRows, int gridColumns) throws IOException {
+
+        if (gridRows <= 0 || gridColumns <= 0 || addresses == null || addresses.size() != gridRows * gridColumns) {
+            throw new IllegalArgumentException("A cluster needs one worker for every place of a grid of positive size.");
+        }
+
+        Connection[] workers = new Connection[addresses.size()];
+
+        try {
+            for (int rank = 0; rank < workers.length; rank++) {
+                workers[rank] = Connection.open(addresses.get(rank));
+            }
+
+            for (int rank = 0; rank < workers.length; rank++) {
+                ByteBuffer setup = ByteBuffer.allocate(16 + 4 * workers.length).order(ByteOrder.LITTLE_ENDIAN);
+                setup.putInt(rank).putInt(gridRows).putInt(gridColumns).putInt(workers.length);
+                for (InetSocketAddress address : addresses) {
+                    setup.putInt(address.getPort());
+                }
+                setup.flip();
+                workers[rank].send(Connection.SETUP, 0, 0, 0, 0, setup);
+            }
+        } catch (IOException e) {
+            for (Connection worker : workers) {
+                if (worker != null) {
+                    worker.close();
+                }
+            }
+            throw e;
+        }
+
+        return new MatrixCluster(workers, gridRows, gridColumns);
+    }
+
+    public int getGridRows() {
+        return gridRows;
+    }
+
+    public int getGridColumns() {
+        return gridColumns;
+    }
+
+    /**
+     * @return
+     * the rank of the worker owning the block in the given block row and block column
+     */
+    public int owner(int blockRow, int blockColumn) {
+        return (blockRow % gridRows) * gridColumns + blockColumn % gridColumns;
+    }
+
+    int size() {
+        return workers.length;
+    }
+
+    int nextIdentifier() {
+        return identifiers.incrementAndGet();
+    }
+
+    synchronized void send(int rank, int type, int id, int row, int column, ByteBuffer body) {
+
+        try {
+            workers[rank].send(type, id, row, column, 0, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Worker " + rank + " could not be reached.", e);
+        }
+    }
+
+    /**
+     * Read one reply from each of the given ranks in turn and pass those of the expected type to the handler, whose
+     * message body is only valid for the duration of the call. Every reply is read even after one has failed.
+     * @throws UncheckedIOException
+     * reporting the first failure, if a worker could not be read, reported an error or replied out of turn
+     */
+    synchronized void receive(int[] ranks, int expected, Consumer<Connection.Message> handler) {
+
+        UncheckedIOException failure = null;
+
+        for (int rank : ranks) {
+            try {
+                Connection.Message message = workers[rank].receive();
+                if (message.type == Connection.ERROR) {
+                    throw new IOException(StandardCharsets.UTF_8.decode(message.body).toString());
+                }
+                if (message.type != expected) {
+                    throw new IOException("Expected a message of type " + expected + " but received one of type " + message.type + ".");
+                }
+                if (failure == null) {
+                    handler.accept(message);
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = new UncheckedIOException("Worker " + rank + " failed.", e);
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = new UncheckedIOException("The reply of worker " + rank + " could not be read.", new IOException(e));
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Connection worker : workers) {
+            worker.close();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * A lazily evaluated matrix expression.
+ * The static methods mirror those of Matrix, but instead of computing a result they record the operation in an
+ * expression tree. Nothing is computed until evaluate is called, at which point the tree is planned as a whole:
+ * <ul>
+ *     <li>scaling, addition, subtraction and transposition are linear, so every element-wise sub-tree collapses into a
+ *     single weighted sum of operands which is computed in one pass without intermediate matrices;</li>
+ *     <li>transposes are never materialized, they are pushed into the operands and a product of transposed operands
+ *     is computed with the matching transposed-operand kernel;</li>
+ *     <li>scale factors are folded into the weights of the sum, so a scaled product costs nothing extra.</li>
+ * </ul>
+ * Leaves refer to their matrices rather than copying them, so a matrix changed before evaluation is read as changed.
+ */
+public final class MatrixExpression {
+
+    private enum Operation { LEAF, SCALE, ADD, SUBTRACT, TRANSPOSE, PRODUCT }
+
+    private final Operation operation;
+    private final Matrix matrix;
+    private final double factor;
+    private final List<MatrixExpression> operands;
+
+    private MatrixExpression(Operation operation, Matrix matrix, double factor, List<MatrixExpression> operands) {
+        this.operation = operation;
+        this.matrix = matrix;
+        this.factor = factor;
+        this.operands = operands;
+    }
+
+    public static MatrixExpression of(Matrix matrix) {
+
+        if (matrix == null) {
+            throw new IllegalArgumentException("The matrix of an expression may not be null.");
+        }
+
+        return new MatrixExpression(Operation.LEAF, matrix, 1.0, Collections.emptyList());
+    }
+
+    public static MatrixExpression scale(MatrixExpression expression, double factor) {
+        return new MatrixExpression(Operation.SCALE, null, factor, operands(expression));
+    }
+
+    public static MatrixExpression add(List<MatrixExpression> terms) {
+        return new MatrixExpression(Operation.ADD, null, 1.0, operands(terms));
+    }
+
+    public static MatrixExpression subtract(List<MatrixExpression> terms) {
+        return new MatrixExpression(Operation.SUBTRACT, null, 1.0, operands(terms));
+    }
+
+    public static MatrixExpression transpose(MatrixExpression expression) {
+        return new MatrixExpression(Operation.TRANSPOSE, null, 1.0, operands(expression));
+    }
+
+    public static MatrixExpression matrixMultiplication(MatrixExpression a, MatrixExpression b) {
+        return new MatrixExpression(Operation.PRODUCT, null, 1.0, operands(a, b));
+    }
+
+    private static List<MatrixExpression> operands(MatrixExpression... operands) {
+        return operands(Arrays.asList(operands));
+    }
+
+    private static List<MatrixExpression> operands(List<MatrixExpression> operands) {
+
+        if (operands == null || operands.isEmpty() || operands.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("The operands of an expression may not be null or empty.");
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(operands));
+    }
+
+    /**
+     * Plan and compute the expression.
+     * @param expression
+     * the expression to be evaluated
+     * @return
+     * an empty optional if the shapes of the operands are incompatible or an optional containing the new matrix
+     */
+    public static Optional<Matrix> evaluate(MatrixExpression expression) {
+
+        if (expression == null) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+        Evaluation evaluation = new Evaluation();
+
+        Optional<Matrix> result = combine(expression.expand(1.0, false), evaluation)
+                .map(dense -> Matrix.fromArray(materialize(dense), dense.height(), dense.width()));
+
+        if (result.isPresent()) {
+            Metrics.record("MatrixExpression.evaluate", evaluation.floatingPointOperations,
+                    8 * evaluation.components, evaluation.allocations + 1, start);
+        }
+
+        return result;
+    }
+
+    private static double[] materialize(Dense dense) {
+
+        double[] components = dense.transposed ? Kernels.transpose(dense.components, dense.rows, dense.columns) : dense.components.clone();
+
+        if (dense.weight != 1.0) {
+            for (int i = 0; i < components.length; i++) {
+                components[i] *= dense.weight;
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Flatten the element-wise part of the tree into a weighted sum of leaves and products.
+     */
+    private List<Term> expand(double weight, boolean transposed) {
+
+        List<Term> terms = new ArrayList<>();
+
+        switch (operation) {
+            case LEAF:
+            case PRODUCT:
+                terms.add(new Term(weight, transposed, this));
+                break;
+            case SCALE:
+                terms.addAll(operands.get(0).expand(weight * factor, transposed));
+                break;
+            case ADD:
+                for (MatrixExpression operand : operands) {
+                    terms.addAll(operand.expand(weight, transposed));
+                }
+                break;
+            case SUBTRACT:
+                terms.addAll(operands.get(0).expand(weight, transposed));
+                for (int i = 1; i < operands.size(); i++) {
+                    terms.addAll(operands.get(i).expand(-weight, transposed));
+                }
+                break;
+            case TRANSPOSE:
+                terms.addAll(operands.get(0).expand(weight, !transposed));
+                break;
+        }
+
+        return terms;
+    }
+
+    /**
+     * Compute a weighted sum of terms in a single pass over the result.
+     * A sum of one term is returned as is, possibly still transposed, so that callers may choose how to consume it.
+     */
+    private static Optional<Dense> combine(List<Term> terms, Evaluation evaluation) {
+
+        List<Dense> sources = new ArrayList<>(terms.size());
+
+        for (Term term : terms) {
+            Optional<Dense> source = term.source.operation == Operation.LEAF ? leaf(term.source.matrix, evaluation) : product(term.source, evaluation);
+            if (!source.isPresent()) {
+                return Optional.empty();
+            }
+            sources.add(source.get());
+        }
+
+        Term first = terms.get(0);
+        Dense firstSource = sources.get(0);
+        int height = first.transposed ^ firstSource.transposed ? firstSource.columns : firstSource.rows;
+        int width = first.transposed ^ firstSource.transposed ? firstSource.rows : firstSource.columns;
+
+        if (terms.size() == 1) {
+            return Optional.of(new Dense(firstSource.components, firstSource.rows, firstSource.columns,
+                    first.transposed ^ firstSource.transposed, first.weight * firstSource.weight));
+        }
+
+        for (int t = 0; t < terms.size(); t++) {
+            Dense source = sources.get(t);
+            boolean transposed = terms.get(t).transposed ^ source.transposed;
+            if ((transposed ? source.columns : source.rows) != height || (transposed ? source.rows : source.columns) != width) {
+                return Optional.empty();
+            }
+        }
+
+        double[] result = new double[height * width];
+        evaluation.count(2L * terms.size() * result.length, (terms.size() + 1L) * result.length);
+
+        // the result is produced column by column so that each of its columns stays in cache while every term is added
+        for (int j = 0; j < width; j++) {
+            int offset = j * height;
+            for (int t = 0; t < terms.size(); t++) {
+                Dense source = sources.get(t);
+                double weight = terms.get(t).weight * source.weight;
+                double[] components = source.components;
+                if (terms.get(t).transposed ^ source.transposed) {
+                    for (int i = 0; i < height; i++) {
+                        result[offset + i] += weight * components[i * width + j];
+                    }
+                } else {
+                    for (int i = 0; i < height; i++) {
+                        result[offset + i] += weight * components[offset + i];
+                    }
+                }
+            }
+        }
+
+        return Optional.of(new Dense(result, height, width, false, 1.0));
+    }
+
+    private static Optional<Dense> leaf(Matrix matrix, Evaluation evaluation) {
+
+        Dense dense = evaluation.leaves.get(matrix);
+
+        if (dense == null) {
+            int columns = matrix.getComponents().size();
+            int rows = matrix.getComponents().get(0).size();
+            Optional<double[]> components = Matrix.toArray(matrix);
+            if (!components.isPresent()) {
+                return Optional.empty();
+            }
+            dense = new Dense(components.get(), rows, columns, false, 1.0);
+            evaluation.leaves.put(matrix, dense);
+            evaluation.count(0, components.get().length);
+        }
+
+        return Optional.of(dense);
+    }
+
+    /**
+     * Multiply the operands of a product node, reading transposed operands in place.
+     */
+    private static Optional<Dense> product(MatrixExpression node, Evaluation evaluation) {
+
+        Optional<Dense> left = combine(node.operands.get(0).expand(1.0, false), evaluation);
+        Optional<Dense> right = combine(node.operands.get(1).expand(1.0, false), evaluation);
+
+        if (!left.isPresent() || !right.isPresent()) {
+            return Optional.empty();
+        }
+
+        Dense a = left.get();
+        Dense b = right.get();
+        int m = a.height();
+        int k = a.width();
+        int n = b.width();
+
+        if (k != b.height()) {
+            return Optional.empty();
+        }
+
+        double weight = a.weight * b.weight;
+        evaluation.count(2L * m * k * n, (long) m * k + (long) k * n + (long) m * n);
+
+        if (a.transposed && b.transposed) {
+            // A^T B^T = (B A)^T, so the product of the stored operands is returned as a transpose
+            double[] result = new double[n * m];
+            Kernels.multiply(b.components, a.components, result, n, k, m);
+            return Optional.of(new Dense(result, n, m, true, weight));
+        }
+
+        double[] result = new double[m * n];
+
+        if (a.transposed) {
+            Kernels.multiplyTransposed(a.components, b.components, result, m, k, n);
+        } else if (b.transposed) {
+            Kernels.multiplyTransposedRight(a.components, b.components, result, m, k, n);
+        } else {
+            Kernels.multiply(a.components, b.components, result, m, k, n);
+        }
+
+        return Optional.of(new Dense(result, m, n, false, weight));
+    }
+
+    /**
+     * The leaves read so far and the work done by a single evaluation.
+     */
+    private static final class Evaluation {
+
+        private final Map<Matrix, Dense> leaves = new IdentityHashMap<>();
+        private long floatingPointOperations;
+        private long components;
+        private long allocations;
+
+        private void count(long floatingPointOperations, long components) {
+            this.floatingPointOperations += floatingPointOperations;
+            this.components += components;
+            this.allocations++;
+        }
+    }
+
+    private static final class Term {
+
+        private final double weight;
+        private final boolean transposed;
+        private final MatrixExpression source;
+
+        private Term(double weight, boolean transposed, MatrixExpression source) {
+            this.weight = weight;
+            this.transposed = transposed;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Column major components standing for weight * components, or for the transpose thereof.
+     */
+    private static final class Dense {
+
+        private final double[] components;
+        private final int rows;
+        private final int columns;
+        private final boolean transposed;
+        private final double weight;
+
+        private Dense(double[] components, int rows, int columns, boolean transposed, double weight) {
+            this.components = components;
+            this.rows = rows;
+            this.columns = columns;
+            this.transposed = transposed;
+            this.weight = weight;
+        }
+
+        private int height() {
+            return transposed ? columns : rows;
+        }
+
+        private int width() {
+            return transposed ? rows : columns;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package info.coliver.linearalgebra;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+/**
+ * The binary format in which matrices are stored and exchanged.
+ * A matrix is a 16 byte header followed by its components: the magic number 0x314d414c ("LAM1"), the height, the width
+ * and a reserved zero, all as 32 bit integers, then height times width IEEE 754 doubles in column major order, every
+ * field little endian. The header keeps the components 8 byte aligned, so a direct buffer in this format is read and
+ * written as a DoubleBuffer view in bulk, and is sent over a channel as it is, without an intermediate byte array.
+ */
+public final class MatrixFormat {
+
+    static final int MAGIC = 0x314d414c;
+    static final int HEADER_BYTES = 16;
+
+    private MatrixFormat() {
+    }
+
+    /**
+     * memory operations: mn
+     * @return
+     * an empty optional if the columns differ in size or an optional containing a direct buffer holding the matrix,
+     * positioned at its start
+     */
+    public static Optional<ByteBuffer> encode(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+
+        return Matrix.toArray(matrix).map(components -> encode(components, height, width));
+    }
+
+    /**
+     * memory operations: mn
+     * @param buffer
+     * a buffer positioned at the start of a matrix, which is left positioned after it
+     * @return
+     * an empty optional if the buffer does not hold a whole matrix or an optional containing the matrix
+     */
+    public static Optional<Matrix> decode(ByteBuffer buffer) {
+        return read(buffer).map(tile -> Matrix.fromArray(tile.components, tile.height, tile.width));
+    }
+
+    static ByteBuffer encode(double[] components, int height, int width) {
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + 8 * height * width).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(height).putInt(width).putInt(0);
+        buffer.asDoubleBuffer().put(components, 0, height * width);
+        buffer.clear();
+
+        return buffer;
+    }
+
+    static Optional<Tile> read(ByteBuffer buffer) {
+
+        if (buffer == null || buffer.remaining() < HEADER_BYTES) {
+            return Optional.empty();
+        }
+
+        ByteBuffer view = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int height = view.getInt(4);
+        int width = view.getInt(8);
+        long length = HEADER_BYTES + 8L * height * width;
+
+        if (view.getInt(0) != MAGIC || height <= 0 || width <= 0 || length > view.remaining()) {
+            return Optional.empty();
+        }
+
+        double[] components = new double[height * width];
+        view.position(HEADER_BYTES);
+        view.asDoubleBuffer().get(components);
+        buffer.position(buffer.position() + (int) length);
+
+        return Optional.of(new Tile(components, height, width));
+    }
+
+    /**
+     * A block of a matrix held in column major order.
+     */
+    static final class Tile {
+
+        final double[] components;
+        final int height;
+        final int width;
+
+        Tile(double[] components, int height, int width) {
+            this.components = components;
+            this.height = height;
+            this.width = width;
+        }
+
+        ByteBuffer encode() {
+            return MatrixFormat.encode(components, height, width);
+        }
+    }
+}
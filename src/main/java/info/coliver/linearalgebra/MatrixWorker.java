@@ -0,0 +1,353 @@
+package info.coliver.linearalgebra;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A process holding the blocks of distributed matrices assigned to it and taking part in their multiplication.
+ * A worker listens on a local socket. The cluster that connects to it tells it its place in the process grid and the
+ * addresses of the other workers, stores and fetches blocks, and starts multiplications, during which the workers
+ * exchange the panels of the factors directly with one another.
+ * Run the class as a program to start a worker in its own JVM; it prints the port on which it listens and serves
+ * until its standard input is closed.
+ */
+public class MatrixWorker implements AutoCloseable {
+
+    // how long a multiplication waits for the panel of another worker before giving up
+    private static final long PANEL_TIMEOUT_SECONDS = 60;
+
+    private final ServerSocketChannel server;
+    private final ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "linear-algebra-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Integer, Map<Long, MatrixFormat.Tile>> matrices = new ConcurrentHashMap<>();
+    private final Map<PanelKey, CompletableFuture<MatrixFormat.Tile>> panels = new ConcurrentHashMap<>();
+    private final Map<PanelKey, CompletableFuture<Void>> acknowledgements = new ConcurrentHashMap<>();
+    // multiplications that failed here, whose late panels and acknowledgements are dropped on arrival
+    private final Set<Integer> abandoned = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Connection> peers = new HashMap<>();
+    private final List<Connection> accepted = new CopyOnWriteArrayList<>();
+    private volatile int rank;
+    private volatile int gridRows;
+    private volatile int gridColumns;
+    private volatile int[] ports;
+
+    /**
+     * @param port
+     * the local port on which to listen, or 0 for any free port
+     */
+    public MatrixWorker(int port) throws IOException {
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        try (MatrixWorker worker = new MatrixWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0)) {
+            worker.start();
+            System.out.println(worker.getAddress().getPort());
+            System.out.flush();
+            while (System.in.read() != -1) {
+                // serve until the parent closes our input
+            }
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("The worker is closed.", e);
+        }
+    }
+
+    /**
+     * Accept connections on a background thread, serving each on a thread of its own.
+     */
+    public void start() {
+        threads.execute(() -> {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel channel = server.accept();
+                    Connection connection = new Connection(channel);
+                    accepted.add(connection);
+                    threads.execute(() -> serve(connection));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+
+        try {
+            server.close();
+        } catch (IOException e) {
+            // nothing is left to release
+        }
+
+        synchronized (peers) {
+            peers.values().forEach(Connection::close);
+            peers.clear();
+        }
+        accepted.forEach(Connection::close);
+        threads.shutdownNow();
+    }
+
+    private void serve(Connection connection) {
+
+        try {
+            while (true) {
+                Connection.Message message = connection.receive();
+                switch (message.type) {
+                    case Connection.SETUP:
+                        setup(message.body);
+                        break;
+                    case Connection.PUT:
+                        tile(message).ifPresent(tile -> matrices.computeIfAbsent(message.id, id -> new ConcurrentHashMap<>())
+                                .put(key(message.row, message.column), tile));
+                        break;
+                    case Connection.GET:
+                        MatrixFormat.Tile tile = matrices.getOrDefault(message.id, Collections.emptyMap()).get(key(message.row, message.column));
+                        if (tile == null) {
+                            error(connection, "The block (" + message.row + ", " + message.column + ") of matrix " + message.id + " is not held here.");
+                        } else {
+                            connection.send(Connection.TILE, message.id, message.row, message.column, 0, tile.encode());
+                        }
+                        break;
+                    case Connection.FREE:
+                        matrices.remove(message.id);
+                        break;
+                    case Connection.MULTIPLY:
+                        try {
+                            ByteBuffer body = message.body.order(ByteOrder.LITTLE_ENDIAN);
+                            multiply(message.id, body.getInt(), body.getInt(), body.getInt(), body.getInt(), body.getInt());
+                            connection.send(Connection.DONE, message.id, 0, 0, 0, null);
+                        } catch (RuntimeException | InterruptedException | TimeoutException | ExecutionException e) {
+                            error(connection, "Multiplication " + message.id + " failed: " + e);
+                        }
+                        break;
+                    case Connection.PANEL_A:
+                    case Connection.PANEL_B:
+                        if (!abandoned.contains(message.id)) {
+                            PanelKey panel = new PanelKey(message.id, message.type, message.row, message.column);
+                            tile(message).ifPresent(received -> panels.computeIfAbsent(panel, key -> new CompletableFuture<>()).complete(received));
+                        }
+                        break;
+                    case Connection.ACKNOWLEDGE:
+                        if (!abandoned.contains(message.id)) {
+                            PanelKey acknowledgement = new PanelKey(message.id, message.row, message.column, message.step);
+                            acknowledgements.computeIfAbsent(acknowledgement, key -> new CompletableFuture<>()).complete(null);
+                        }
+                        break;
+                    default:
+                        error(connection, "Unknown message type " + message.type + ".");
+                }
+            }
+        } catch (IOException e) {
+            connection.close();
+            accepted.remove(connection);
+        }
+    }
+
+    private static Optional<MatrixFormat.Tile> tile(Connection.Message message) {
+        return MatrixFormat.read(message.body);
+    }
+
+    private static void error(Connection connection, String reason) throws IOException {
+        ByteBuffer body = ByteBuffer.wrap(reason.getBytes(StandardCharsets.UTF_8));
+        connection.send(Connection.ERROR, 0, 0, 0, 0, body);
+    }
+
+    private void setup(ByteBuffer body) {
+
+        body.order(ByteOrder.LITTLE_ENDIAN);
+        rank = body.getInt();
+        gridRows = body.getInt();
+        gridColumns = body.getInt();
+        int[] addresses = new int[body.getInt()];
+        for (int p = 0; p < addresses.length; p++) {
+            addresses[p] = body.getInt();
+        }
+        ports = addresses;
+    }
+
+    /**
+     * Take part in C = AB by SUMMA. At step K the owners of the block column K of A send their blocks along their
+     * process row and the owners of the block row K of B send theirs along their process column; every worker then
+     * adds the products of the panels into the blocks of C it owns, and acknowledges the step to the workers whose
+     * panels it used. Each panel is encoded once however many workers it is sent to. An owner sends the panels of a
+     * step only after its receivers have acknowledged those of the previous step at which it sent, which bounds what a
+     * slow worker has to buffer to the panels of one step from each sender.
+     * @param blockRows
+     * the number of block rows of A and C
+     * @param steps
+     * the number of block columns of A and block rows of B
+     * @param blockColumns
+     * the number of block columns of B and C
+     */
+    private void multiply(int c, int a, int b, int blockRows, int steps, int blockColumns)
+            throws IOException, InterruptedException, TimeoutException, ExecutionException {
+
+        try {
+            multiply(c, matrices.getOrDefault(a, Collections.emptyMap()), matrices.getOrDefault(b, Collections.emptyMap()),
+                    blockRows, steps, blockColumns);
+        } catch (IOException | InterruptedException | TimeoutException | ExecutionException | RuntimeException e) {
+            abandoned.add(c);
+            panels.keySet().removeIf(key -> key.id == c);
+            acknowledgements.keySet().removeIf(key -> key.id == c);
+            throw e;
+        }
+    }
+
+    private void multiply(int c, Map<Long, MatrixFormat.Tile> left, Map<Long, MatrixFormat.Tile> right, int blockRows, int steps, int blockColumns)
+            throws IOException, InterruptedException, TimeoutException, ExecutionException {
+
+        int row = rank / gridColumns;
+        int column = rank % gridColumns;
+        Map<Long, MatrixFormat.Tile> product = new ConcurrentHashMap<>();
+        MatrixFormat.Tile[] panel = new MatrixFormat.Tile[blockColumns];
+        int previousLeft = -1;
+        int previousRight = -1;
+
+        for (int k = 0; k < steps; k++) {
+
+            if (k % gridColumns == column && row < blockRows) {
+                for (int other = 0; previousLeft >= 0 && other < gridColumns; other++) {
+                    if (other != column) {
+                        acknowledged(new PanelKey(c, Connection.PANEL_A, row * gridColumns + other, previousLeft));
+                    }
+                }
+                for (int i = row; i < blockRows; i += gridRows) {
+                    ByteBuffer encoded = owned(left, i, k).encode();
+                    for (int other = 0; other < gridColumns; other++) {
+                        if (other != column) {
+                            peer(row * gridColumns + other).send(Connection.PANEL_A, c, i, k, k, encoded);
+                        }
+                    }
+                }
+                previousLeft = k;
+            }
+            if (k % gridRows == row && column < blockColumns) {
+                for (int other = 0; previousRight >= 0 && other < gridRows; other++) {
+                    if (other != row) {
+                        acknowledged(new PanelKey(c, Connection.PANEL_B, other * gridColumns + column, previousRight));
+                    }
+                }
+                for (int j = column; j < blockColumns; j += gridColumns) {
+                    ByteBuffer encoded = owned(right, k, j).encode();
+                    for (int other = 0; other < gridRows; other++) {
+                        if (other != row) {
+                            peer(other * gridColumns + column).send(Connection.PANEL_B, c, k, j, k, encoded);
+                        }
+                    }
+                }
+                previousRight = k;
+            }
+
+            for (int j = column; j < blockColumns; j += gridColumns) {
+                panel[j] = k % gridRows == row ? owned(right, k, j) : await(new PanelKey(c, Connection.PANEL_B, k, j));
+            }
+            for (int i = row; i < blockRows; i += gridRows) {
+                MatrixFormat.Tile factor = k % gridColumns == column ? owned(left, i, k) : await(new PanelKey(c, Connection.PANEL_A, i, k));
+                for (int j = column; j < blockColumns; j += gridColumns) {
+                    MatrixFormat.Tile other = panel[j];
+                    MatrixFormat.Tile sum = product.computeIfAbsent(key(i, j),
+                            absent -> new MatrixFormat.Tile(new double[factor.height * other.width], factor.height, other.width));
+                    Kernels.multiply(factor.components, other.components, sum.components, factor.height, factor.width, other.width);
+                }
+            }
+
+            // the panels of this step are no longer needed, so their owners may send those of their next step, if any
+            if (k % gridColumns != column && row < blockRows && k + gridColumns < steps) {
+                peer(row * gridColumns + k % gridColumns).send(Connection.ACKNOWLEDGE, c, Connection.PANEL_A, rank, k, null);
+            }
+            if (k % gridRows != row && column < blockColumns && k + gridRows < steps) {
+                peer((k % gridRows) * gridColumns + column).send(Connection.ACKNOWLEDGE, c, Connection.PANEL_B, rank, k, null);
+            }
+        }
+
+        matrices.put(c, product);
+    }
+
+    private static MatrixFormat.Tile owned(Map<Long, MatrixFormat.Tile> blocks, int row, int column) {
+
+        MatrixFormat.Tile tile = blocks.get(key(row, column));
+        if (tile == null) {
+            throw new IllegalStateException("The block (" + row + ", " + column + ") is not held here.");
+        }
+
+        return tile;
+    }
+
+    private MatrixFormat.Tile await(PanelKey key) throws InterruptedException, ExecutionException, TimeoutException {
+        MatrixFormat.Tile tile = panels.computeIfAbsent(key, k -> new CompletableFuture<>()).get(PANEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        panels.remove(key);
+        return tile;
+    }
+
+    private void acknowledged(PanelKey key) throws InterruptedException, ExecutionException, TimeoutException {
+        acknowledgements.computeIfAbsent(key, k -> new CompletableFuture<>()).get(PANEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        acknowledgements.remove(key);
+    }
+
+    private Connection peer(int rank) throws IOException {
+
+        synchronized (peers) {
+            Connection connection = peers.get(rank);
+            if (connection == null) {
+                connection = Connection.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[rank]));
+                peers.put(rank, connection);
+            }
+            return connection;
+        }
+    }
+
+    static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static final class PanelKey {
+
+        private final int id;
+        private final int type;
+        private final int row;
+        private final int column;
+
+        private PanelKey(int id, int type, int row, int column) {
+            this.id = id;
+            this.type = type;
+            this.row = row;
+            this.column = column;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof PanelKey)) {
+                return false;
+            }
+
+            PanelKey key = (PanelKey) other;
+
+            return id == key.id && type == key.type && row == key.row && column == key.column;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, type, row, column);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package info.coliver.linearalgebra;
+
+/**
+ * The hook through which the library reports measurements of its operations.
+ * No recorder is installed by default, in which case instrumented operations pay a single field read and never call
+ * System.nanoTime. Operations report their counts from the same formulas that are documented on each method.
+ */
+public final class Metrics {
+
+    private static volatile MetricsRecorder recorder;
+
+    private Metrics() {
+    }
+
+    /**
+     * @param recorder
+     * the recorder to receive measurements, or null to disable measurement
+     */
+    public static void setRecorder(MetricsRecorder recorder) {
+        Metrics.recorder = recorder;
+    }
+
+    public static MetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    public static boolean isEnabled() {
+        return recorder != null;
+    }
+
+    /**
+     * @return
+     * the start time of an operation, or zero when measurement is disabled
+     */
+    static long start() {
+        return recorder == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Report an operation that began at the given start time. An operation started while measurement was disabled has
+     * no start time and is not reported, even if a recorder was installed before it completed.
+     */
+    static void record(String operation, long floatingPointOperations, long bytes, long allocations, long start) {
+
+        MetricsRecorder current = recorder;
+
+        if (current != null && start != 0L) {
+            current.recordOperation(operation, floatingPointOperations, bytes, allocations, System.nanoTime() - start);
+        }
+    }
+
+    static void iterations(String solver, long iterations) {
+
+        MetricsRecorder current = recorder;
+
+        if (current != null) {
+            current.recordIterations(solver, iterations);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package info.coliver.linearalgebra;
+
+/**
+ * Receives measurements of the operations of the library once installed with Metrics.setRecorder.
+ * Implementations are called from the thread performing the operation and must therefore be thread safe and cheap.
+ */
+public interface MetricsRecorder {
+
+    /**
+     * @param operation
+     * the name of the operation, such as Matrix.matrixMultiplication
+     * @param floatingPointOperations
+     * the number of floating point operations performed, as counted by the algorithm
+     * @param bytes
+     * the number of bytes of components read and written, as counted by the algorithm
+     * @param allocations
+     * the number of component lists and arrays allocated, as counted by the algorithm
+     * @param nanos
+     * the wall clock duration of the operation
+     */
+    void recordOperation(String operation, long floatingPointOperations, long bytes, long allocations, long nanos);
+
+    /**
+     * @param solver
+     * the name of the iterative process, such as LinearSystem.gaussJordanTransform
+     * @param iterations
+     * the number of iterations performed by a single run of the process
+     */
+    void recordIterations(String solver, long iterations);
+}
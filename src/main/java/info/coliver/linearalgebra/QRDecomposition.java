@@ -0,0 +1,356 @@
+package info.coliver.linearalgebra;
+
+import java.util.Optional;
+
+/**
+ * Householder QR factorization of an m by n matrix with m &gt;= n.
+ * Columns are factored in panels; the reflectors of each panel are combined into the compact WY form
+ * I - V T V^T so that the trailing columns are updated with matrix products rather than one reflector at a time.
+ * The factors are stored LAPACK style: R occupies the upper triangle and the Householder vectors, with their implicit
+ * unit leading component, occupy the part below the diagonal.
+ */
+public class QRDecomposition {
+
+    // number of columns factored together in one panel
+    private static final int BLOCK = 32;
+
+    private final double[] factors;
+    private final double[] tau;
+    private final int height;
+    private final int width;
+
+    private QRDecomposition(double[] factors, double[] tau, int height, int width) {
+        this.factors = factors;
+        this.tau = tau;
+        this.height = height;
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * floating point operations: 2mn^2 - 2/3 n^3
+     * @param matrix
+     * an m by n matrix with m &gt;= n
+     * @return
+     * an empty optional or an optional containing the factorization of the matrix
+     */
+    public static Optional<QRDecomposition> decompose(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+
+        if (height < width) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Optional<QRDecomposition> decomposition = Matrix.toArray(matrix).map(components -> decompose(components, height, width));
+
+        long m = height;
+        long n = width;
+        if (decomposition.isPresent()) {
+            Metrics.record("QRDecomposition.decompose", 2 * m * n * n - 2 * n * n * n / 3,
+                    16 * m * n, 4, start);
+        }
+
+        return decomposition;
+    }
+
+    /**
+     * Factor the given components in place.
+     * @param components
+     * an m by n matrix in column major order with m &gt;= n, overwritten by the factors
+     * @return
+     * the factorization
+     */
+    static QRDecomposition decompose(double[] components, int height, int width) {
+
+        double[] tau = new double[width];
+        double[] t = new double[BLOCK * BLOCK];
+        double[] w = new double[BLOCK * width];
+
+        for (int k = 0; k < width; k += BLOCK) {
+
+            int nb = Math.min(BLOCK, width - k);
+
+            factorPanel(components, tau, height, k, nb);
+
+            if (k + nb < width) {
+                formT(components, tau, height, k, nb, t);
+                applyBlockReflector(components, height, k, nb, t, components, k + nb, width - k - nb, w);
+            }
+        }
+
+        return new QRDecomposition(components, tau, height, width);
+    }
+
+    /**
+     * memory operations: n^2
+     * @return
+     * the n by n upper triangular factor
+     */
+    public Matrix getR() {
+        return Matrix.fromArray(r(), width, width);
+    }
+
+    double[] r() {
+
+        double[] r = new double[width * width];
+
+        for (int j = 0; j < width; j++) {
+            System.arraycopy(factors, j * height, r, j * width, j + 1);
+        }
+
+        return r;
+    }
+
+    /**
+     * floating point operations: 4mn^2 - 4/3 n^3
+     * @return
+     * the m by n factor with orthonormal columns
+     */
+    public Matrix getQ() {
+        return Matrix.fromArray(thinQ(), height, width);
+    }
+
+    double[] thinQ() {
+
+        double[] q = new double[height * width];
+        for (int j = 0; j < width; j++) {
+            q[j * height + j] = 1.0;
+        }
+
+        // Q = H1 H2 ... Hn, so the reflectors are applied to the identity in reverse order
+        for (int k = width - 1; k >= 0; k--) {
+            applyReflector(k, q, width);
+        }
+
+        return q;
+    }
+
+    /**
+     * Solve the least squares problem min ||Ax - b|| for every column b of the right hand side.
+     * floating point operations: 4mnr + n^2 r
+     * @param rhs
+     * m by r right hand side
+     * @return
+     * an empty optional if the right hand side has the wrong height or A is rank deficient, or an optional
+     * containing the n by r solution
+     */
+    public Optional<Matrix> leastSquares(Matrix rhs) {
+
+        if (rhs == null || rhs.getComponents().get(0).size() != height) {
+            return Optional.empty();
+        }
+
+        int r = rhs.getComponents().size();
+        long start = Metrics.start();
+
+        Optional<Matrix> solution = Matrix.toArray(rhs)
+                .flatMap(b -> leastSquares(b, r))
+                .map(x -> Matrix.fromArray(x, width, r));
+
+        long m = height;
+        long n = width;
+        if (solution.isPresent()) {
+            Metrics.record("QRDecomposition.leastSquares", 4 * m * n * r + n * n * r,
+                    8 * (m * n + 2 * m * r + n * r), 2 + r, start);
+        }
+
+        return solution;
+    }
+
+    Optional<double[]> leastSquares(double[] b, int r) {
+
+        for (int j = 0; j < width; j++) {
+            if (factors[j * height + j] == 0.0) {
+                return Optional.empty();
+            }
+        }
+
+        // b := Q^T b
+        for (int k = 0; k < width; k++) {
+            applyReflector(k, b, r);
+        }
+
+        double[] x = new double[width * r];
+
+        for (int c = 0; c < r; c++) {
+            for (int i = width - 1; i >= 0; i--) {
+                double sum = b[c * height + i];
+                for (int j = i + 1; j < width; j++) {
+                    sum -= factors[j * height + i] * x[c * width + j];
+                }
+                x[c * width + i] = sum / factors[i * height + i];
+            }
+        }
+
+        return Optional.of(x);
+    }
+
+    /**
+     * Apply the kth reflector H = I - tau v v^T to every column of the m by r matrix c.
+     */
+    private void applyReflector(int k, double[] c, int r) {
+
+        double tk = tau[k];
+        if (tk == 0.0) {
+            return;
+        }
+
+        for (int j = 0; j < r; j++) {
+            int offset = j * height;
+            double dot = c[offset + k];
+            for (int i = k + 1; i < height; i++) {
+                dot += factors[k * height + i] * c[offset + i];
+            }
+            dot *= tk;
+            c[offset + k] -= dot;
+            for (int i = k + 1; i < height; i++) {
+                c[offset + i] -= dot * factors[k * height + i];
+            }
+        }
+    }
+
+    /**
+     * Factor columns k to k + nb - 1 one reflector at a time, updating only the columns of the panel.
+     */
+    private static void factorPanel(double[] a, double[] tau, int m, int k, int nb) {
+
+        for (int c = k; c < k + nb; c++) {
+
+            int diagonal = c * m + c;
+            double alpha = a[diagonal];
+            double squares = 0.0;
+            for (int i = c + 1; i < m; i++) {
+                squares += a[c * m + i] * a[c * m + i];
+            }
+
+            if (squares == 0.0) {
+                tau[c] = 0.0;
+                continue;
+            }
+
+            double beta = -Math.copySign(Math.sqrt(alpha * alpha + squares), alpha);
+            tau[c] = (beta - alpha) / beta;
+            double scale = 1.0 / (alpha - beta);
+            for (int i = c + 1; i < m; i++) {
+                a[c * m + i] *= scale;
+            }
+            a[diagonal] = beta;
+
+            // apply the reflector to the remaining columns of the panel
+            for (int j = c + 1; j < k + nb; j++) {
+                int offset = j * m;
+                double dot = a[offset + c];
+                for (int i = c + 1; i < m; i++) {
+                    dot += a[c * m + i] * a[offset + i];
+                }
+                dot *= tau[c];
+                a[offset + c] -= dot;
+                for (int i = c + 1; i < m; i++) {
+                    a[offset + i] -= dot * a[c * m + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Form the nb by nb upper triangular T such that H(k) ... H(k + nb - 1) = I - V T V^T.
+     */
+    private static void formT(double[] a, double[] tau, int m, int k, int nb, double[] t) {
+
+        for (int i = 0; i < nb; i++) {
+
+            int ci = k + i;
+            t[i * BLOCK + i] = tau[ci];
+
+            if (tau[ci] == 0.0) {
+                for (int j = 0; j < i; j++) {
+                    t[i * BLOCK + j] = 0.0;
+                }
+                continue;
+            }
+
+            // t(0:i, i) = -tau V(:, 0:i)^T v_i
+            for (int j = 0; j < i; j++) {
+                int cj = k + j;
+                // v_j has a unit component at row cj and v_i is zero above row ci > cj
+                double dot = a[cj * m + ci];
+                for (int row = ci + 1; row < m; row++) {
+                    dot += a[cj * m + row] * a[ci * m + row];
+                }
+                t[i * BLOCK + j] = -tau[ci] * dot;
+            }
+
+            // t(0:i, i) = T(0:i, 0:i) t(0:i, i)
+            for (int j = 0; j < i; j++) {
+                double sum = 0.0;
+                for (int p = j; p < i; p++) {
+                    sum += t[p * BLOCK + j] * t[i * BLOCK + p];
+                }
+                t[i * BLOCK + j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Apply (I - V T V^T)^T from the left to columns from to from + count - 1 of the m row matrix c,
+     * where V holds the reflectors of columns k to k + nb - 1 of a.
+     */
+    private static void applyBlockReflector(double[] a, int m, int k, int nb, double[] t, double[] c, int from, int count, double[] w) {
+
+        // W = V^T C
+        for (int j = 0; j < count; j++) {
+            int offset = (from + j) * m;
+            for (int p = 0; p < nb; p++) {
+                int cp = k + p;
+                double dot = c[offset + cp];
+                for (int i = cp + 1; i < m; i++) {
+                    dot += a[cp * m + i] * c[offset + i];
+                }
+                w[j * BLOCK + p] = dot;
+            }
+        }
+
+        // W = T^T W, working upwards so that each entry is read before it is overwritten
+        for (int j = 0; j < count; j++) {
+            int offset = j * BLOCK;
+            for (int p = nb - 1; p >= 0; p--) {
+                double sum = 0.0;
+                for (int q = 0; q <= p; q++) {
+                    sum += t[p * BLOCK + q] * w[offset + q];
+                }
+                w[offset + p] = sum;
+            }
+        }
+
+        // C = C - V W
+        for (int j = 0; j < count; j++) {
+            int offset = (from + j) * m;
+            for (int p = 0; p < nb; p++) {
+                int cp = k + p;
+                double wp = w[j * BLOCK + p];
+                if (wp == 0.0) {
+                    continue;
+                }
+                c[offset + cp] -= wp;
+                for (int i = cp + 1; i < m; i++) {
+                    c[offset + i] -= a[cp * m + i] * wp;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * Truncated singular value decomposition A ~ U diag(singular values) V^T holding the k largest singular values.
+ * The decomposition is computed with a randomized range finder (Halko, Martinsson and Tropp): A is multiplied by a
+ * Gaussian test matrix, the range of the product is refined by a few power iterations and orthonormalized with a
+ * QR factorization, and A is projected onto that range. The small projected matrix B is then decomposed directly: B^T
+ * is factored as Q' R and the small square R by one-sided Jacobi rotations. Forming the Gram matrix B B^T would square
+ * the condition number and lose every singular value below about sqrt(eps) times the largest; working on B itself
+ * keeps their error at about eps times the largest. All work on A is done with matrix products.
+ */
+public class SingularValueDecomposition {
+
+    private static final int DEFAULT_OVERSAMPLING = 10;
+    private static final int DEFAULT_POWER_ITERATIONS = 2;
+    // sweeps of one-sided Jacobi after which the rotations are abandoned; convergence is quadratic, so this is not reached
+    private static final int MAXIMUM_SWEEPS = 64;
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private final double[] u;
+    private final double[] singularValues;
+    private final double[] v;
+    private final int height;
+    private final int width;
+    private final int rank;
+
+    private SingularValueDecomposition(double[] u, double[] singularValues, double[] v, int height, int width, int rank) {
+        this.u = u;
+        this.singularValues = singularValues;
+        this.v = v;
+        this.height = height;
+        this.width = width;
+        this.rank = rank;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return
+     * the m by k matrix of left singular vectors
+     */
+    public Matrix getU() {
+        return Matrix.fromArray(u, height, rank);
+    }
+
+    /**
+     * @return
+     * the k singular values in descending order
+     */
+    public Vector getSingularValues() {
+
+        List<Double> components = new ArrayList<>(rank);
+        for (double singularValue : singularValues) {
+            components.add(singularValue);
+        }
+
+        return new Vector(components);
+    }
+
+    /**
+     * @return
+     * the n by k matrix of right singular vectors
+     */
+    public Matrix getV() {
+        return Matrix.fromArray(v, width, rank);
+    }
+
+    /**
+     * Compute the k largest singular triplets with default oversampling and power iterations.
+     * floating point operations: O(mnk)
+     * @param matrix
+     * an m by n matrix
+     * @param k
+     * the number of singular triplets to compute
+     * @return
+     * an empty optional or an optional containing the truncated decomposition
+     */
+    public static Optional<SingularValueDecomposition> truncated(Matrix matrix, int k) {
+        return truncated(matrix, k, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, new Random());
+    }
+
+    /**
+     * Compute the k largest singular triplets.
+     * floating point operations: (4 + 4q) mn(k + p) + O((m + n)(k + p)^2)
+     * @param matrix
+     * an m by n matrix
+     * @param k
+     * the number of singular triplets to compute
+     * @param oversampling
+     * the number p of extra random directions sampled to improve accuracy
+     * @param powerIterations
+     * the number q of power iterations, which sharpen the result when the singular values decay slowly
+     * @param random
+     * the source of the Gaussian test matrix
+     * @return
+     * an empty optional or an optional containing the truncated decomposition
+     */
+    public static Optional<SingularValueDecomposition> truncated(Matrix matrix, int k, int oversampling, int powerIterations, Random random) {
+
+        if (matrix == null || random == null || k <= 0 || oversampling < 0 || powerIterations < 0) {
+            return Optional.empty();
+        }
+
+        int n = matrix.getComponents().size();
+        int m = matrix.getComponents().get(0).size();
+
+        if (k > Math.min(m, n)) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+        int l = Math.min(k + oversampling, Math.min(m, n));
+
+        Optional<SingularValueDecomposition> decomposition = Matrix.toArray(matrix).map(a -> truncated(a, m, n, k, l, powerIterations, random));
+
+        if (decomposition.isPresent()) {
+            long size = (long) m * n;
+            Metrics.record("SingularValueDecomposition.truncated", (6 + 4L * powerIterations) * size * l + 4L * (m + n) * l * l,
+                    8 * (3 + 2L * powerIterations) * size, 8 + 4L * powerIterations, start);
+            Metrics.iterations("SingularValueDecomposition.powerIterations", powerIterations);
+        }
+
+        return decomposition;
+    }
+
+    private static SingularValueDecomposition truncated(double[] a, int m, int n, int k, int l, int powerIterations, Random random) {
+
+        double[] omega = new double[n * l];
+        for (int i = 0; i < omega.length; i++) {
+            omega[i] = random.nextGaussian();
+        }
+
+        // orthonormal basis of the range of A omega, refined by power iterations on A A^T
+        double[] y = new double[m * l];
+        Kernels.multiply(a, omega, y, m, n, l);
+        double[] q = QRDecomposition.decompose(y, m, l).thinQ();
+
+        for (int iteration = 0; iteration < powerIterations; iteration++) {
+            double[] w = new double[n * l];
+            Kernels.multiplyTransposed(a, q, w, n, m, l);
+            double[] p = QRDecomposition.decompose(w, n, l).thinQ();
+            y = new double[m * l];
+            Kernels.multiply(a, p, y, m, n, l);
+            q = QRDecomposition.decompose(y, m, l).thinQ();
+        }
+
+        // B^T = A^T Q = Q' R, where Q' is n by l and R is l by l, so that B = R^T Q'^T
+        double[] bt = new double[n * l];
+        Kernels.multiplyTransposed(a, q, bt, n, m, l);
+        QRDecomposition factorization = QRDecomposition.decompose(bt, n, l);
+        double[] r = factorization.r();
+
+        // R J = G with J orthogonal and the columns of G orthogonal, so R = Ur diag(sigma) J^T
+        // where Ur = G diag(1 / sigma)
+        double[] rotations = new double[l * l];
+        for (int j = 0; j < l; j++) {
+            rotations[j * l + j] = 1.0;
+        }
+        orthogonalize(r, rotations, l);
+
+        double[] norms = new double[l];
+        Integer[] order = new Integer[l];
+        for (int j = 0; j < l; j++) {
+            double sum = 0.0;
+            for (int i = 0; i < l; i++) {
+                sum += r[j * l + i] * r[j * l + i];
+            }
+            norms[j] = Math.sqrt(sum);
+            order[j] = j;
+        }
+        Arrays.sort(order, (first, second) -> Double.compare(norms[second], norms[first]));
+
+        // A ~ Q B = (Q J) diag(sigma) (Q' Ur)^T, leaving a zero right singular vector for a zero singular value
+        double[] singularValues = new double[k];
+        double[] left = new double[l * k];
+        double[] right = new double[l * k];
+        for (int j = 0; j < k; j++) {
+            int source = order[j];
+            singularValues[j] = norms[source];
+            System.arraycopy(rotations, source * l, left, j * l, l);
+            double scale = norms[source] == 0.0 ? 0.0 : 1.0 / norms[source];
+            for (int i = 0; i < l; i++) {
+                right[j * l + i] = r[source * l + i] * scale;
+            }
+        }
+
+        double[] u = new double[m * k];
+        Kernels.multiply(q, left, u, m, l, k);
+        double[] v = new double[n * k];
+        Kernels.multiply(factorization.thinQ(), right, v, n, l, k);
+
+        return new SingularValueDecomposition(u, singularValues, v, m, n, k);
+    }
+
+    /**
+     * One-sided Jacobi: rotate pairs of columns of the l by l matrix g until every pair is orthogonal to working
+     * precision, applying the same rotations to the columns of j.
+     * floating point operations: about 6l^3 per sweep
+     */
+    private static void orthogonalize(double[] g, double[] j, int l) {
+
+        for (int sweep = 0; sweep < MAXIMUM_SWEEPS; sweep++) {
+
+            boolean rotated = false;
+
+            for (int p = 0; p < l - 1; p++) {
+                for (int c = p + 1; c < l; c++) {
+
+                    double alpha = 0.0;
+                    double beta = 0.0;
+                    double gamma = 0.0;
+                    for (int i = 0; i < l; i++) {
+                        double x = g[p * l + i];
+                        double y = g[c * l + i];
+                        alpha += x * x;
+                        beta += y * y;
+                        gamma += x * y;
+                    }
+
+                    if (Math.abs(gamma) <= EPSILON * Math.sqrt(alpha * beta)) {
+                        continue;
+                    }
+                    rotated = true;
+
+                    double zeta = (beta - alpha) / (2.0 * gamma);
+                    double t = (zeta >= 0.0 ? 1.0 : -1.0) / (Math.abs(zeta) + Math.hypot(1.0, zeta));
+                    double cosine = 1.0 / Math.sqrt(1.0 + t * t);
+                    double sine = cosine * t;
+
+                    rotate(g, l, p, c, cosine, sine);
+                    rotate(j, l, p, c, cosine, sine);
+                }
+            }
+
+            if (!rotated) {
+                return;
+            }
+        }
+    }
+
+    private static void rotate(double[] a, int l, int p, int c, double cosine, double sine) {
+        for (int i = 0; i < l; i++) {
+            double x = a[p * l + i];
+            double y = a[c * l + i];
+            a[p * l + i] = cosine * x - sine * y;
+            a[c * l + i] = sine * x + cosine * y;
+        }
+    }
+}
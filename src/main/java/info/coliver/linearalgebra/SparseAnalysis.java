@@ -0,0 +1,365 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * Symbolic analysis of the sparsity pattern of a square matrix, shared by every matrix with that pattern.
+ * The analysis orders the unknowns to reduce fill with a minimum degree ordering of the graph of A + A^T, then
+ * computes the elimination tree of the reordered matrix and the number of non zeros in every column of its Cholesky
+ * factor. None of this depends on the values of the components, so a sequence of matrices with the same pattern, as
+ * met in time stepping or Newton iterations, is analysed once and then only factored numerically.
+ * The ordering is the exact minimum degree ordering that approximate minimum degree approximates: degrees are kept
+ * exact on the explicit elimination graph, which costs more time on very large problems but orders as well or better.
+ */
+public class SparseAnalysis {
+
+    private final int size;
+    private final int[] columnPointers;
+    private final int[] rowIndices;
+    private final int[] ordering;
+    private final int[] inverseOrdering;
+    private final int[] parent;
+    private final int[] factorPointers;
+
+    private SparseAnalysis(int size, int[] columnPointers, int[] rowIndices, int[] ordering, int[] inverseOrdering, int[] parent, int[] factorPointers) {
+        this.size = size;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.ordering = ordering;
+        this.inverseOrdering = inverseOrdering;
+        this.parent = parent;
+        this.factorPointers = factorPointers;
+    }
+
+    /**
+     * memory operations: proportional to the non zeros of the Cholesky factor of the reordered A + A^T
+     * @param matrix
+     * a square sparse matrix
+     * @return
+     * an empty optional if the matrix is not square or an optional containing the analysis of its pattern
+     */
+    public static Optional<SparseAnalysis> analyze(SparseMatrix matrix) {
+
+        if (matrix == null || matrix.getRows() != matrix.getColumns()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int n = matrix.getColumns();
+        int[][] adjacency = adjacency(matrix);
+        int[] ordering = minimumDegree(adjacency.clone(), n);
+        int[] inverseOrdering = new int[n];
+        for (int k = 0; k < n; k++) {
+            inverseOrdering[ordering[k]] = k;
+        }
+
+        // upper triangle of the pattern of P(A + A^T)P^T, column by column
+        int[] upperPointers = new int[n + 1];
+        for (int j = 0; j < n; j++) {
+            for (int i : adjacency[j]) {
+                if (inverseOrdering[i] < inverseOrdering[j]) {
+                    upperPointers[inverseOrdering[j] + 1]++;
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            upperPointers[k + 1] += upperPointers[k];
+        }
+        int[] upperIndices = new int[upperPointers[n]];
+        int[] next = Arrays.copyOf(upperPointers, n);
+        for (int j = 0; j < n; j++) {
+            for (int i : adjacency[j]) {
+                if (inverseOrdering[i] < inverseOrdering[j]) {
+                    upperIndices[next[inverseOrdering[j]]++] = inverseOrdering[i];
+                }
+            }
+        }
+
+        int[] parent = eliminationTree(upperPointers, upperIndices, n);
+
+        // the pattern of row k of L is the set of nodes reached from the pattern of column k of the upper triangle
+        int[] counts = new int[n];
+        int[] stack = new int[n];
+        int[] marks = new int[n];
+        Arrays.fill(marks, -1);
+        for (int k = 0; k < n; k++) {
+            counts[k]++;
+            int top = reach(upperPointers, upperIndices, null, k, k, parent, stack, marks);
+            for (int p = top; p < n; p++) {
+                counts[stack[p]]++;
+            }
+        }
+        int[] factorPointers = new int[n + 1];
+        for (int k = 0; k < n; k++) {
+            factorPointers[k + 1] = factorPointers[k] + counts[k];
+        }
+
+        Metrics.record("SparseAnalysis.analyze", 0, 4L * (matrix.getNonZeros() + upperIndices.length + 8L * n), 12, start);
+
+        return Optional.of(new SparseAnalysis(n, matrix.columnPointers().clone(), matrix.rowIndices().clone(),
+                ordering, inverseOrdering, parent, factorPointers));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return
+     * the columns of A in the order in which they are eliminated
+     */
+    public List<Integer> getOrdering() {
+
+        List<Integer> result = new ArrayList<>(size);
+        for (int index : ordering) {
+            result.add(index);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return
+     * the number of non zeros of the Cholesky factor of the reordered A + A^T, including its diagonal
+     */
+    public long getFactorNonZeros() {
+        return factorPointers[size];
+    }
+
+    /**
+     * @return
+     * true if the matrix has exactly the pattern that was analysed, so that the analysis may be reused for it
+     */
+    public boolean matches(SparseMatrix matrix) {
+        return matrix != null && SparseMatrix.samePattern(matrix, size, size, columnPointers, rowIndices);
+    }
+
+    int[] ordering() {
+        return ordering;
+    }
+
+    int[] inverseOrdering() {
+        return inverseOrdering;
+    }
+
+    int[] parent() {
+        return parent;
+    }
+
+    int[] factorPointers() {
+        return factorPointers;
+    }
+
+    /**
+     * @return
+     * the neighbours of every node in the graph of A + A^T, without self loops
+     */
+    private static int[][] adjacency(SparseMatrix matrix) {
+
+        int n = matrix.getColumns();
+        int[] pointers = matrix.columnPointers();
+        int[] indices = matrix.rowIndices();
+
+        int[] degrees = new int[n];
+        for (int j = 0; j < n; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                if (indices[p] != j) {
+                    degrees[j]++;
+                    degrees[indices[p]]++;
+                }
+            }
+        }
+
+        int[][] adjacency = new int[n][];
+        for (int j = 0; j < n; j++) {
+            adjacency[j] = new int[degrees[j]];
+        }
+        int[] lengths = new int[n];
+        int[] marks = new int[n];
+        Arrays.fill(marks, -1);
+        for (int j = 0; j < n; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                int i = indices[p];
+                if (i != j) {
+                    adjacency[j][lengths[j]++] = i;
+                    adjacency[i][lengths[i]++] = j;
+                }
+            }
+        }
+
+        // remove the duplicates left by entries present in both triangles
+        for (int j = 0; j < n; j++) {
+            int length = 0;
+            for (int q = 0; q < lengths[j]; q++) {
+                int i = adjacency[j][q];
+                if (marks[i] != j) {
+                    marks[i] = j;
+                    adjacency[j][length++] = i;
+                }
+            }
+            adjacency[j] = Arrays.copyOf(adjacency[j], length);
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Repeatedly eliminate a node of least degree, joining its neighbours into a clique.
+     * Nodes are kept in doubly linked lists by degree, so the next pivot is found in constant amortised time and only
+     * the neighbours of a pivot change list.
+     * @param adjacency
+     * the neighbours of every node, whose rows are replaced as the graph is eliminated
+     * @return
+     * the nodes in the order in which they were eliminated
+     */
+    private static int[] minimumDegree(int[][] adjacency, int n) {
+
+        int[] head = new int[n];
+        int[] next = new int[n];
+        int[] previous = new int[n];
+        int[] degrees = new int[n];
+        int[] marks = new int[n];
+        boolean[] eliminated = new boolean[n];
+        int[] ordering = new int[n];
+        Arrays.fill(head, -1);
+        Arrays.fill(marks, -1);
+
+        // insert in reverse so that ties are broken in favour of the lowest index
+        for (int i = n - 1; i >= 0; i--) {
+            degrees[i] = adjacency[i].length;
+            link(i, degrees[i], head, next, previous);
+        }
+
+        int minimum = 0;
+        int tag = 0;
+        for (int k = 0; k < n; k++) {
+
+            while (head[minimum] == -1) {
+                minimum++;
+            }
+            int pivot = head[minimum];
+            unlink(pivot, degrees[pivot], head, next, previous);
+            eliminated[pivot] = true;
+            ordering[k] = pivot;
+
+            int[] neighbours = adjacency[pivot];
+            adjacency[pivot] = null;
+
+            for (int u : neighbours) {
+
+                // the new neighbours of u are its old ones, less the pivot, together with those of the pivot
+                tag++;
+                marks[u] = tag;
+                int[] old = adjacency[u];
+                int[] merged = new int[old.length + neighbours.length];
+                int length = 0;
+                for (int v : old) {
+                    if (!eliminated[v] && marks[v] != tag) {
+                        marks[v] = tag;
+                        merged[length++] = v;
+                    }
+                }
+                for (int v : neighbours) {
+                    if (marks[v] != tag) {
+                        marks[v] = tag;
+                        merged[length++] = v;
+                    }
+                }
+                adjacency[u] = length == merged.length ? merged : Arrays.copyOf(merged, length);
+
+                unlink(u, degrees[u], head, next, previous);
+                degrees[u] = length;
+                link(u, length, head, next, previous);
+                minimum = Math.min(minimum, length);
+            }
+        }
+
+        return ordering;
+    }
+
+    private static void link(int node, int degree, int[] head, int[] next, int[] previous) {
+
+        next[node] = head[degree];
+        previous[node] = -1;
+        if (head[degree] != -1) {
+            previous[head[degree]] = node;
+        }
+        head[degree] = node;
+    }
+
+    private static void unlink(int node, int degree, int[] head, int[] next, int[] previous) {
+
+        if (previous[node] != -1) {
+            next[previous[node]] = next[node];
+        } else {
+            head[degree] = next[node];
+        }
+        if (next[node] != -1) {
+            previous[next[node]] = previous[node];
+        }
+    }
+
+    /**
+     * @return
+     * the parent of every column in the elimination tree of the symmetric matrix with the given upper triangle,
+     * or -1 for a root
+     */
+    private static int[] eliminationTree(int[] pointers, int[] indices, int n) {
+
+        int[] parent = new int[n];
+        int[] ancestor = new int[n];
+
+        for (int k = 0; k < n; k++) {
+            parent[k] = -1;
+            ancestor[k] = -1;
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                // climb from i towards the root, compressing the path to k as we go
+                for (int i = indices[p], following; i != -1 && i < k; i = following) {
+                    following = ancestor[i];
+                    ancestor[i] = k;
+                    if (following == -1) {
+                        parent[i] = k;
+                    }
+                }
+            }
+        }
+
+        return parent;
+    }
+
+    /**
+     * Find the pattern of row k of the Cholesky factor by walking up the elimination tree from every non zero of column
+     * k of the upper triangle, stopping at nodes already visited.
+     * @param column
+     * the column of the matrix that holds column k of the reordered matrix
+     * @param inverse
+     * the position of every row in the reordered matrix, or null if the rows are already reordered
+     * @param marks
+     * marks[i] == k once node i has been visited for row k; it must hold no k beforehand
+     * @return
+     * the position top such that stack[top..n-1] holds the pattern, excluding k, in topological order
+     */
+    static int reach(int[] pointers, int[] indices, int[] inverse, int column, int k, int[] parent, int[] stack, int[] marks) {
+
+        int top = parent.length;
+        marks[k] = k;
+
+        for (int p = pointers[column]; p < pointers[column + 1]; p++) {
+            int i = inverse == null ? indices[p] : inverse[indices[p]];
+            if (i > k) {
+                continue;
+            }
+            int length = 0;
+            for (; marks[i] != k; i = parent[i]) {
+                stack[length++] = i;
+                marks[i] = k;
+            }
+            while (length > 0) {
+                stack[--top] = stack[--length];
+            }
+        }
+
+        return top;
+    }
+}
@@ -0,0 +1,198 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * Cholesky factorization PAP^T = LL^T of a sparse symmetric positive definite matrix.
+ * The ordering P, the elimination tree and the size of every column of L come from a SparseAnalysis, so L is
+ * allocated once at its exact size and computed row by row: the pattern of each row is the set of nodes reached in
+ * the elimination tree from the non zeros of the matching column of A, and only those columns of L are read. The work
+ * is proportional to the sum of the squares of the column counts of L rather than to n^3.
+ */
+public class SparseCholesky {
+
+    private final SparseAnalysis analysis;
+    private final int[] rowIndices;
+    private final double[] values;
+
+    private SparseCholesky(SparseAnalysis analysis, int[] rowIndices, double[] values) {
+        this.analysis = analysis;
+        this.rowIndices = rowIndices;
+        this.values = values;
+    }
+
+    /**
+     * Analyse the pattern of the matrix and factor it.
+     * @param matrix
+     * a sparse symmetric positive definite matrix, with both of its triangles stored
+     * @return
+     * an empty optional if the matrix is not square, not symmetric or not positive definite, or an optional
+     * containing the factorization
+     */
+    public static Optional<SparseCholesky> decompose(SparseMatrix matrix) {
+        return SparseAnalysis.analyze(matrix).flatMap(analysis -> decompose(matrix, analysis));
+    }
+
+    /**
+     * Factor the matrix reusing the analysis of a matrix with the same pattern.
+     * floating point operations: sum over the columns of L of the square of their non zeros
+     * memory operations: the non zeros of L
+     * @param matrix
+     * a sparse symmetric positive definite matrix, with both of its triangles stored
+     * @param analysis
+     * the analysis of the pattern of the matrix
+     * @return
+     * an empty optional if the analysis does not match the pattern, or the matrix is not symmetric or not positive
+     * definite, or an optional containing the factorization
+     */
+    public static Optional<SparseCholesky> decompose(SparseMatrix matrix, SparseAnalysis analysis) {
+
+        if (matrix == null || analysis == null || !analysis.matches(matrix) || !symmetric(matrix)) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int n = analysis.getSize();
+        int[] pointers = matrix.columnPointers();
+        int[] indices = matrix.rowIndices();
+        double[] components = matrix.values();
+        int[] ordering = analysis.ordering();
+        int[] inverse = analysis.inverseOrdering();
+        int[] parent = analysis.parent();
+        int[] factorPointers = analysis.factorPointers();
+
+        int[] factorIndices = new int[factorPointers[n]];
+        double[] factorValues = new double[factorPointers[n]];
+        int[] next = Arrays.copyOf(factorPointers, n);
+        int[] stack = new int[n];
+        int[] marks = new int[n];
+        double[] x = new double[n];
+        Arrays.fill(marks, -1);
+        long flops = 0;
+
+        for (int k = 0; k < n; k++) {
+
+            int top = SparseAnalysis.reach(pointers, indices, inverse, ordering[k], k, parent, stack, marks);
+
+            // scatter the upper part of column k of PAP^T
+            x[k] = 0.0;
+            for (int p = pointers[ordering[k]]; p < pointers[ordering[k] + 1]; p++) {
+                int i = inverse[indices[p]];
+                if (i <= k) {
+                    x[i] = components[p];
+                }
+            }
+            double diagonal = x[k];
+            x[k] = 0.0;
+
+            // solve L(0:k-1, 0:k-1) l = x for row k of L, visiting the pattern in topological order
+            for (; top < n; top++) {
+                int i = stack[top];
+                double l = x[i] / factorValues[factorPointers[i]];
+                x[i] = 0.0;
+                for (int p = factorPointers[i] + 1; p < next[i]; p++) {
+                    x[factorIndices[p]] -= factorValues[p] * l;
+                }
+                flops += 2 * (next[i] - factorPointers[i]) + 1;
+                diagonal -= l * l;
+                int p = next[i]++;
+                factorIndices[p] = k;
+                factorValues[p] = l;
+            }
+
+            if (!(diagonal > 0.0)) {
+                return Optional.empty();
+            }
+
+            int p = next[k]++;
+            factorIndices[p] = k;
+            factorValues[p] = Math.sqrt(diagonal);
+        }
+
+        Metrics.record("SparseCholesky.decompose", flops, 12L * factorPointers[n], 6, start);
+
+        return Optional.of(new SparseCholesky(analysis, factorIndices, factorValues));
+    }
+
+    /**
+     * @return
+     * true if the matrix equals its transpose
+     */
+    private static boolean symmetric(SparseMatrix matrix) {
+
+        SparseMatrix transpose = SparseMatrix.transpose(matrix);
+
+        return Arrays.equals(matrix.columnPointers(), transpose.columnPointers())
+                && Arrays.equals(matrix.rowIndices(), transpose.rowIndices())
+                && Arrays.equals(matrix.values(), transpose.values());
+    }
+
+    public SparseAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * @return
+     * the number of non zeros of L, including its diagonal
+     */
+    public int getNonZeros() {
+        return values.length;
+    }
+
+    /**
+     * @return
+     * the lower triangular factor L of the reordered matrix
+     */
+    public SparseMatrix getL() {
+        int n = analysis.getSize();
+        return new SparseMatrix(n, n, analysis.factorPointers().clone(), rowIndices.clone(), values.clone());
+    }
+
+    /**
+     * floating point operations: 4x for x non zeros of L
+     * @param vector
+     * the right hand side b
+     * @return
+     * an empty optional if the vector does not have n components or an optional containing the solution of Ax = b
+     */
+    public Optional<Vector> solve(Vector vector) {
+
+        int n = analysis.getSize();
+
+        if (vector == null || vector.getComponents().size() != n) {
+            return Optional.empty();
+        }
+
+        int[] ordering = analysis.ordering();
+        int[] pointers = analysis.factorPointers();
+
+        double[] x = new double[n];
+        for (int k = 0; k < n; k++) {
+            x[k] = vector.getComponents().get(ordering[k]);
+        }
+
+        // L y = Pb
+        for (int j = 0; j < n; j++) {
+            x[j] /= values[pointers[j]];
+            for (int p = pointers[j] + 1; p < pointers[j + 1]; p++) {
+                x[rowIndices[p]] -= values[p] * x[j];
+            }
+        }
+
+        // L^T z = y
+        for (int j = n - 1; j >= 0; j--) {
+            for (int p = pointers[j] + 1; p < pointers[j + 1]; p++) {
+                x[j] -= values[p] * x[rowIndices[p]];
+            }
+            x[j] /= values[pointers[j]];
+        }
+
+        List<Double> components = new ArrayList<>(Collections.nCopies(n, 0.0));
+        for (int k = 0; k < n; k++) {
+            components.set(ordering[k], x[k]);
+        }
+
+        return Optional.of(new Vector(components));
+    }
+}
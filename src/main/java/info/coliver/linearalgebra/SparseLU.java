@@ -0,0 +1,336 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * LU factorization PAQ = LU of a sparse square matrix, where L is unit lower triangular and U is upper triangular.
+ * The columns are taken in the fill reducing order Q of a SparseAnalysis and factored left looking, as described by
+ * Gilbert and Peierls: column k of L and U is the solution of a sparse triangular system with the k columns already
+ * computed, whose pattern is found by a depth first search of the graph of L before any arithmetic is done, so the
+ * work is proportional to the floating point operations performed rather than to n^2. Rows are chosen by threshold
+ * partial pivoting, which keeps the diagonal of the reordered matrix as pivot unless it is smaller than a tenth of the
+ * largest candidate, so that the fill reducing order is followed wherever stability allows.
+ */
+public class SparseLU {
+
+    // a diagonal pivot is kept if its magnitude is at least this fraction of the largest candidate
+    private static final double PIVOT_THRESHOLD = 0.1;
+
+    private final SparseAnalysis analysis;
+    private final int[] rowPermutation;
+    private final int[] lowerPointers;
+    private final int[] lowerIndices;
+    private final double[] lowerValues;
+    private final int[] upperPointers;
+    private final int[] upperIndices;
+    private final double[] upperValues;
+
+    private SparseLU(SparseAnalysis analysis, int[] rowPermutation, int[] lowerPointers, int[] lowerIndices, double[] lowerValues,
+                     int[] upperPointers, int[] upperIndices, double[] upperValues) {
+        this.analysis = analysis;
+        this.rowPermutation = rowPermutation;
+        this.lowerPointers = lowerPointers;
+        this.lowerIndices = lowerIndices;
+        this.lowerValues = lowerValues;
+        this.upperPointers = upperPointers;
+        this.upperIndices = upperIndices;
+        this.upperValues = upperValues;
+    }
+
+    /**
+     * Analyse the pattern of the matrix and factor it.
+     * @param matrix
+     * a sparse square matrix
+     * @return
+     * an empty optional if the matrix is not square or is singular, or an optional containing the factorization
+     */
+    public static Optional<SparseLU> decompose(SparseMatrix matrix) {
+        return SparseAnalysis.analyze(matrix).flatMap(analysis -> decompose(matrix, analysis));
+    }
+
+    /**
+     * Factor the matrix reusing the analysis of a matrix with the same pattern.
+     * floating point operations: proportional to the non zeros met while computing L and U, at most 2/3 n^3
+     * memory operations: the non zeros of L and U
+     * @param matrix
+     * a sparse square matrix
+     * @param analysis
+     * the analysis of the pattern of the matrix
+     * @return
+     * an empty optional if the analysis does not match the pattern or the matrix is singular, or an optional
+     * containing the factorization
+     */
+    public static Optional<SparseLU> decompose(SparseMatrix matrix, SparseAnalysis analysis) {
+
+        if (matrix == null || analysis == null || !analysis.matches(matrix)) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        int n = analysis.getSize();
+        int[] pointers = matrix.columnPointers();
+        int[] indices = matrix.rowIndices();
+        double[] components = matrix.values();
+        int[] ordering = analysis.ordering();
+
+        // the Cholesky factor of the reordered A + A^T is a good first guess at the size of each factor
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, analysis.getFactorNonZeros() + n);
+        int[] lowerPointers = new int[n + 1];
+        int[] lowerIndices = new int[capacity];
+        double[] lowerValues = new double[capacity];
+        int[] upperPointers = new int[n + 1];
+        int[] upperIndices = new int[capacity];
+        double[] upperValues = new double[capacity];
+        int lowerCount = 0;
+        int upperCount = 0;
+
+        // inverse[i] is the step at which row i was chosen as pivot, or -1 while it has not been
+        int[] inverse = new int[n];
+        Arrays.fill(inverse, -1);
+        int[] stack = new int[2 * n];
+        boolean[] marked = new boolean[n];
+        double[] x = new double[n];
+        long flops = 0;
+
+        for (int k = 0; k < n; k++) {
+
+            lowerPointers[k] = lowerCount;
+            upperPointers[k] = upperCount;
+            if (lowerCount + n > lowerIndices.length) {
+                lowerIndices = Arrays.copyOf(lowerIndices, 2 * lowerIndices.length + n);
+                lowerValues = Arrays.copyOf(lowerValues, lowerIndices.length);
+            }
+            if (upperCount + n > upperIndices.length) {
+                upperIndices = Arrays.copyOf(upperIndices, 2 * upperIndices.length + n);
+                upperValues = Arrays.copyOf(upperValues, upperIndices.length);
+            }
+
+            int column = ordering[k];
+
+            // x = L \ A(:, column), on the pattern reached from the non zeros of the column
+            int top = n;
+            for (int p = pointers[column]; p < pointers[column + 1]; p++) {
+                if (!marked[indices[p]]) {
+                    top = search(indices[p], lowerPointers, lowerIndices, inverse, top, stack, marked);
+                }
+            }
+            for (int p = top; p < n; p++) {
+                marked[stack[p]] = false;
+                x[stack[p]] = 0.0;
+            }
+            for (int p = pointers[column]; p < pointers[column + 1]; p++) {
+                x[indices[p]] = components[p];
+            }
+            for (int q = top; q < n; q++) {
+                int j = stack[q];
+                int step = inverse[j];
+                if (step < 0) {
+                    continue;
+                }
+                // L has a unit diagonal, stored first in every column
+                for (int p = lowerPointers[step] + 1; p < lowerPointers[step + 1]; p++) {
+                    x[lowerIndices[p]] -= lowerValues[p] * x[j];
+                }
+                flops += 2 * (lowerPointers[step + 1] - lowerPointers[step] - 1);
+            }
+
+            // rows already pivoted go to U, the largest of the others becomes the pivot
+            int pivot = -1;
+            double largest = -1.0;
+            for (int q = top; q < n; q++) {
+                int i = stack[q];
+                if (inverse[i] < 0) {
+                    double magnitude = Math.abs(x[i]);
+                    if (magnitude > largest) {
+                        largest = magnitude;
+                        pivot = i;
+                    }
+                } else {
+                    upperIndices[upperCount] = inverse[i];
+                    upperValues[upperCount++] = x[i];
+                }
+            }
+            if (pivot == -1 || !(largest > 0.0)) {
+                return Optional.empty();
+            }
+            // x is zero off the pattern, so a diagonal outside of it never passes the threshold
+            if (inverse[column] < 0 && Math.abs(x[column]) >= PIVOT_THRESHOLD * largest) {
+                pivot = column;
+            }
+
+            double value = x[pivot];
+            upperIndices[upperCount] = k;
+            upperValues[upperCount++] = value;
+            inverse[pivot] = k;
+            lowerIndices[lowerCount] = pivot;
+            lowerValues[lowerCount++] = 1.0;
+            for (int q = top; q < n; q++) {
+                int i = stack[q];
+                if (inverse[i] < 0) {
+                    lowerIndices[lowerCount] = i;
+                    lowerValues[lowerCount++] = x[i] / value;
+                    flops++;
+                }
+                x[i] = 0.0;
+            }
+        }
+
+        lowerPointers[n] = lowerCount;
+        upperPointers[n] = upperCount;
+
+        // number the rows of L by the step at which they were pivoted
+        for (int p = 0; p < lowerCount; p++) {
+            lowerIndices[p] = inverse[lowerIndices[p]];
+        }
+        int[] rowPermutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            rowPermutation[inverse[i]] = i;
+        }
+
+        Metrics.record("SparseLU.decompose", flops, 12L * (lowerCount + upperCount), 10, start);
+
+        return Optional.of(new SparseLU(analysis, rowPermutation, lowerPointers, Arrays.copyOf(lowerIndices, lowerCount),
+                Arrays.copyOf(lowerValues, lowerCount), upperPointers, Arrays.copyOf(upperIndices, upperCount),
+                Arrays.copyOf(upperValues, upperCount)));
+    }
+
+    /**
+     * Depth first search of the graph of the columns of L computed so far, starting at row j.
+     * The search is iterative: stack[0..head] holds the path being explored and stack[n..2n-1] the position reached
+     * in the column of every node on it, while finished nodes are pushed down from top.
+     * @return
+     * the new top of the finished nodes, which are in topological order
+     */
+    private static int search(int j, int[] lowerPointers, int[] lowerIndices, int[] inverse, int top, int[] stack, boolean[] marked) {
+
+        int n = marked.length;
+        int head = 0;
+        stack[0] = j;
+
+        while (head >= 0) {
+
+            j = stack[head];
+            int step = inverse[j];
+            if (!marked[j]) {
+                marked[j] = true;
+                stack[n + head] = step < 0 ? 0 : lowerPointers[step];
+            }
+
+            boolean done = true;
+            int end = step < 0 ? 0 : lowerPointers[step + 1];
+            for (int p = stack[n + head]; p < end; p++) {
+                int i = lowerIndices[p];
+                if (!marked[i]) {
+                    stack[n + head] = p;
+                    stack[++head] = i;
+                    done = false;
+                    break;
+                }
+            }
+
+            if (done) {
+                head--;
+                stack[--top] = j;
+            }
+        }
+
+        return top;
+    }
+
+    public SparseAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * @return
+     * the rows of A in the order of the rows of LU
+     */
+    public List<Integer> getRowPermutation() {
+
+        List<Integer> result = new ArrayList<>(rowPermutation.length);
+        for (int index : rowPermutation) {
+            result.add(index);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return
+     * the unit lower triangular factor L
+     */
+    public SparseMatrix getL() {
+        int n = analysis.getSize();
+        return sorted(new SparseMatrix(n, n, lowerPointers.clone(), lowerIndices.clone(), lowerValues.clone()));
+    }
+
+    /**
+     * @return
+     * the upper triangular factor U
+     */
+    public SparseMatrix getU() {
+        int n = analysis.getSize();
+        return sorted(new SparseMatrix(n, n, upperPointers.clone(), upperIndices.clone(), upperValues.clone()));
+    }
+
+    /**
+     * @return
+     * the matrix with the rows of every column in ascending order, which transposing twice provides
+     */
+    private static SparseMatrix sorted(SparseMatrix matrix) {
+        return SparseMatrix.transpose(SparseMatrix.transpose(matrix));
+    }
+
+    /**
+     * @return
+     * the number of non zeros of L and U, including their diagonals
+     */
+    public int getNonZeros() {
+        return lowerValues.length + upperValues.length;
+    }
+
+    /**
+     * floating point operations: 2x for x non zeros of L and U
+     * @param vector
+     * the right hand side b
+     * @return
+     * an empty optional if the vector does not have n components or an optional containing the solution of Ax = b
+     */
+    public Optional<Vector> solve(Vector vector) {
+
+        int n = analysis.getSize();
+
+        if (vector == null || vector.getComponents().size() != n) {
+            return Optional.empty();
+        }
+
+        double[] x = new double[n];
+        for (int k = 0; k < n; k++) {
+            x[k] = vector.getComponents().get(rowPermutation[k]);
+        }
+
+        // L y = Pb
+        for (int j = 0; j < n; j++) {
+            for (int p = lowerPointers[j] + 1; p < lowerPointers[j + 1]; p++) {
+                x[lowerIndices[p]] -= lowerValues[p] * x[j];
+            }
+        }
+
+        // U z = y, the diagonal being the last entry of every column
+        for (int j = n - 1; j >= 0; j--) {
+            x[j] /= upperValues[upperPointers[j + 1] - 1];
+            for (int p = upperPointers[j]; p < upperPointers[j + 1] - 1; p++) {
+                x[upperIndices[p]] -= upperValues[p] * x[j];
+            }
+        }
+
+        int[] ordering = analysis.ordering();
+        List<Double> components = new ArrayList<>(Collections.nCopies(n, 0.0));
+        for (int k = 0; k < n; k++) {
+            components.set(ordering[k], x[k]);
+        }
+
+        return Optional.of(new Vector(components));
+    }
+}
@@ -0,0 +1,301 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * An immutable sparse matrix in compressed sparse column form.
+ * The row indices of column j are rowIndices[columnPointers[j]] to rowIndices[columnPointers[j + 1] - 1], in
+ * ascending order, and values holds the matching components. Only structurally non zero components are stored, so
+ * storage and every operation scale with the number of non zeros rather than with the height times the width.
+ */
+public final class SparseMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final int[] columnPointers;
+    private final int[] rowIndices;
+    private final double[] values;
+
+    SparseMatrix(int rows, int columns, int[] columnPointers, int[] rowIndices, double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.values = values;
+    }
+
+    public static Builder builder(int rows, int columns) {
+        return new Builder(rows, columns);
+    }
+
+    /**
+     * memory operations: mn
+     * @param matrix
+     * the dense matrix who's non zero components should be copied
+     * @return
+     * an empty optional or an optional containing the sparse copy of the matrix
+     */
+    public static Optional<SparseMatrix> of(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        int width = matrix.getComponents().size();
+        int height = matrix.getComponents().get(0).size();
+        int[] pointers = new int[width + 1];
+        int[] indices = new int[16];
+        double[] components = new double[16];
+        int count = 0;
+
+        for (int j = 0; j < width; j++) {
+            List<Double> column = matrix.getComponents().get(j);
+            if (column.size() != height) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < height; i++) {
+                double value = column.get(i);
+                if (value != 0.0) {
+                    if (count == indices.length) {
+                        indices = Arrays.copyOf(indices, 2 * count);
+                        components = Arrays.copyOf(components, 2 * count);
+                    }
+                    indices[count] = i;
+                    components[count++] = value;
+                }
+            }
+            pointers[j + 1] = count;
+        }
+
+        return Optional.of(new SparseMatrix(height, width, pointers, Arrays.copyOf(indices, count), Arrays.copyOf(components, count)));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getNonZeros() {
+        return columnPointers[columns];
+    }
+
+    /**
+     * floating point operations: 0
+     * memory operations: log(x) for x non zeros in the column
+     */
+    public double get(int row, int column) {
+
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("The component (" + row + ", " + column + ") lies outside of a " + rows + " by " + columns + " matrix.");
+        }
+
+        int index = Arrays.binarySearch(rowIndices, columnPointers[column], columnPointers[column + 1], row);
+
+        return index >= 0 ? values[index] : 0.0;
+    }
+
+    /**
+     * memory operations: mn
+     * @return
+     * a dense copy of this matrix
+     */
+    public Matrix toMatrix() {
+
+        double[] dense = new double[rows * columns];
+
+        for (int j = 0; j < columns; j++) {
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                dense[j * rows + rowIndices[p]] = values[p];
+            }
+        }
+
+        return Matrix.fromArray(dense, rows, columns);
+    }
+
+    int[] columnPointers() {
+        return columnPointers;
+    }
+
+    int[] rowIndices() {
+        return rowIndices;
+    }
+
+    double[] values() {
+        return values;
+    }
+
+    /**
+     * floating point operations: 2x for x non zeros
+     * @param matrix
+     * m by n sparse matrix
+     * @param vector
+     * vector of size n
+     * @return
+     * an empty optional or an optional containing the product of the matrix and the vector
+     */
+    public static Optional<Vector> vectorMultiplication(SparseMatrix matrix, Vector vector) {
+
+        if (matrix == null || vector == null || vector.getComponents().size() != matrix.columns) {
+            return Optional.empty();
+        }
+
+        double[] product = new double[matrix.rows];
+
+        for (int j = 0; j < matrix.columns; j++) {
+            double factor = vector.getComponents().get(j);
+            if (factor != 0.0) {
+                for (int p = matrix.columnPointers[j]; p < matrix.columnPointers[j + 1]; p++) {
+                    product[matrix.rowIndices[p]] += matrix.values[p] * factor;
+                }
+            }
+        }
+
+        List<Double> components = new ArrayList<>(product.length);
+        for (double component : product) {
+            components.add(component);
+        }
+
+        return Optional.of(new Vector(components));
+    }
+
+    /**
+     * floating point operations: 0
+     * memory operations: x for x non zeros
+     * @return
+     * the transpose of the matrix
+     */
+    public static SparseMatrix transpose(SparseMatrix matrix) {
+
+        int[] pointers = new int[matrix.rows + 1];
+        int[] indices = new int[matrix.getNonZeros()];
+        double[] components = new double[matrix.getNonZeros()];
+
+        for (int p = 0; p < matrix.getNonZeros(); p++) {
+            pointers[matrix.rowIndices[p] + 1]++;
+        }
+        for (int i = 0; i < matrix.rows; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+
+        // visiting the columns in order leaves the rows of every transposed column sorted
+        int[] next = Arrays.copyOf(pointers, matrix.rows);
+        for (int j = 0; j < matrix.columns; j++) {
+            for (int p = matrix.columnPointers[j]; p < matrix.columnPointers[j + 1]; p++) {
+                int q = next[matrix.rowIndices[p]]++;
+                indices[q] = j;
+                components[q] = matrix.values[p];
+            }
+        }
+
+        return new SparseMatrix(matrix.columns, matrix.rows, pointers, indices, components);
+    }
+
+    /**
+     * @return
+     * true if both matrices store non zeros at the same positions
+     */
+    static boolean samePattern(SparseMatrix a, int rows, int columns, int[] columnPointers, int[] rowIndices) {
+        return a.rows == rows && a.columns == columns
+                && Arrays.equals(a.columnPointers, columnPointers) && Arrays.equals(a.rowIndices, rowIndices);
+    }
+
+    /**
+     * Collects components in any order, summing those given for the same position, and compresses them when built.
+     * It is not thread safe and should stay confined to the building thread.
+     */
+    public static final class Builder {
+
+        private final int rows;
+        private final int columns;
+        private int[] rowIndices = new int[16];
+        private int[] columnIndices = new int[16];
+        private double[] values = new double[16];
+        private int count;
+
+        private Builder(int rows, int columns) {
+
+            if (rows <= 0 || columns <= 0) {
+                throw new IllegalArgumentException("The height and width of a matrix must be positive.");
+            }
+
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        public Builder add(int row, int column, double value) {
+
+            if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                throw new IndexOutOfBoundsException("The component (" + row + ", " + column + ") lies outside of a " + rows + " by " + columns + " matrix.");
+            }
+
+            if (count == rowIndices.length) {
+                rowIndices = Arrays.copyOf(rowIndices, 2 * count);
+                columnIndices = Arrays.copyOf(columnIndices, 2 * count);
+                values = Arrays.copyOf(values, 2 * count);
+            }
+
+            rowIndices[count] = row;
+            columnIndices[count] = column;
+            values[count++] = value;
+
+            return this;
+        }
+
+        /**
+         * memory operations: x + m + n for x components added
+         */
+        public SparseMatrix build() {
+
+            // bucket the components by row, then by column, which leaves every column sorted by row
+            int[] rowPointers = new int[rows + 1];
+            for (int e = 0; e < count; e++) {
+                rowPointers[rowIndices[e] + 1]++;
+            }
+            for (int i = 0; i < rows; i++) {
+                rowPointers[i + 1] += rowPointers[i];
+            }
+            int[] byRow = new int[count];
+            int[] next = Arrays.copyOf(rowPointers, rows);
+            for (int e = 0; e < count; e++) {
+                byRow[next[rowIndices[e]]++] = e;
+            }
+
+            int[] pointers = new int[columns + 1];
+            for (int e = 0; e < count; e++) {
+                pointers[columnIndices[e] + 1]++;
+            }
+            for (int j = 0; j < columns; j++) {
+                pointers[j + 1] += pointers[j];
+            }
+            int[] sorted = new int[count];
+            next = Arrays.copyOf(pointers, columns);
+            for (int e : byRow) {
+                sorted[next[columnIndices[e]]++] = e;
+            }
+
+            // sum duplicates, which are now adjacent
+            int[] compressedPointers = new int[columns + 1];
+            int[] indices = new int[count];
+            double[] components = new double[count];
+            int size = 0;
+            for (int j = 0; j < columns; j++) {
+                int first = size;
+                for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                    int e = sorted[p];
+                    if (size > first && indices[size - 1] == rowIndices[e]) {
+                        components[size - 1] += values[e];
+                    } else {
+                        indices[size] = rowIndices[e];
+                        components[size++] = values[e];
+                    }
+                }
+                compressedPointers[j + 1] = size;
+            }
+
+            return new SparseMatrix(rows, columns, compressedPointers, Arrays.copyOf(indices, size), Arrays.copyOf(components, size));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package info.coliver.linearalgebra;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Strassen-Winograd multiplication of square matrices held in column major arrays.
+ * Each recursion level splits its operands into quadrants and forms the product from seven half sized products and
+ * fifteen additions. Below the crossover size the classical kernel takes over. Operands are padded once up front so
+ * that every level splits evenly.
+ * The temporaries of each level are allocated once per multiplication and reused by every product at that level,
+ * which bounds the extra memory to a small multiple of n^2. The seven products of the topmost level run in parallel,
+ * each allocating the deeper levels of its own. The temporaries are garbage once the multiplication returns, so no
+ * thread, least of all a pool thread, keeps the memory of a large multiplication.
+ */
+final class Strassen {
+
+    static final int DEFAULT_CROSSOVER = 128;
+
+    // number of recursion levels whose seven products are forked
+    private static final int PARALLEL_DEPTH = 1;
+
+    private Strassen() {
+    }
+
+    /**
+     * floating point operations: O(n^2.81)
+     * @param a
+     * n by n matrix
+     * @param b
+     * n by n matrix
+     * @param n
+     * the size of the matrices
+     * @param crossover
+     * the size at or below which the classical kernel is used
+     * @return
+     * the n by n product of a and b
+     */
+    static double[] multiply(double[] a, double[] b, int n, int crossover) {
+
+        int levels = 0;
+        int base = n;
+        while (base > crossover) {
+            base = (base + 1) / 2;
+            levels++;
+        }
+
+        double[] c = new double[n * n];
+
+        if (levels == 0) {
+            Kernels.multiply(a, b, c, n, n, n);
+            return c;
+        }
+
+        int padded = base << levels;
+        double[] paddedA = pad(a, n, padded);
+        double[] paddedB = pad(b, n, padded);
+        double[] paddedC = padded == n ? c : new double[padded * padded];
+
+        multiply(paddedA, paddedB, paddedC, padded, crossover, 0, new Level[levels]);
+
+        if (paddedC != c) {
+            for (int j = 0; j < n; j++) {
+                System.arraycopy(paddedC, j * padded, c, j * n, n);
+            }
+        }
+
+        return c;
+    }
+
+    /**
+     * @return
+     * the number of floating point operations of multiplying n by n matrices with the given crossover
+     */
+    static long floatingPointOperations(int n, int crossover) {
+
+        if (n <= crossover) {
+            return 2L * n * n * n;
+        }
+
+        int h = (n + 1) / 2;
+
+        return 7 * floatingPointOperations(h, crossover) + 15L * h * h;
+    }
+
+    private static double[] pad(double[] matrix, int n, int padded) {
+
+        if (padded == n) {
+            return matrix;
+        }
+
+        double[] result = new double[padded * padded];
+        for (int j = 0; j < n; j++) {
+            System.arraycopy(matrix, j * n, result, j * padded, n);
+        }
+
+        return result;
+    }
+
+    private static void multiply(double[] a, double[] b, double[] c, int n, int crossover, int depth, Level[] levels) {
+
+        if (n <= crossover) {
+            Arrays.fill(c, 0, n * n, 0.0);
+            Kernels.multiply(a, b, c, n, n, n);
+            return;
+        }
+
+        int h = n / 2;
+
+        if (levels[depth] == null) {
+            levels[depth] = new Level(h * h);
+        }
+        Level w = levels[depth];
+
+        quadrant(a, n, 0, 0, w.a11);
+        quadrant(a, n, 0, h, w.a12);
+        quadrant(a, n, h, 0, w.a21);
+        quadrant(a, n, h, h, w.a22);
+        quadrant(b, n, 0, 0, w.b11);
+        quadrant(b, n, 0, h, w.b12);
+        quadrant(b, n, h, 0, w.b21);
+        quadrant(b, n, h, h, w.b22);
+
+        int size = h * h;
+        for (int e = 0; e < size; e++) {
+            w.s1[e] = w.a21[e] + w.a22[e];
+            w.s2[e] = w.s1[e] - w.a11[e];
+            w.s3[e] = w.a11[e] - w.a21[e];
+            w.s4[e] = w.a12[e] - w.s2[e];
+            w.t1[e] = w.b12[e] - w.b11[e];
+            w.t2[e] = w.b22[e] - w.t1[e];
+            w.t3[e] = w.b22[e] - w.b12[e];
+            w.t4[e] = w.t2[e] - w.b21[e];
+        }
+
+        double[][] left = {w.a11, w.a12, w.s4, w.a22, w.s1, w.s2, w.s3};
+        double[][] right = {w.b11, w.b21, w.b22, w.t4, w.t1, w.t2, w.t3};
+
+        if (depth < PARALLEL_DEPTH) {
+            Product[] products = new Product[7];
+            for (int p = 0; p < 7; p++) {
+                // concurrent products may not share the deeper levels
+                products[p] = new Product(left[p], right[p], w.p[p], h, crossover, depth + 1, new Level[levels.length]);
+            }
+            RecursiveAction.invokeAll(products);
+        } else {
+            for (int p = 0; p < 7; p++) {
+                multiply(left[p], right[p], w.p[p], h, crossover, depth + 1, levels);
+            }
+        }
+
+        double[] p1 = w.p[0];
+        double[] p2 = w.p[1];
+        double[] p3 = w.p[2];
+        double[] p4 = w.p[3];
+        double[] p5 = w.p[4];
+        double[] p6 = w.p[5];
+        double[] p7 = w.p[6];
+
+        for (int j = 0; j < h; j++) {
+            int upper = j * n;
+            int lower = (j + h) * n;
+            for (int i = 0; i < h; i++) {
+                int e = j * h + i;
+                double u2 = p1[e] + p6[e];
+                double u3 = u2 + p7[e];
+                c[upper + i] = p1[e] + p2[e];
+                c[lower + i] = u2 + p5[e] + p3[e];
+                c[upper + h + i] = u3 - p4[e];
+                c[lower + h + i] = u3 + p5[e];
+            }
+        }
+    }
+
+    private static void quadrant(double[] matrix, int n, int row, int column, double[] destination) {
+
+        int h = n / 2;
+        for (int j = 0; j < h; j++) {
+            System.arraycopy(matrix, (column + j) * n + row, destination, j * h, h);
+        }
+    }
+
+    /**
+     * Temporaries of a single recursion level, each holding a quadrant sized matrix.
+     */
+    private static final class Level {
+
+        private final double[] a11, a12, a21, a22;
+        private final double[] b11, b12, b21, b22;
+        private final double[] s1, s2, s3, s4;
+        private final double[] t1, t2, t3, t4;
+        private final double[][] p;
+
+        private Level(int size) {
+            a11 = new double[size];
+            a12 = new double[size];
+            a21 = new double[size];
+            a22 = new double[size];
+            b11 = new double[size];
+            b12 = new double[size];
+            b21 = new double[size];
+            b22 = new double[size];
+            s1 = new double[size];
+            s2 = new double[size];
+            s3 = new double[size];
+            s4 = new double[size];
+            t1 = new double[size];
+            t2 = new double[size];
+            t3 = new double[size];
+            t4 = new double[size];
+            p = new double[7][];
+            for (int i = 0; i < p.length; i++) {
+                p[i] = new double[size];
+            }
+        }
+    }
+
+    // fork join tasks are never serialized
+    @SuppressWarnings("serial")
+    private static final class Product extends RecursiveAction {
+
+        private final double[] a;
+        private final double[] b;
+        private final double[] c;
+        private final int n;
+        private final int crossover;
+        private final int depth;
+        private final Level[] levels;
+
+        private Product(double[] a, double[] b, double[] c, int n, int crossover, int depth, Level[] levels) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.n = n;
+            this.crossover = crossover;
+            this.depth = depth;
+            this.levels = levels;
+        }
+
+        @Override
+        protected void compute() {
+            multiply(a, b, c, n, crossover, depth, levels);
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package info.coliver.linearalgebra;
+
+import java.util.*;
+
+/**
+ * Eigenvalue decomposition A = Q diag(eigenvalues) Q^T of a real symmetric matrix.
+ * The matrix is first reduced to tridiagonal form with Householder reflectors. The tridiagonal problem is then solved
+ * by Cuppen's divide and conquer method: the matrix is torn in two by a rank one correction, both halves are solved
+ * recursively, and the halves are merged by solving the secular equation of the rank one update. Eigenvectors of each
+ * merge are computed from a recomputed update vector (Gu and Eisenstat) so that they stay orthogonal, and are folded
+ * into those of the halves with a matrix product. Small subproblems are solved with the implicit QL method.
+ */
+public class SymmetricEigenDecomposition {
+
+    // subproblems of at most this size are solved with the QL method
+    private static final int SMALL = 25;
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private final double[] eigenvalues;
+    private final double[] eigenvectors;
+    private final int size;
+
+    private SymmetricEigenDecomposition(double[] eigenvalues, double[] eigenvectors, int size) {
+        this.eigenvalues = eigenvalues;
+        this.eigenvectors = eigenvectors;
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return
+     * the eigenvalues in ascending order
+     */
+    public Vector getEigenvalues() {
+
+        List<Double> components = new ArrayList<>(size);
+        for (double eigenvalue : eigenvalues) {
+            components.add(eigenvalue);
+        }
+
+        return new Vector(components);
+    }
+
+    /**
+     * @return
+     * the matrix who's columns are the orthonormal eigenvectors, in the order of the eigenvalues
+     */
+    public Matrix getEigenvectors() {
+        return Matrix.fromArray(eigenvectors, size, size);
+    }
+
+    double[] eigenvalues() {
+        return eigenvalues;
+    }
+
+    double[] eigenvectors() {
+        return eigenvectors;
+    }
+
+    /**
+     * Only the lower triangle of the matrix is read, as produced by Matrix.symmetrizeFromLowerTriangular.
+     * floating point operations: O(n^3)
+     * @param matrix
+     * a symmetric matrix
+     * @return
+     * an empty optional or an optional containing the decomposition of the matrix
+     */
+    public static Optional<SymmetricEigenDecomposition> decompose(Matrix matrix) {
+
+        if (matrix == null) {
+            return Optional.empty();
+        }
+
+        int n = matrix.getComponents().size();
+        if (n != matrix.getComponents().get(0).size()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Optional<SymmetricEigenDecomposition> decomposition = Matrix.toArray(matrix).map(components -> decompose(components, n));
+
+        long size = n;
+        if (decomposition.isPresent()) {
+            Metrics.record("SymmetricEigenDecomposition.decompose",
+                    4 * size * size * size + 2 * size * size * size / 3, 8 * 4 * size * size, 4 + 2 * size, start);
+        }
+
+        return decomposition;
+    }
+
+    /**
+     * @param components
+     * an n by n matrix in column major order of which the lower triangle is read, overwritten by the reduction
+     * @return
+     * the decomposition
+     */
+    static SymmetricEigenDecomposition decompose(double[] components, int n) {
+
+        // mirror the lower triangle so that the reduction may work on the full matrix
+        for (int j = 0; j < n; j++) {
+            for (int i = j + 1; i < n; i++) {
+                components[i * n + j] = components[j * n + i];
+            }
+        }
+
+        double[] d = new double[n];
+        double[] e = new double[n];
+        double[] q = tridiagonalize(components, n, d, e);
+
+        double[] z = solveTridiagonal(d, e, n);
+
+        double[] vectors = new double[n * n];
+        Kernels.multiply(q, z, vectors, n, n, n);
+
+        return new SymmetricEigenDecomposition(d, vectors, n);
+    }
+
+    /**
+     * Reduce the symmetric matrix to tridiagonal form T = Q^T A Q.
+     * @return
+     * the orthogonal matrix Q, with the diagonal of T written to d and the subdiagonal to e
+     */
+    private static double[] tridiagonalize(double[] a, int n, double[] d, double[] e) {
+
+        double[] tau = new double[n];
+        double[] p = new double[n];
+
+        for (int k = 0; k < n - 2; k++) {
+
+            int column = k * n;
+            double alpha = a[column + k + 1];
+            double squares = 0.0;
+            for (int i = k + 2; i < n; i++) {
+                squares += a[column + i] * a[column + i];
+            }
+
+            d[k] = a[column + k];
+
+            if (squares == 0.0) {
+                e[k] = alpha;
+                tau[k] = 0.0;
+                continue;
+            }
+
+            double beta = -Math.copySign(Math.sqrt(alpha * alpha + squares), alpha);
+            double t = (beta - alpha) / beta;
+            double scale = 1.0 / (alpha - beta);
+            a[column + k + 1] = 1.0;
+            for (int i = k + 2; i < n; i++) {
+                a[column + i] *= scale;
+            }
+            e[k] = beta;
+            tau[k] = t;
+
+            // p = tau A v over the trailing block
+            double pv = 0.0;
+            for (int i = k + 1; i < n; i++) {
+                double sum = 0.0;
+                for (int j = k + 1; j < n; j++) {
+                    sum += a[j * n + i] * a[column + j];
+                }
+                p[i] = t * sum;
+                pv += p[i] * a[column + i];
+            }
+
+            // w = p - (tau / 2)(p^T v) v, then A = A - v w^T - w v^T
+            double half = 0.5 * t * pv;
+            for (int i = k + 1; i < n; i++) {
+                p[i] -= half * a[column + i];
+            }
+            for (int j = k + 1; j < n; j++) {
+                double vj = a[column + j];
+                double wj = p[j];
+                for (int i = k + 1; i < n; i++) {
+                    a[j * n + i] -= a[column + i] * wj + p[i] * vj;
+                }
+            }
+        }
+
+        if (n > 1) {
+            d[n - 2] = a[(n - 2) * n + n - 2];
+            e[n - 2] = a[(n - 2) * n + n - 1];
+        }
+        d[n - 1] = a[(n - 1) * n + n - 1];
+        e[n - 1] = 0.0;
+
+        // accumulate Q = H(0) H(1) ... H(n - 3) by applying the reflectors to the identity in reverse order
+        double[] q = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            q[i * n + i] = 1.0;
+        }
+        for (int k = n - 3; k >= 0; k--) {
+            if (tau[k] == 0.0) {
+                continue;
+            }
+            int column = k * n;
+            for (int j = k + 1; j < n; j++) {
+                double dot = 0.0;
+                for (int i = k + 1; i < n; i++) {
+                    dot += a[column + i] * q[j * n + i];
+                }
+                dot *= tau[k];
+                for (int i = k + 1; i < n; i++) {
+                    q[j * n + i] -= dot * a[column + i];
+                }
+            }
+        }
+
+        return q;
+    }
+
+    /**
+     * Solve the symmetric tridiagonal eigenproblem by divide and conquer.
+     * @param d
+     * the diagonal, overwritten by the eigenvalues in ascending order
+     * @param e
+     * the subdiagonal, where e[i] couples rows i and i + 1; destroyed
+     * @return
+     * the n by n matrix of eigenvectors
+     */
+    private static double[] solveTridiagonal(double[] d, double[] e, int n) {
+
+        if (n <= SMALL) {
+            return ql(d, e, n);
+        }
+
+        // tear the matrix into two halves and a rank one correction beta v v^T with v = e(m - 1) + e(m)
+        int m = n / 2;
+        double beta = e[m - 1];
+
+        double[] d1 = Arrays.copyOfRange(d, 0, m);
+        double[] e1 = Arrays.copyOfRange(e, 0, m);
+        double[] d2 = Arrays.copyOfRange(d, m, n);
+        double[] e2 = Arrays.copyOfRange(e, m, n);
+        d1[m - 1] -= beta;
+        e1[m - 1] = 0.0;
+        d2[0] -= beta;
+
+        double[] q1 = solveTridiagonal(d1, e1, m);
+        double[] q2 = solveTridiagonal(d2, e2, n - m);
+
+        // the halves combine into the block diagonal Q and D, leaving D + rho z z^T to be solved
+        double[] q = new double[n * n];
+        double[] z = new double[n];
+        double[] values = new double[n];
+        for (int j = 0; j < m; j++) {
+            System.arraycopy(q1, j * m, q, j * n, m);
+            z[j] = q1[j * m + m - 1];
+            values[j] = d1[j];
+        }
+        for (int j = 0; j < n - m; j++) {
+            System.arraycopy(q2, j * (n - m), q, (m + j) * n + m, n - m);
+            z[m + j] = q2[j * (n - m)];
+            values[m + j] = d2[j];
+        }
+
+        // z is the concatenation of two unit vectors
+        double rho = 2.0 * beta;
+        double norm = Math.sqrt(0.5);
+        for (int i = 0; i < n; i++) {
+            z[i] *= norm;
+        }
+
+        merge(values, z, rho, q, n, d);
+
+        return q;
+    }
+
+    /**
+     * Solve the eigenproblem of D + rho z z^T where z has unit length, folding its eigenvectors into the columns of q.
+     * The eigenvalues are written to result in ascending order and the columns of q are reordered to match.
+     */
+    private static void merge(double[] values, double[] z, double rho, double[] q, int n, double[] result) {
+
+        // a negative update is solved as the positive update of -D
+        boolean negated = rho < 0.0;
+        if (negated) {
+            rho = -rho;
+            for (int i = 0; i < n; i++) {
+                values[i] = -values[i];
+            }
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> values[i]));
+
+        double maximum = rho;
+        for (double value : values) {
+            maximum = Math.max(maximum, Math.abs(value));
+        }
+        double tolerance = 8.0 * EPSILON * maximum;
+
+        // deflate components with a negligible update and eigenvalues that nearly coincide
+        boolean[] deflated = new boolean[n];
+        int previous = -1;
+        for (int position = 0; position < n; position++) {
+            int i = order[position];
+            if (rho * Math.abs(z[i]) <= tolerance) {
+                deflated[i] = true;
+                continue;
+            }
+            if (previous >= 0 && values[i] - values[previous] <= tolerance) {
+                double r = Math.hypot(z[previous], z[i]);
+                double c = z[i] / r;
+                double s = z[previous] / r;
+                z[i] = r;
+                z[previous] = 0.0;
+                double dp = values[previous];
+                double di = values[i];
+                values[previous] = dp * c * c + di * s * s;
+                values[i] = dp * s * s + di * c * c;
+                int pOffset = previous * n;
+                int iOffset = i * n;
+                for (int row = 0; row < n; row++) {
+                    double qp = q[pOffset + row];
+                    double qi = q[iOffset + row];
+                    q[pOffset + row] = c * qp - s * qi;
+                    q[iOffset + row] = s * qp + c * qi;
+                }
+                deflated[previous] = true;
+            }
+            previous = i;
+        }
+
+        int k = 0;
+        int[] active = new int[n];
+        for (int position = 0; position < n; position++) {
+            if (!deflated[order[position]]) {
+                active[k++] = order[position];
+            }
+        }
+
+        double[] eigenvalues = new double[n];
+        double[] vectors = new double[n * n];
+
+        if (k > 0) {
+
+            double[] delta = new double[k];
+            double[] zeta = new double[k];
+            for (int i = 0; i < k; i++) {
+                delta[i] = values[active[i]];
+                zeta[i] = z[active[i]];
+            }
+
+            // each root is held as an offset from the closest pole for accuracy
+            int[] origin = new int[k];
+            double[] offset = new double[k];
+            for (int i = 0; i < k; i++) {
+                secularRoot(delta, zeta, rho, k, i, origin, offset);
+            }
+
+            // recompute the update vector from the computed roots so that the eigenvectors are orthogonal
+            double[] recomputed = new double[k];
+            for (int i = 0; i < k; i++) {
+                double product = ((delta[origin[k - 1]] - delta[i]) + offset[k - 1]) / rho;
+                for (int j = 0; j < k - 1; j++) {
+                    double numerator = (delta[origin[j]] - delta[i]) + offset[j];
+                    double denominator = delta[j < i ? j : j + 1] - delta[i];
+                    product *= numerator / denominator;
+                }
+                recomputed[i] = Math.copySign(Math.sqrt(Math.abs(product)), zeta[i]);
+            }
+
+            double[] u = new double[k * k];
+            for (int j = 0; j < k; j++) {
+                double length = 0.0;
+                for (int i = 0; i < k; i++) {
+                    double component = recomputed[i] / ((delta[i] - delta[origin[j]]) - offset[j]);
+                    u[j * k + i] = component;
+                    length += component * component;
+                }
+                length = Math.sqrt(length);
+                for (int i = 0; i < k; i++) {
+                    u[j * k + i] /= length;
+                }
+            }
+
+            double[] activeColumns = new double[n * k];
+            for (int i = 0; i < k; i++) {
+                System.arraycopy(q, active[i] * n, activeColumns, i * n, n);
+            }
+            double[] merged = new double[n * k];
+            Kernels.multiply(activeColumns, u, merged, n, k, k);
+
+            for (int j = 0; j < k; j++) {
+                eigenvalues[j] = delta[origin[j]] + offset[j];
+                System.arraycopy(merged, j * n, vectors, j * n, n);
+            }
+        }
+
+        int column = k;
+        for (int i = 0; i < n; i++) {
+            if (deflated[i]) {
+                eigenvalues[column] = values[i];
+                System.arraycopy(q, i * n, vectors, column * n, n);
+                column++;
+            }
+        }
+
+        if (negated) {
+            for (int i = 0; i < n; i++) {
+                eigenvalues[i] = -eigenvalues[i];
+            }
+        }
+
+        sort(eigenvalues, vectors, n, result, q);
+    }
+
+    /**
+     * Find the ith root of the secular equation 1 + rho sum(zeta^2 / (delta - lambda)) = 0 by bisection.
+     * The root is recorded as the index of its closest pole and its offset from that pole.
+     */
+    private static void secularRoot(double[] delta, double[] zeta, double rho, int k, int i, int[] origin, double[] offset) {
+
+        double lower;
+        double upper;
+
+        if (i < k - 1) {
+            double gap = delta[i + 1] - delta[i];
+            double middle = 1.0;
+            for (int j = 0; j < k; j++) {
+                middle += rho * zeta[j] * zeta[j] / ((delta[j] - delta[i]) - 0.5 * gap);
+            }
+            // the secular function increases between poles, so its sign at the midpoint tells which pole is closer
+            if (middle >= 0.0) {
+                origin[i] = i;
+                lower = 0.0;
+                upper = 0.5 * gap;
+            } else {
+                origin[i] = i + 1;
+                lower = -0.5 * gap;
+                upper = 0.0;
+            }
+        } else {
+            origin[i] = i;
+            lower = 0.0;
+            upper = rho;
+        }
+
+        double pole = delta[origin[i]];
+
+        while (true) {
+            double middle = 0.5 * (lower + upper);
+            if (middle <= lower || middle >= upper || upper - lower <= 2.0 * EPSILON * Math.max(Math.abs(lower), Math.abs(upper))) {
+                offset[i] = middle;
+                return;
+            }
+            double f = 1.0;
+            for (int j = 0; j < k; j++) {
+                f += rho * zeta[j] * zeta[j] / ((delta[j] - pole) - middle);
+            }
+            if (f > 0.0) {
+                upper = middle;
+            } else if (f < 0.0) {
+                lower = middle;
+            } else {
+                offset[i] = middle;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Order the eigenpairs by ascending eigenvalue, writing the eigenvalues to d and the eigenvectors to z.
+     */
+    private static void sort(double[] values, double[] vectors, int n, double[] d, double[] z) {
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> values[i]));
+
+        for (int j = 0; j < n; j++) {
+            d[j] = values[order[j]];
+            System.arraycopy(vectors, order[j] * n, z, j * n, n);
+        }
+    }
+
+    /**
+     * Solve the symmetric tridiagonal eigenproblem with the implicit QL method.
+     * @return
+     * the n by n matrix of eigenvectors, with the eigenvalues written to d in ascending order
+     */
+    private static double[] ql(double[] d, double[] e, int n) {
+
+        double[] z = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            z[i * n + i] = 1.0;
+        }
+        e[n - 1] = 0.0;
+
+        double f = 0.0;
+        double norm = 0.0;
+
+        for (int l = 0; l < n; l++) {
+
+            norm = Math.max(norm, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > EPSILON * norm) {
+                m++;
+            }
+
+            if (m > l) {
+                do {
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = Math.copySign(Math.hypot(p, 1.0), p);
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+
+                    p = d[m];
+                    double c = 1.0;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0;
+                    double s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        int left = i * n;
+                        int right = (i + 1) * n;
+                        for (int row = 0; row < n; row++) {
+                            h = z[right + row];
+                            z[right + row] = s * z[left + row] + c * h;
+                            z[left + row] = c * z[left + row] - s * h;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > EPSILON * norm);
+            }
+
+            d[l] += f;
+            e[l] = 0.0;
+        }
+
+        double[] values = d.clone();
+        double[] vectors = z.clone();
+        sort(values, vectors, n, d, z);
+
+        return z;
+    }
+}
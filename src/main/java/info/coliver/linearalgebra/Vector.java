@@ -1,6 +1,8 @@
 package info.coliver.linearalgebra;
 
 import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 public class Vector {
 
@@ -294,6 +296,205 @@ public class Vector {
         return Optional.of(new Vector(components));
     }
 
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: 2n
+     * @param vector
+     * the vector whose components are mapped
+     * @param function
+     * the function applied to every component
+     * @return
+     * an empty optional or an optional containing the new vector of the mapped components
+     */
+    public static Optional<Vector> map(Vector vector, DoubleUnaryOperator function) {
+        return map(vector, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: 2n
+     * @param vector
+     * the vector whose components are mapped
+     * @param function
+     * the function applied to every component, which may be called from several threads at once
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the new vector of the mapped components
+     */
+    public static Optional<Vector> map(Vector vector, DoubleUnaryOperator function, Execution execution) {
+
+        if (vector == null || function == null || execution == null) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Vector result = fromArray(ElementWise.map(toArray(vector), 1, function, execution));
+
+        long size = vector.getComponents().size();
+        Metrics.record("Vector.map", size, 16 * size, 2, start);
+
+        return Optional.of(result);
+    }
+
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: 3n
+     * @param x
+     * vector supplying the first argument of the function
+     * @param y
+     * vector of the same size supplying the second argument of the function
+     * @param function
+     * the function applied to every pair of components in the same place
+     * @return
+     * an empty optional or an optional containing the new vector of the combined components
+     */
+    public static Optional<Vector> zipWith(Vector x, Vector y, DoubleBinaryOperator function) {
+        return zipWith(x, y, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: 3n
+     * @param x
+     * vector supplying the first argument of the function
+     * @param y
+     * vector of the same size supplying the second argument of the function
+     * @param function
+     * the function applied to every pair of components in the same place, which may be called from several threads at
+     * once
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the new vector of the combined components
+     */
+    public static Optional<Vector> zipWith(Vector x, Vector y, DoubleBinaryOperator function, Execution execution) {
+
+        if (x == null || y == null || function == null || execution == null || x.getComponents().size() != y.getComponents().size()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Vector result = fromArray(ElementWise.zipWith(toArray(x), toArray(y), 1, function, execution));
+
+        long size = x.getComponents().size();
+        Metrics.record("Vector.zipWith", size, 24 * size, 3, start);
+
+        return Optional.of(result);
+    }
+
+    /**
+     * floating point operations: n
+     * memory operations: 3n
+     * @param x
+     * vector factor
+     * @param y
+     * vector factor of the same size
+     * @return
+     * an empty optional or an optional containing the vector of the products of the components in the same place
+     */
+    public static Optional<Vector> hadamardProduct(Vector x, Vector y) {
+        return hadamardProduct(x, y, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: n
+     * memory operations: 3n
+     * @param x
+     * vector factor
+     * @param y
+     * vector factor of the same size
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the vector of the products of the components in the same place
+     */
+    public static Optional<Vector> hadamardProduct(Vector x, Vector y, Execution execution) {
+
+        if (x == null || y == null || execution == null || x.getComponents().size() != y.getComponents().size()) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        Vector result = fromArray(ElementWise.hadamard(toArray(x), toArray(y), 1, execution));
+
+        long size = x.getComponents().size();
+        Metrics.record("Vector.hadamardProduct", size, 24 * size, 3, start);
+
+        return Optional.of(result);
+    }
+
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: n
+     * @param vector
+     * the vector whose components are combined
+     * @param identity
+     * the value of the reduction of no components
+     * @param function
+     * the function combining the running result with the next component
+     * @return
+     * an empty optional or an optional containing the result of the reduction
+     */
+    public static Optional<Double> reduce(Vector vector, double identity, DoubleBinaryOperator function) {
+        return reduce(vector, identity, function, Execution.SEQUENTIAL);
+    }
+
+    /**
+     * floating point operations: n applications of the function
+     * memory operations: n
+     * @param vector
+     * the vector whose components are combined
+     * @param identity
+     * the value of the reduction of no components; for a parallel or vectorized reduction it must leave any value
+     * unchanged when combined with it
+     * @param function
+     * the function combining the running result with the next component; for a parallel or vectorized reduction it
+     * must be associative, since partial results are combined in another grouping
+     * @param execution
+     * how the components are traversed
+     * @return
+     * an empty optional or an optional containing the result of the reduction
+     */
+    public static Optional<Double> reduce(Vector vector, double identity, DoubleBinaryOperator function, Execution execution) {
+
+        if (vector == null || function == null || execution == null) {
+            return Optional.empty();
+        }
+
+        long start = Metrics.start();
+
+        double result = ElementWise.reduce(toArray(vector), 1, identity, function, execution);
+
+        long size = vector.getComponents().size();
+        Metrics.record("Vector.reduce", size, 8 * size, 1, start);
+
+        return Optional.of(result);
+    }
+
+    private static double[] toArray(Vector vector) {
+
+        double[] components = new double[vector.getComponents().size()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = vector.getComponents().get(i);
+        }
+
+        return components;
+    }
+
+    private static Vector fromArray(double[] components) {
+
+        List<Double> list = new ArrayList<>(components.length);
+        for (double component : components) {
+            list.add(component);
+        }
+
+        return new Vector(list);
+    }
+
     /**
      * Create a vector of a given size with all components set to zero.
      * @param size
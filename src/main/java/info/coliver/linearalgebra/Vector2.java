@@ -0,0 +1,117 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable vector of exactly 2 components.
+ * Operations are fully unrolled and never allocate beyond their result, which the JIT can usually scalar replace.
+ */
+public final class Vector2 {
+
+    private final double x;
+    private final double y;
+
+    Vector2 (double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * memory operations: 2
+     * @param vector
+     * a vector with exactly 2 components
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the vector
+     */
+    public static Optional<Vector2> from(Vector vector) {
+
+        if (vector == null || vector.getComponents().size() != 2) {
+            return Optional.empty();
+        }
+
+        List<Double> components = vector.getComponents();
+
+        return Optional.of(new Vector2(components.get(0), components.get(1)));
+    }
+
+    /**
+     * memory operations: 2
+     * @return
+     * a general vector holding the components of this vector
+     */
+    public Vector toVector() {
+
+        List<Double> components = new ArrayList<>(2);
+
+        components.add(x);
+        components.add(y);
+
+        return new Vector(components);
+    }
+
+    /**
+     * floating point operations: 2
+     * memory operations: 4
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the sum of a and b
+     */
+    public static Vector2 add(Vector2 a, Vector2 b) {
+        return new Vector2(a.x + b.x, a.y + b.y);
+    }
+
+    /**
+     * floating point operations: 2
+     * memory operations: 4
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the difference of a and b
+     */
+    public static Vector2 subtract(Vector2 a, Vector2 b) {
+        return new Vector2(a.x - b.x, a.y - b.y);
+    }
+
+    /**
+     * floating point operations: 2
+     * memory operations: 2
+     * @param vector
+     * the vector to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled vector
+     */
+    public static Vector2 scale(Vector2 vector, double factor) {
+        return new Vector2(factor * vector.x, factor * vector.y);
+    }
+
+    /**
+     * floating point operations: 4
+     * memory operations: 4
+     * @param a
+     * vector factor
+     * @param b
+     * vector factor
+     * @return
+     * the dot product of a and b
+     */
+    public static double dotProduct(Vector2 a, Vector2 b) {
+        return a.x * b.x + a.y * b.y;
+    }
+}
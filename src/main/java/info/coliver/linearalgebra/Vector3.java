@@ -0,0 +1,124 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable vector of exactly 3 components.
+ * Operations are fully unrolled and never allocate beyond their result, which the JIT can usually scalar replace.
+ */
+public final class Vector3 {
+
+    private final double x;
+    private final double y;
+    private final double z;
+
+    Vector3 (double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * memory operations: 3
+     * @param vector
+     * a vector with exactly 3 components
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the vector
+     */
+    public static Optional<Vector3> from(Vector vector) {
+
+        if (vector == null || vector.getComponents().size() != 3) {
+            return Optional.empty();
+        }
+
+        List<Double> components = vector.getComponents();
+
+        return Optional.of(new Vector3(components.get(0), components.get(1), components.get(2)));
+    }
+
+    /**
+     * memory operations: 3
+     * @return
+     * a general vector holding the components of this vector
+     */
+    public Vector toVector() {
+
+        List<Double> components = new ArrayList<>(3);
+
+        components.add(x);
+        components.add(y);
+        components.add(z);
+
+        return new Vector(components);
+    }
+
+    /**
+     * floating point operations: 3
+     * memory operations: 6
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the sum of a and b
+     */
+    public static Vector3 add(Vector3 a, Vector3 b) {
+        return new Vector3(a.x + b.x, a.y + b.y, a.z + b.z);
+    }
+
+    /**
+     * floating point operations: 3
+     * memory operations: 6
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the difference of a and b
+     */
+    public static Vector3 subtract(Vector3 a, Vector3 b) {
+        return new Vector3(a.x - b.x, a.y - b.y, a.z - b.z);
+    }
+
+    /**
+     * floating point operations: 3
+     * memory operations: 3
+     * @param vector
+     * the vector to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled vector
+     */
+    public static Vector3 scale(Vector3 vector, double factor) {
+        return new Vector3(factor * vector.x, factor * vector.y, factor * vector.z);
+    }
+
+    /**
+     * floating point operations: 6
+     * memory operations: 6
+     * @param a
+     * vector factor
+     * @param b
+     * vector factor
+     * @return
+     * the dot product of a and b
+     */
+    public static double dotProduct(Vector3 a, Vector3 b) {
+        return a.x * b.x + a.y * b.y + a.z * b.z;
+    }
+}
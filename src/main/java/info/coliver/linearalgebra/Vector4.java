@@ -0,0 +1,131 @@
+package info.coliver.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable vector of exactly 4 components.
+ * Operations are fully unrolled and never allocate beyond their result, which the JIT can usually scalar replace.
+ */
+public final class Vector4 {
+
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double w;
+
+    Vector4 (double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public double getW() {
+        return w;
+    }
+
+    /**
+     * memory operations: 4
+     * @param vector
+     * a vector with exactly 4 components
+     * @return
+     * an empty optional or an optional containing the fixed size copy of the vector
+     */
+    public static Optional<Vector4> from(Vector vector) {
+
+        if (vector == null || vector.getComponents().size() != 4) {
+            return Optional.empty();
+        }
+
+        List<Double> components = vector.getComponents();
+
+        return Optional.of(new Vector4(components.get(0), components.get(1), components.get(2), components.get(3)));
+    }
+
+    /**
+     * memory operations: 4
+     * @return
+     * a general vector holding the components of this vector
+     */
+    public Vector toVector() {
+
+        List<Double> components = new ArrayList<>(4);
+
+        components.add(x);
+        components.add(y);
+        components.add(z);
+        components.add(w);
+
+        return new Vector(components);
+    }
+
+    /**
+     * floating point operations: 4
+     * memory operations: 8
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the sum of a and b
+     */
+    public static Vector4 add(Vector4 a, Vector4 b) {
+        return new Vector4(a.x + b.x, a.y + b.y, a.z + b.z, a.w + b.w);
+    }
+
+    /**
+     * floating point operations: 4
+     * memory operations: 8
+     * @param a
+     * vector
+     * @param b
+     * vector
+     * @return
+     * the difference of a and b
+     */
+    public static Vector4 subtract(Vector4 a, Vector4 b) {
+        return new Vector4(a.x - b.x, a.y - b.y, a.z - b.z, a.w - b.w);
+    }
+
+    /**
+     * floating point operations: 4
+     * memory operations: 4
+     * @param vector
+     * the vector to be scaled
+     * @param factor
+     * the scale factor
+     * @return
+     * the scaled vector
+     */
+    public static Vector4 scale(Vector4 vector, double factor) {
+        return new Vector4(factor * vector.x, factor * vector.y, factor * vector.z, factor * vector.w);
+    }
+
+    /**
+     * floating point operations: 8
+     * memory operations: 8
+     * @param a
+     * vector factor
+     * @param b
+     * vector factor
+     * @return
+     * the dot product of a and b
+     */
+    public static double dotProduct(Vector4 a, Vector4 b) {
+        return a.x * b.x + a.y * b.y + a.z * b.z + a.w * b.w;
+    }
+}
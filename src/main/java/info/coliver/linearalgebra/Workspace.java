@@ -0,0 +1,173 @@
+package info.coliver.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * An arena of primitive buffers from which the primitive solve of LinearSystem draws its temporaries.
+ * Buffers are handed out in stack order: an operation takes a mark, acquires the buffers it needs and releases back to
+ * its mark when it is done, after which the same buffers are handed to the next operation. A buffer is only replaced
+ * when a larger one is requested, so once an arena has seen the largest problem of a workload, further operations of
+ * that size acquire their temporaries without allocating.
+ * An arena may be given a limit on the bytes it retains: whenever buffers are released, released buffers are dropped,
+ * the last acquired first, until the arena is within the limit.
+ * An arena is not thread safe. Either provide one per thread or use the arena of the current thread returned by local,
+ * which retains at most LOCAL_RETAINED bytes so that a thread that once solved a large problem does not hold on to its
+ * memory for the rest of its life.
+ */
+public final class Workspace {
+
+    // bytes of released buffers kept by the arena of a thread
+    static final long LOCAL_RETAINED = 1L << 22;
+
+    private static final ThreadLocal<Workspace> LOCAL = ThreadLocal.withInitial(() -> new Workspace(LOCAL_RETAINED));
+
+    private final long retained;
+
+    private double[][] doubles = new double[16][];
+    private int[][] ints = new int[4][];
+    private int doubleCount;
+    private int intCount;
+
+    public Workspace() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param retained
+     * the number of bytes beyond which released buffers are dropped rather than kept for reuse
+     */
+    public Workspace(long retained) {
+
+        if (retained < 0) {
+            throw new IllegalArgumentException("A workspace cannot retain a negative number of bytes.");
+        }
+
+        this.retained = retained;
+    }
+
+    /**
+     * @return
+     * the arena of the current thread
+     */
+    public static Workspace local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * @return
+     * the number of bytes held by the buffers of the arena
+     */
+    public long getBytes() {
+
+        long bytes = 0;
+
+        for (double[] buffer : doubles) {
+            bytes += buffer == null ? 0 : 8L * buffer.length;
+        }
+        for (int[] buffer : ints) {
+            bytes += buffer == null ? 0 : 4L * buffer.length;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Drop every buffer so that the memory of a large problem is not retained.
+     * @throws IllegalStateException
+     * if any buffer is still in use
+     */
+    public void clear() {
+
+        if (doubleCount != 0 || intCount != 0) {
+            throw new IllegalStateException("A workspace may not be cleared while its buffers are in use.");
+        }
+
+        Arrays.fill(doubles, null);
+        Arrays.fill(ints, null);
+    }
+
+    /**
+     * @return
+     * the position to which release returns the arena
+     */
+    long mark() {
+        return ((long) doubleCount << 32) | intCount;
+    }
+
+    /**
+     * Return every buffer acquired since the mark was taken, dropping released buffers while the arena holds more than
+     * it may retain.
+     */
+    void release(long mark) {
+
+        doubleCount = (int) (mark >>> 32);
+        intCount = (int) mark;
+
+        if (retained == Long.MAX_VALUE) {
+            return;
+        }
+
+        long bytes = getBytes();
+
+        for (int i = doubles.length - 1; i >= doubleCount && bytes > retained; i--) {
+            if (doubles[i] != null) {
+                bytes -= 8L * doubles[i].length;
+                doubles[i] = null;
+            }
+        }
+        for (int i = ints.length - 1; i >= intCount && bytes > retained; i--) {
+            if (ints[i] != null) {
+                bytes -= 4L * ints[i].length;
+                ints[i] = null;
+            }
+        }
+    }
+
+    /**
+     * @return
+     * a buffer whose first length components are zero, which may be longer than requested
+     */
+    double[] doubles(int length) {
+
+        if (doubleCount == doubles.length) {
+            doubles = Arrays.copyOf(doubles, 2 * doubles.length);
+        }
+
+        double[] buffer = doubles[doubleCount];
+
+        if (buffer == null || buffer.length < length) {
+            buffer = new double[length];
+            doubles[doubleCount] = buffer;
+        } else {
+            Arrays.fill(buffer, 0, length, 0.0);
+        }
+
+        doubleCount++;
+
+        return buffer;
+    }
+
+    /**
+     * @return
+     * a buffer whose first length components are zero, which may be longer than requested
+     */
+    int[] ints(int length) {
+
+        if (intCount == ints.length) {
+            ints = Arrays.copyOf(ints, 2 * ints.length);
+        }
+
+        int[] buffer = ints[intCount];
+
+        if (buffer == null || buffer.length < length) {
+            buffer = new int[length];
+            ints[intCount] = buffer;
+        } else {
+            Arrays.fill(buffer, 0, length, 0);
+        }
+
+        intCount++;
+
+        return buffer;
+    }
+}
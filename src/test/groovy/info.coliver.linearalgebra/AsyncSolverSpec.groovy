@@ -0,0 +1,193 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class AsyncSolverSpec extends Specification {
+
+    @Shared solver
+    @Shared system
+    @Shared large
+
+    def setup() {
+
+        double a = 0.0
+        double b = 1.0
+        double c = 2.0
+        double d = 3.0
+        double e = 7.0
+        solver = new AsyncSolver(1, 1)
+        system = new LinearSystem(new Matrix([[b,d,b], [b,b,e], [c,e,b]]), new Matrix([[-b,-e,e]]))
+
+        def n = 400
+        def random = new Random(11)
+        large = new LinearSystem(new Matrix((0..<n).collect { j -> (0..<n).collect { i -> random.nextGaussian() + (i == j ? n : 0) } }),
+                new Matrix([(0..<n).collect { random.nextGaussian() }]))
+    }
+
+    def cleanup() {
+        solver.close()
+    }
+
+    def 'Given a non positive pool size to the constructor' () {
+
+        when:
+        new AsyncSolver(0, 1)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When transforming a system asynchronously' () {
+
+        when:
+        def result = solver.gaussJordanTransform(system).get(10, TimeUnit.SECONDS)
+
+        then: 'the future should complete with the same solution as the synchronous transform'
+        result.getRhs().getComponents() == LinearSystem.gaussJordanTransform(system).get().getRhs().getComponents()
+    }
+
+    def 'When transforming a null system asynchronously' () {
+
+        when:
+        solver.gaussJordanTransform(null).get()
+
+        then: 'the future should fail.'
+        def e = thrown(ExecutionException)
+        e.getCause() instanceof IllegalArgumentException
+    }
+
+    def 'When the pool is busy and the queue is full' () {
+
+        given: 'a running transform that cannot finish until released and a queued one'
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def blocker = new LinearSystem(new Matrix([[1.0d]]), new Matrix([[1.0d]])) {
+            @Override
+            Matrix getRhs() {
+                started.countDown()
+                release.await()
+                return super.getRhs()
+            }
+        }
+        def running = solver.gaussJordanTransform(blocker)
+        started.await()
+        def queued = solver.gaussJordanTransform(system)
+
+        when:
+        def refused = solver.gaussJordanTransform(system)
+        release.countDown()
+
+        then: 'the next request should be refused immediately while the others complete'
+        refused.isCompletedExceptionally()
+        refused.handle { result, failure -> failure } .get() instanceof RejectedExecutionException
+        running.get(10, TimeUnit.SECONDS) != null
+        queued.get(10, TimeUnit.SECONDS) != null
+    }
+
+    def 'When cancelling a queued transform' () {
+
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def blocker = new LinearSystem(new Matrix([[1.0d]]), new Matrix([[1.0d]])) {
+            @Override
+            Matrix getRhs() {
+                started.countDown()
+                release.await()
+                return super.getRhs()
+            }
+        }
+        solver.gaussJordanTransform(blocker)
+        started.await()
+        def queued = solver.gaussJordanTransform(system)
+
+        when:
+        queued.cancel(false)
+        def admitted = solver.gaussJordanTransform(system)
+        release.countDown()
+
+        then: 'it should give up its place in the queue'
+        queued.isCancelled()
+        admitted.get(10, TimeUnit.SECONDS) != null
+    }
+
+    def 'When a transform misses its deadline' () {
+
+        when:
+        def future = solver.gaussJordanTransform(large, Duration.ofMillis(1))
+        future.get(10, TimeUnit.SECONDS)
+
+        then: 'the future should fail with a timeout.'
+        def e = thrown(ExecutionException)
+        e.getCause() instanceof TimeoutException
+    }
+
+    def 'When cancelling a running transform' () {
+
+        given: 'a large transform held on its thread until it has been cancelled'
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def held = new LinearSystem(large.getLhs(), large.getRhs()) {
+            @Override
+            Matrix getRhs() {
+                started.countDown()
+                release.await()
+                return super.getRhs()
+            }
+        }
+        def future = solver.gaussJordanTransform(held)
+        started.await()
+
+        when:
+        def cancelled = future.cancel(true)
+        release.countDown()
+        def next = solver.gaussJordanTransform(system)
+
+        then: 'the transform should stop before its first elimination step and release the pool for the next one'
+        cancelled
+        future.isCancelled()
+        next.get(10, TimeUnit.SECONDS) != null
+    }
+
+    def 'When closing the solver' () {
+
+        when:
+        solver.close()
+        def future = solver.gaussJordanTransform(system)
+
+        then: 'further transforms should be refused'
+        future.isCompletedExceptionally()
+    }
+
+    def 'When the solver is closed while a transform with a deadline is submitted' () {
+
+        given: 'a solver whose deadlines are no longer accepted but whose pool still is, as when close races a submission'
+        solver.@timer.shutdownNow()
+
+        when:
+        def future = solver.gaussJordanTransform(large, Duration.ofSeconds(10))
+        future.get(10, TimeUnit.SECONDS)
+
+        then: 'the future should fail with the rejection rather than the submission throwing it'
+        def e = thrown(ExecutionException)
+        e.getCause() instanceof RejectedExecutionException
+    }
+
+    def 'When cancelling the transform of a system directly' () {
+
+        when:
+        LinearSystem.gaussJordanTransform(system, { true })
+
+        then: 'a cancellation exception should be thrown.'
+        thrown CancellationException
+    }
+}
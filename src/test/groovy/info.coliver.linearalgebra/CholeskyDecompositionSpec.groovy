@@ -0,0 +1,79 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class CholeskyDecompositionSpec extends Specification {
+
+    static Matrix positiveDefinite(Random random, int n) {
+        def a = (0..<n).collect { (0..<n).collect { random.nextGaussian() } }
+        return new Matrix((0..<n).collect { j -> (0..<n).collect { i -> (0..<n).sum { k -> a[i][k] * a[j][k] } + (i == j ? 1.0d : 0.0d) } })
+    }
+
+    static double error(CholeskyDecomposition cholesky, Matrix matrix) {
+        def l = cholesky.getL().getComponents()
+        def n = cholesky.getSize()
+        return (0..<n).collect { j -> (0..<n).collect { i -> Math.abs((0..<n).sum { k -> l[k][i] * l[k][j] } - matrix.getComponents().get(j).get(i)) }.max() }.max()
+    }
+
+    def 'When decomposing a non square or indefinite matrix' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        def wide = new Matrix([[a,a], [a,a], [a,a]])
+        def indefinite = new Matrix([[a,b], [b,a]])
+
+        expect: 'the return of an empty optional'
+        CholeskyDecomposition.decompose(null) == Optional.empty()
+        CholeskyDecomposition.decompose(wide) == Optional.empty()
+        CholeskyDecomposition.decompose(indefinite) == Optional.empty()
+    }
+
+    def 'The factor reproduces the matrix and solves the system' () {
+
+        given:
+        def random = new Random(1)
+        def matrix = positiveDefinite(random, 10)
+        def rhs = new Matrix([(0..<10).collect { random.nextGaussian() }])
+
+        when:
+        def cholesky = CholeskyDecomposition.decompose(matrix).get()
+        def x = cholesky.solve(rhs).get().getComponents().get(0)
+
+        then:
+        error(cholesky, matrix) < 1e-12d
+        (0..<10).every { i -> Math.abs((0..<10).sum { k -> matrix.getComponents().get(k).get(i) * x.get(k) } - rhs.getComponents().get(0).get(i)) < 1e-10d }
+    }
+
+    def 'An update and a downdate factor the matrix changed by a rank one term' () {
+
+        given:
+        def random = new Random(2)
+        def n = 12
+        def matrix = positiveDefinite(random, n)
+        def x = new Vector((0..<n).collect { random.nextGaussian() })
+        def updated = new Matrix((0..<n).collect { j -> (0..<n).collect { i -> matrix.getComponents().get(j).get(i) + x.getComponents().get(i) * x.getComponents().get(j) } })
+        def cholesky = CholeskyDecomposition.decompose(matrix).get()
+
+        when:
+        def update = cholesky.update(x).get()
+        def downdate = update.downdate(x).get()
+
+        then:
+        error(update, updated) < 1e-11d
+        error(downdate, matrix) < 1e-11d
+    }
+
+    def 'When a downdate leaves a matrix that is not positive definite' () {
+
+        given:
+        double a = 4.0
+        double b = 0.0
+        def cholesky = CholeskyDecomposition.decompose(new Matrix([[a,b], [b,a]])).get()
+
+        expect:
+        cholesky.downdate(new Vector([2.0d, 0.0d])) == Optional.empty()
+        cholesky.downdate(new Vector([1.0d])) == Optional.empty()
+        cholesky.downdate(new Vector([1.0d, 1.0d])).isPresent()
+    }
+}
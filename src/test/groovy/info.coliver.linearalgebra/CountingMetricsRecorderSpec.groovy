@@ -0,0 +1,187 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.management.ObjectName
+import java.lang.management.ManagementFactory
+
+class CountingMetricsRecorderSpec extends Specification {
+
+    @Shared recorder
+    @Shared matrix
+
+    def setup() {
+
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+        double d = 4.0
+        recorder = new CountingMetricsRecorder()
+        matrix = new Matrix([[a,c], [b,d]])
+    }
+
+    def cleanup() {
+        Metrics.setRecorder(null)
+    }
+
+    def 'When no recorder is installed' () {
+
+        when:
+        Metrics.setRecorder(null)
+
+        then: 'measurement should be disabled.'
+        !Metrics.isEnabled()
+        Metrics.start() == 0L
+    }
+
+    def 'When multiplying matrices with a recorder installed' () {
+
+        when:
+        Metrics.setRecorder(recorder)
+        Matrix.matrixMultiplication(matrix, matrix)
+        Matrix.matrixMultiplication(matrix, matrix)
+        Metrics.setRecorder(null)
+
+        then: 'the calls and documented floating point operations should be counted.'
+        recorder.getCalls().get('Matrix.matrixMultiplication') == 2L
+        recorder.getFloatingPointOperations().get('Matrix.matrixMultiplication') == 32L
+        recorder.getBytes().get('Matrix.matrixMultiplication') > 0L
+        recorder.getAllocations().get('Matrix.matrixMultiplication') > 0L
+        recorder.latencyHistogram('Matrix.matrixMultiplication').sum() == 2L
+    }
+
+    def 'When solving a linear system with a recorder installed' () {
+
+        when:
+        double e = 1.0
+        Metrics.setRecorder(recorder)
+        LinearSystem.gaussJordanTransform(new LinearSystem(matrix, new Matrix([[e, e]])))
+        Metrics.setRecorder(null)
+
+        then: 'the elimination steps should be counted as iterations.'
+        recorder.getCalls().get('LinearSystem.gaussJordanTransform') == 1L
+        recorder.getIterations().get('LinearSystem.gaussJordanTransform') == 2L
+    }
+
+    def 'When evaluating an expression with a recorder installed' () {
+
+        when:
+        Metrics.setRecorder(recorder)
+        MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(MatrixExpression.of(matrix), MatrixExpression.of(matrix)))
+        Metrics.setRecorder(null)
+
+        then: 'the floating point operations of the product should be counted.'
+        recorder.getFloatingPointOperations().get('MatrixExpression.evaluate') == 16L
+    }
+
+    def 'When a decomposition fails with a recorder installed' () {
+
+        given: 'a ragged matrix and a matrix that is not positive definite'
+        double a = 1.0
+        double b = 2.0
+        def ragged = new Matrix([[a,b], [a]])
+
+        when:
+        Metrics.setRecorder(recorder)
+        QRDecomposition.decompose(ragged)
+        CholeskyDecomposition.decompose(matrix)
+        SingularValueDecomposition.truncated(ragged, 1)
+        LUDecomposition.decompose(ragged)
+        CholeskyDecomposition.decompose(new Matrix([[b,a], [a,b]]))
+        Metrics.setRecorder(null)
+
+        then: 'only the decomposition that succeeded should be counted.'
+        recorder.getCalls().get('QRDecomposition.decompose') == null
+        recorder.getCalls().get('SingularValueDecomposition.truncated') == null
+        recorder.getCalls().get('LUDecomposition.decompose') == null
+        recorder.getCalls().get('CholeskyDecomposition.decompose') == 1L
+    }
+
+    def 'When applying element-wise operations with a recorder installed' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        def vector = new Vector([a, b])
+        def sum = { x, y -> x + y } as java.util.function.DoubleBinaryOperator
+
+        when:
+        Metrics.setRecorder(recorder)
+        Vector.map(vector, { x -> -x } as java.util.function.DoubleUnaryOperator)
+        Vector.zipWith(vector, vector, sum, Execution.PARALLEL)
+        Vector.hadamardProduct(vector, vector)
+        Vector.reduce(vector, 0.0d, sum, Execution.VECTORIZED)
+        Matrix.hadamardProduct(matrix, matrix)
+        Matrix.reduce(new Matrix([[a,b], [a]]), 0.0d, sum)
+        Metrics.setRecorder(null)
+
+        then: 'vector and matrix operations should be counted alike, and only when they succeed.'
+        recorder.getCalls().get('Vector.map') == 1L
+        recorder.getCalls().get('Vector.zipWith') == 1L
+        recorder.getFloatingPointOperations().get('Vector.hadamardProduct') == 2L
+        recorder.getCalls().get('Vector.reduce') == 1L
+        recorder.getFloatingPointOperations().get('Matrix.hadamardProduct') == 4L
+        recorder.getCalls().get('Matrix.reduce') == null
+    }
+
+    def 'When recording operations after the recorder is removed' () {
+
+        when:
+        Metrics.setRecorder(recorder)
+        Metrics.setRecorder(null)
+        Matrix.matrixMultiplication(matrix, matrix)
+
+        then: 'nothing should be recorded.'
+        recorder.getCalls().isEmpty()
+    }
+
+    def 'When a recorder is installed while an operation runs' () {
+
+        given: 'a function that installs the recorder part way through a map'
+        def install = { x -> Metrics.setRecorder(recorder); x } as java.util.function.DoubleUnaryOperator
+
+        when:
+        Matrix.map(matrix, install)
+        Metrics.setRecorder(null)
+        Vector.map(new Vector([1.0d, 2.0d]), install)
+        Metrics.setRecorder(null)
+
+        then: 'operations started without a recorder should not be recorded with a bogus duration.'
+        recorder.getCalls().isEmpty()
+    }
+
+    def 'When recording a latency' () {
+
+        when:
+        recorder.recordOperation('operation', 0L, 0L, 0L, 1000L)
+
+        then: 'it should fall into the bucket of its power of two.'
+        recorder.latencyHistogram('operation')[10] == 1L
+        recorder.latencyHistogram('unknown').sum() == 0L
+    }
+
+    def 'When resetting the recorder' () {
+
+        when:
+        recorder.recordOperation('operation', 1L, 1L, 1L, 1L)
+        recorder.recordIterations('solver', 3L)
+        recorder.reset()
+
+        then: 'every counter should be cleared.'
+        recorder.getCalls().isEmpty()
+        recorder.getIterations().isEmpty()
+    }
+
+    def 'When reading the recorder over JMX' () {
+
+        when:
+        ObjectName name = recorder.register()
+        recorder.recordIterations('solver', 3L)
+        def iterations = ManagementFactory.getPlatformMBeanServer().getAttribute(name, 'Iterations')
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name)
+
+        then: 'the counters should be exported.'
+        iterations.get(['solver'] as Object[]).get('value') == 3L
+    }
+}
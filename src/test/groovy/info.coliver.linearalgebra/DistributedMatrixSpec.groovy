@@ -0,0 +1,176 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class DistributedMatrixSpec extends Specification {
+
+    def workers = []
+    def processes = []
+    def cluster
+
+    def cleanup() {
+        cluster?.close()
+        workers*.close()
+        processes*.destroy()
+    }
+
+    static Matrix gaussian(Random random, int height, int width) {
+        return new Matrix((0..<width).collect { (0..<height).collect { random.nextGaussian() } })
+    }
+
+    static Matrix expected(Matrix a, Matrix b) {
+        return ImmutableMatrix.matrixMultiplication(ImmutableMatrix.of(a).get(), ImmutableMatrix.of(b).get()).get().toMatrix()
+    }
+
+    static double difference(Matrix a, Matrix b) {
+        return (0..<a.getComponents().size()).collect { j ->
+            (0..<a.getComponents().get(0).size()).collect { i -> Math.abs(a.getComponents().get(j).get(i) - b.getComponents().get(j).get(i)) }.max()
+        }.max()
+    }
+
+    def 'A matrix survives the binary format unchanged' () {
+
+        given:
+        def matrix = gaussian(new Random(1), 3, 4)
+
+        when:
+        def buffer = MatrixFormat.encode(matrix).get()
+
+        then:
+        buffer.remaining() == 16 + 8 * 12
+        buffer.isDirect()
+        MatrixFormat.decode(buffer).get().getComponents() == matrix.getComponents()
+        !buffer.hasRemaining()
+        MatrixFormat.decode(java.nio.ByteBuffer.allocate(8)) == Optional.empty()
+    }
+
+    def 'A matrix is distributed block-cyclically and gathered back' () {
+
+        given:
+        4.times { workers << new MatrixWorker(0); workers.last().start() }
+        cluster = MatrixCluster.connect(workers*.getAddress(), 2, 2)
+        def matrix = gaussian(new Random(2), 11, 7)
+
+        when:
+        def distributed = DistributedMatrix.distribute(cluster, matrix, 3).get()
+
+        then:
+        distributed.getBlockRows() == 4
+        distributed.getBlockColumns() == 3
+        cluster.owner(3, 2) == 2
+        distributed.gather().getComponents() == matrix.getComponents()
+        DistributedMatrix.distribute(cluster, matrix, 0) == Optional.empty()
+    }
+
+    def 'SUMMA on a two by two grid of workers computes the product' () {
+
+        given:
+        4.times { workers << new MatrixWorker(0); workers.last().start() }
+        cluster = MatrixCluster.connect(workers*.getAddress(), 2, 2)
+        def random = new Random(3)
+        def a = gaussian(random, 13, 10)
+        def b = gaussian(random, 10, 9)
+
+        when:
+        def product = DistributedMatrix.multiply(DistributedMatrix.distribute(cluster, a, 4).get(), DistributedMatrix.distribute(cluster, b, 4).get()).get()
+
+        then:
+        product.getHeight() == 13
+        product.getWidth() == 9
+        difference(product.gather(), expected(a, b)) < 1e-12d
+        DistributedMatrix.multiply(DistributedMatrix.distribute(cluster, a, 4).get(), DistributedMatrix.distribute(cluster, a, 4).get()) == Optional.empty()
+    }
+
+    def 'SUMMA runs across worker processes' () {
+
+        given: 'two workers, each in a JVM of its own'
+        def java = System.getProperty('java.home') + '/bin/java'
+        def ports = (0..<2).collect {
+            def process = new ProcessBuilder(java, '-cp', System.getProperty('java.class.path'), MatrixWorker.name).start()
+            processes << process
+            new BufferedReader(new InputStreamReader(process.getInputStream())).readLine() as int
+        }
+        cluster = MatrixCluster.connect(ports.collect { new InetSocketAddress(InetAddress.getLoopbackAddress(), it) }, 1, 2)
+        def random = new Random(4)
+        def a = gaussian(random, 9, 12)
+        def b = gaussian(random, 12, 5)
+
+        when:
+        def product = DistributedMatrix.multiply(DistributedMatrix.distribute(cluster, a, 5).get(), DistributedMatrix.distribute(cluster, b, 5).get()).get()
+
+        then:
+        difference(product.gather(), expected(a, b)) < 1e-12d
+    }
+
+    def 'A worker holds no panels or acknowledgements once a multiplication is done' () {
+
+        given: 'a one by three grid, so that every step broadcasts panels of a along the whole grid'
+        3.times { workers << new MatrixWorker(0); workers.last().start() }
+        cluster = MatrixCluster.connect(workers*.getAddress(), 1, 3)
+        def random = new Random(5)
+        def a = gaussian(random, 10, 20)
+        def b = gaussian(random, 20, 10)
+
+        when:
+        def product = DistributedMatrix.multiply(DistributedMatrix.distribute(cluster, a, 2).get(), DistributedMatrix.distribute(cluster, b, 2).get()).get()
+
+        then:
+        difference(product.gather(), expected(a, b)) < 1e-12d
+        workers.every { it.@panels.isEmpty() && it.@acknowledgements.isEmpty() }
+    }
+
+    def 'Concurrent operations on one cluster do not read each other\'s replies' () {
+
+        given:
+        4.times { workers << new MatrixWorker(0); workers.last().start() }
+        cluster = MatrixCluster.connect(workers*.getAddress(), 2, 2)
+        def random = new Random(6)
+        def a = gaussian(random, 9, 8)
+        def b = gaussian(random, 8, 7)
+        def left = DistributedMatrix.distribute(cluster, a, 3).get()
+        def right = DistributedMatrix.distribute(cluster, b, 3).get()
+        def differences = Collections.synchronizedList([])
+
+        when:
+        def threads = (0..<4).collect {
+            Thread.start {
+                5.times {
+                    differences << difference(DistributedMatrix.multiply(left, right).get().gather(), expected(a, b))
+                    differences << difference(left.gather(), a)
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        differences.size() == 40
+        differences.every { it < 1e-12d }
+    }
+
+    def 'A failed operation leaves the cluster usable' () {
+
+        given:
+        4.times { workers << new MatrixWorker(0); workers.last().start() }
+        cluster = MatrixCluster.connect(workers*.getAddress(), 2, 2)
+        def matrix = gaussian(new Random(7), 7, 7)
+        def freed = DistributedMatrix.distribute(cluster, matrix, 2).get()
+        def kept = DistributedMatrix.distribute(cluster, matrix, 3).get()
+        freed.close()
+
+        when:
+        freed.gather()
+
+        then: 'the failure is reported once every reply has been read'
+        thrown UncheckedIOException
+        kept.gather().getComponents() == matrix.getComponents()
+    }
+
+    def 'When connecting to a grid that does not match the workers' () {
+
+        when:
+        MatrixCluster.connect([], 1, 1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,129 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class FactorizationCacheSpec extends Specification {
+
+    @Shared matrix
+    @Shared other
+
+    def setup() {
+
+        double a = 4.0
+        double b = 3.0
+        double c = 6.0
+        double d = 1.0
+        matrix = new Matrix([[a,c], [b,b]])
+        other = new Matrix([[a,c], [b,d]])
+    }
+
+    def 'Given a non positive size to the constructor' () {
+
+        when:
+        new FactorizationCache(0)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When the same left hand side is solved repeatedly' () {
+
+        given:
+        def cache = new FactorizationCache(1 << 20)
+        double e = 7.0
+        double f = 9.0
+        def system = new LinearSystem(matrix, new Matrix([[e,f]]))
+
+        when:
+        def first = cache.solve(system).get()
+        def second = cache.solve(new LinearSystem(new Matrix([[4.0d, 6.0d], [3.0d, 3.0d]]), new Matrix([[e,f]]))).get()
+
+        then: 'the second solve should reuse the factorization of an equal matrix'
+        cache.getMisses() == 1L
+        cache.getHits() == 1L
+        cache.getSize() == 1
+        first.getRhs().getComponents() == second.getRhs().getComponents()
+        first.getRhs().getComponents() == LinearSystem.solve(system, LUDecomposition.PivotStrategy.PARTIAL).get().getRhs().getComponents()
+        cache.decompose(matrix).get().is(cache.decompose(matrix).get())
+    }
+
+    def 'Matrices of equal size but different components are cached apart' () {
+
+        given:
+        def cache = new FactorizationCache(1 << 20)
+
+        when:
+        def a = cache.decompose(matrix).get()
+        def b = cache.decompose(other).get()
+        def rook = cache.decompose(matrix, LUDecomposition.PivotStrategy.ROOK).get()
+
+        then:
+        !a.is(b)
+        !a.is(rook)
+        cache.getMisses() == 3L
+        cache.getSize() == 3
+    }
+
+    def 'When the cache exceeds its size the least recently used entries are evicted' () {
+
+        given: 'room for two 2 by 2 entries'
+        def entry = 8L * 4 + 128 + 8L * 4 + 12L * 2
+        def cache = new FactorizationCache(2 * entry)
+        double g = 2.0
+        def third = Matrix.scale(matrix, g).get()
+
+        when:
+        cache.decompose(matrix)
+        cache.decompose(other)
+        cache.decompose(matrix)
+        cache.decompose(third)
+
+        then: 'the entry used longest ago should have been dropped'
+        cache.getEvictions() == 1L
+        cache.getBytes() == 2 * entry
+        cache.getSize() == 2
+        cache.decompose(matrix).isPresent()
+        cache.getHits() == 2L
+        cache.decompose(other).isPresent()
+        cache.getMisses() == 4L
+    }
+
+    def 'Factorizations larger than the cache are not cached' () {
+
+        given:
+        def cache = new FactorizationCache(64)
+
+        when:
+        def lu = cache.decompose(matrix)
+
+        then:
+        lu.isPresent()
+        cache.getSize() == 0
+        cache.getBytes() == 0L
+    }
+
+    def 'When inverting through the cache' () {
+
+        given:
+        def cache = new FactorizationCache(1 << 20)
+
+        when:
+        def inverse = cache.inverse(matrix).get()
+        def product = Matrix.matrixMultiplication(matrix, inverse).get().getComponents()
+
+        then:
+        Math.abs(product.get(0).get(0) - 1.0d) < 1e-12
+        Math.abs(product.get(0).get(1)) < 1e-12
+        Math.abs(product.get(1).get(0)) < 1e-12
+        Math.abs(product.get(1).get(1) - 1.0d) < 1e-12
+        cache.inverse(new Matrix([[1.0d, 2.0d], [2.0d, 4.0d]])) == Optional.empty()
+    }
+
+    def 'The content hash distinguishes permuted components' () {
+
+        expect:
+        FactorizationCache.contentHash([1.0d, 2.0d] as double[]) != FactorizationCache.contentHash([2.0d, 1.0d] as double[])
+        FactorizationCache.contentHash([1.0d, 2.0d] as double[]) == FactorizationCache.contentHash([1.0d, 2.0d] as double[])
+    }
+}
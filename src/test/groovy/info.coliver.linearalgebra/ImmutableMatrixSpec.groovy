@@ -0,0 +1,151 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class ImmutableMatrixSpec extends Specification {
+
+    @Shared matrix
+
+    def setup() {
+
+        double a = 4.0
+        double b = 3.0
+        double c = 6.0
+        double d = 3.0
+        matrix = new Matrix([[a,c], [b,d]])
+    }
+
+    def 'Given a non positive size to the builder' () {
+
+        when:
+        ImmutableMatrix.builder(0, 2)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When copying a matrix' () {
+
+        when:
+        def immutable = ImmutableMatrix.of(matrix).get()
+        matrix.getComponents().get(0).set(0, 0.0d)
+
+        then: 'later changes to the source should not be seen'
+        immutable.get(0, 0) == 4.0d
+        immutable.get(1, 0) == 6.0d
+        immutable.getHeight() == 2
+        immutable.getWidth() == 2
+        ImmutableMatrix.of(null) == Optional.empty()
+    }
+
+    def 'When copying a null, empty, ragged or null holding matrix' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        ImmutableMatrix.of(null) == Optional.empty()
+        ImmutableMatrix.of(new Matrix(null)) == Optional.empty()
+        ImmutableMatrix.of(new Matrix([])) == Optional.empty()
+        ImmutableMatrix.of(new Matrix([[]])) == Optional.empty()
+        ImmutableMatrix.of(new Matrix([[a,a], null])) == Optional.empty()
+        ImmutableMatrix.of(new Matrix([[a,a], [a]])) == Optional.empty()
+        ImmutableMatrix.of(new Matrix([[a,a], [a,null]])) == Optional.empty()
+    }
+
+    def 'When transposing or scaling a null matrix' () {
+
+        expect: 'the return of an empty optional'
+        ImmutableMatrix.transpose(null) == Optional.empty()
+        ImmutableMatrix.scale(null, 2.0d) == Optional.empty()
+    }
+
+    def 'When transposing and scaling a matrix' () {
+
+        when:
+        def immutable = ImmutableMatrix.of(matrix).get()
+
+        then:
+        ImmutableMatrix.transpose(immutable).get().toMatrix().getComponents() == [[4.0d, 3.0d], [6.0d, 3.0d]]
+        ImmutableMatrix.scale(immutable, 2.0d).get().toMatrix().getComponents() == [[8.0d, 12.0d], [6.0d, 6.0d]]
+    }
+
+    def 'When building a matrix and changing it with copy on write' () {
+
+        when:
+        def builder = ImmutableMatrix.builder(2, 2).set(0, 0, 4.0d).set(1, 0, 6.0d).set(0, 1, 3.0d).set(1, 1, 3.0d)
+        def built = builder.build()
+        builder.set(0, 0, 1.0d)
+        def changed = built.with(1, 1, 5.0d)
+
+        then: 'neither the builder nor the change should affect the built matrix'
+        built == ImmutableMatrix.of(matrix).get()
+        built.get(0, 0) == 4.0d
+        built.get(1, 1) == 3.0d
+        changed.get(1, 1) == 5.0d
+    }
+
+    def 'When modifying the view of an immutable matrix' () {
+
+        given:
+        def view = ImmutableMatrix.of(matrix).get().asMatrix()
+
+        when:
+        view.getComponents().get(0).set(0, 1.0d)
+
+        then: 'an unsupported operation exception should be thrown.'
+        thrown UnsupportedOperationException
+    }
+
+    def 'When passing the view of an immutable matrix to the operations of Matrix' () {
+
+        given:
+        def immutable = ImmutableMatrix.of(matrix).get()
+
+        expect: 'the results equal those of the mutable matrix'
+        Matrix.matrixMultiplication(immutable.asMatrix(), immutable.asMatrix()).get().getComponents() == Matrix.matrixMultiplication(matrix, matrix).get().getComponents()
+        Matrix.transpose(immutable.asMatrix()).get().getComponents() == Matrix.transpose(matrix).get().getComponents()
+    }
+
+    def 'When solving a system with an immutable left hand side' () {
+
+        given:
+        def lhs = ImmutableMatrix.of(matrix).get()
+        def rhs = ImmutableMatrix.builder(2, 1).set(0, 0, 7.0d).set(1, 0, 9.0d).build()
+
+        when:
+        def solution = ImmutableMatrix.solve(lhs, rhs).get()
+        def product = ImmutableMatrix.matrixMultiplication(lhs, solution).get()
+
+        then: 'the solution should satisfy the system and the operands should be unchanged'
+        Math.abs(product.get(0, 0) - 7.0d) < 1e-12
+        Math.abs(product.get(1, 0) - 9.0d) < 1e-12
+        lhs == ImmutableMatrix.of(matrix).get()
+        ImmutableMatrix.solve(lhs, ImmutableMatrix.transpose(rhs).get()) == Optional.empty()
+    }
+
+    def 'When many threads read a shared operator' () {
+
+        given:
+        def n = 32
+        def random = new Random(3)
+        def builder = ImmutableMatrix.builder(n, n)
+        (0..<n).each { j -> (0..<n).each { i -> builder.set(i, j, random.nextGaussian() + (i == j ? n : 0)) } }
+        def shared = builder.build()
+        def x = ImmutableMatrix.builder(n, 1).set(0, 0, 1.0d).build()
+        def rhs = ImmutableMatrix.matrixMultiplication(shared, x).get()
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (0..<64).collect { executor.submit({ ImmutableMatrix.solve(shared, rhs).get() } as Callable) }
+        def solutions = futures.collect { it.get() }
+        executor.shutdown()
+
+        then: 'every thread should see the same operator'
+        solutions.every { solution -> (0..<n).every { i -> Math.abs(solution.get(i, 0) - x.get(i, 0)) < 1e-12 } }
+    }
+}
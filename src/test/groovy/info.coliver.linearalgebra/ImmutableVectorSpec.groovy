@@ -0,0 +1,58 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class ImmutableVectorSpec extends Specification {
+
+    def 'Given a non positive size to the builder' () {
+
+        when:
+        ImmutableVector.builder(0)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When copying a vector and changing it with copy on write' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        def vector = new Vector([a, b])
+
+        when:
+        def immutable = ImmutableVector.of(vector).get()
+        vector.getComponents().set(0, 5.0d)
+        def changed = immutable.with(1, 3.0d)
+
+        then: 'neither change should be seen by the copy'
+        immutable.get(0) == 1.0d
+        immutable.get(1) == 2.0d
+        changed.get(1) == 3.0d
+        ImmutableVector.of(null) == Optional.empty()
+    }
+
+    def 'When modifying the view of an immutable vector' () {
+
+        when:
+        ImmutableVector.builder(2).build().asVector().getComponents().set(0, 1.0d)
+
+        then: 'an unsupported operation exception should be thrown.'
+        thrown UnsupportedOperationException
+    }
+
+    def 'When combining immutable vectors' () {
+
+        given:
+        def a = ImmutableVector.builder(2).set(0, 1.0d).set(1, 2.0d).build()
+        def b = ImmutableVector.builder(2).set(0, 3.0d).set(1, 4.0d).build()
+
+        expect:
+        ImmutableVector.add(a, b).get() == ImmutableVector.builder(2).set(0, 4.0d).set(1, 6.0d).build()
+        ImmutableVector.subtract(b, a).get() == ImmutableVector.builder(2).set(0, 2.0d).set(1, 2.0d).build()
+        ImmutableVector.scale(a, 2.0d).get() == ImmutableVector.builder(2).set(0, 2.0d).set(1, 4.0d).build()
+        ImmutableVector.dotProduct(a, b).get() == 11.0d
+        ImmutableVector.dotProduct(a, ImmutableVector.builder(3).build()) == Optional.empty()
+        a.toVector().getComponents() == [1.0d, 2.0d]
+    }
+}
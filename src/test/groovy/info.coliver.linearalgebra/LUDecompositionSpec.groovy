@@ -0,0 +1,162 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class LUDecompositionSpec extends Specification {
+
+    def 'When decomposing a null or non square matrix' () {
+
+        given:
+        double a = 1.0
+        def wide = new Matrix([[a,a], [a,a], [a,a]])
+
+        expect: 'the return of an empty optional'
+        LUDecomposition.decompose(null) == Optional.empty()
+        LUDecomposition.decompose(wide) == Optional.empty()
+    }
+
+    def 'When decomposing a singular matrix' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        def singular = new Matrix([[a,b], [b,b * b]])
+
+        expect: 'the return of an empty optional'
+        LUDecomposition.decompose(singular, LUDecomposition.PivotStrategy.PARTIAL) == Optional.empty()
+        LUDecomposition.decompose(singular, LUDecomposition.PivotStrategy.ROOK) == Optional.empty()
+    }
+
+    def 'When decomposing a matrix holding a NaN with rook pivoting' () {
+
+        given: 'a NaN at the first pivot and a NaN that the rook search meets in a row'
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+        double nan = Double.NaN
+        def first = new Matrix([[nan,a], [b,c]])
+        def later = new Matrix([[a,nan], [b,c]])
+
+        expect: 'the search should end and the return be an empty optional'
+        LUDecomposition.decompose(first, LUDecomposition.PivotStrategy.ROOK) == Optional.empty()
+        LUDecomposition.decompose(later, LUDecomposition.PivotStrategy.ROOK) == Optional.empty()
+        LUDecomposition.decompose(first, LUDecomposition.PivotStrategy.PARTIAL) == Optional.empty()
+        LinearSystem.solve(new LinearSystem(later, new Matrix([[a,a]])), LUDecomposition.PivotStrategy.ROOK) == Optional.empty()
+    }
+
+    def 'The factors reproduce the permuted matrix and solve the system' () {
+
+        given:
+        def n = 12
+        def random = new Random(7)
+        def matrix = new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })
+        def rhs = new Matrix([(0..<n).collect { random.nextGaussian() }])
+
+        expect: 'P A Q = L U and A x = b for both strategies'
+        LUDecomposition.PivotStrategy.values().each { strategy ->
+            def lu = LUDecomposition.decompose(matrix, strategy).get()
+            def product = Matrix.matrixMultiplication(lu.getL(), lu.getU()).get().getComponents()
+            def rows = lu.getRowPermutation()
+            def columns = lu.getColumnPermutation()
+            def x = lu.solve(rhs).get().getComponents().get(0)
+            (0..<n).each { j ->
+                (0..<n).each { i ->
+                    assert Math.abs(product.get(j).get(i) - matrix.getComponents().get(columns.get(j)).get(rows.get(i))) < 1e-12
+                }
+            }
+            (0..<n).each { i ->
+                double component = (0..<n).sum { k -> matrix.getComponents().get(k).get(i) * x.get(k) }
+                assert Math.abs(component - rhs.getComponents().get(0).get(i)) < 1e-10
+            }
+        }
+    }
+
+    def 'The condition number of a diagonal matrix is estimated exactly' () {
+
+        given:
+        double a = 1.0
+        double b = 1e-8
+        double c = 0.0
+        def matrix = new Matrix([[a,c], [c,b]])
+
+        expect:
+        Math.abs(LUDecomposition.decompose(matrix).get().getConditionNumber() - 1e8) < 1e-4
+    }
+
+    def 'The condition number of an ill conditioned matrix is estimated closely' () {
+
+        given: 'the 6 by 6 Hilbert matrix whose 1-norm condition number is 2.907e7'
+        def hilbert = new Matrix((0..<6).collect { j -> (0..<6).collect { i -> 1.0d / (i + j + 1) } })
+
+        when:
+        def estimate = LUDecomposition.decompose(hilbert).get().getConditionNumber()
+
+        then:
+        estimate <= 2.91e7
+        estimate >= 2.907e7 / 3
+    }
+
+    def 'Partial pivoting grows exponentially on the Wilkinson matrix while rook pivoting does not' () {
+
+        given:
+        def n = 10
+        def wilkinson = new Matrix((0..<n).collect { j -> (0..<n).collect { i -> j == n - 1 || i == j ? 1.0d : (i > j ? -1.0d : 0.0d) } })
+
+        expect:
+        LUDecomposition.decompose(wilkinson, LUDecomposition.PivotStrategy.PARTIAL).get().getPivotGrowth() == 512.0
+        LUDecomposition.decompose(wilkinson, LUDecomposition.PivotStrategy.ROOK).get().getPivotGrowth() < 512.0
+    }
+
+    def 'An update factors the matrix changed by a rank one term' () {
+
+        given:
+        def n = 15
+        def random = new Random(17)
+        def matrix = new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })
+        def u = new Vector((0..<n).collect { random.nextGaussian() })
+        def v = new Vector((0..<n).collect { random.nextGaussian() })
+        def updated = new Matrix((0..<n).collect { j -> (0..<n).collect { i -> matrix.getComponents().get(j).get(i) + u.getComponents().get(i) * v.getComponents().get(j) } })
+        def rhs = new Matrix([(0..<n).collect { random.nextGaussian() }])
+
+        when:
+        def x = LUDecomposition.decompose(matrix).get().update(u, v).get().solve(rhs).get().getComponents().get(0)
+        def expected = LUDecomposition.decompose(updated).get().solve(rhs).get().getComponents().get(0)
+
+        then:
+        (0..<n).every { Math.abs(x.get(it) - expected.get(it)) < 1e-9d }
+        LUDecomposition.decompose(matrix).get().update(u, new Vector([1.0d])) == Optional.empty()
+    }
+
+    def 'When an update makes the matrix singular' () {
+
+        given: 'the identity, which loses its first column when e1 e1^T is subtracted'
+        double a = 1.0
+        double b = 0.0
+        def lu = LUDecomposition.decompose(new Matrix([[a,b], [b,a]])).get()
+
+        expect:
+        lu.update(new Vector([-1.0d, 0.0d]), new Vector([1.0d, 0.0d])) == Optional.empty()
+        lu.solve(new Matrix([[-1.0d, 0.0d]]), new Matrix([[1.0d, 0.0d]]), new Matrix([[1.0d, 1.0d]])) == Optional.empty()
+    }
+
+    def 'The Sherman-Morrison-Woodbury solve matches a new factorization' () {
+
+        given: 'an update of rank three'
+        def n = 20
+        def k = 3
+        def random = new Random(19)
+        def matrix = new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })
+        def u = new Matrix((0..<k).collect { (0..<n).collect { random.nextGaussian() } })
+        def v = new Matrix((0..<k).collect { (0..<n).collect { random.nextGaussian() } })
+        def updated = new Matrix((0..<n).collect { j -> (0..<n).collect { i ->
+            matrix.getComponents().get(j).get(i) + (0..<k).sum { c -> u.getComponents().get(c).get(i) * v.getComponents().get(c).get(j) } } })
+        def rhs = new Matrix((0..<2).collect { (0..<n).collect { random.nextGaussian() } })
+
+        when:
+        def x = LUDecomposition.decompose(matrix).get().solve(u, v, rhs).get().getComponents()
+        def expected = LUDecomposition.decompose(updated).get().solve(rhs).get().getComponents()
+
+        then:
+        (0..<2).every { c -> (0..<n).every { Math.abs(x.get(c).get(it) - expected.get(c).get(it)) < 1e-9d } }
+    }
+}
@@ -173,4 +173,155 @@ class LinearSystemSpec extends Specification {
         assert solvedLs.get().getLhs().getComponents() == [[b,a,a], [a,b,a], [a,a,b]]
         assert solvedLs.get().getRhs().getComponents() == [[-b,-c,b], [c,b,-c]]
     }
+
+    def 'When passing a null argument to solve' () {
+
+        expect: 'the return of an empty optional'
+        assert LinearSystem.solve(null, LUDecomposition.PivotStrategy.PARTIAL) == Optional.empty()
+    }
+
+    def 'When solving a system which requires pivoting by magnitude' () {
+
+        given:
+        double a = 0.0
+        double b = 1.0
+        double c = 2.0
+        double f = 4.0
+        double g = 8.0
+        double h = 6.0
+        lhs = new Matrix([[a,f,h], [f,g,-f], [-c,h,c]])
+        rhs = new Matrix([[c,b,-c]])
+        ls = new LinearSystem(lhs, rhs)
+
+        when: 'the system is solved with partial pivoting'
+        solvedLs = LinearSystem.solve(ls, LUDecomposition.PivotStrategy.PARTIAL)
+
+        then: 'the solution is reported along with the pivot, pivot growth and condition number'
+        assert solvedLs.get().getLhs().getComponents() == [[b,a,a], [a,b,a], [a,a,b]]
+        def x = solvedLs.get().getRhs().getComponents().get(0)
+        (0..<3).each { i ->
+            double component = (0..<3).sum { k -> lhs.getComponents().get(k).get(i) * x.get(k) }
+            assert Math.abs(component - rhs.getComponents().get(0).get(i)) < 1e-12
+        }
+        assert solvedLs.get().getPivot().getComponents() == [c, a, a]
+        assert solvedLs.get().getPivotGrowth() >= 1.0
+        assert solvedLs.get().getConditionNumber() >= 1.0
+    }
+
+    def 'When solving a nearly singular system' () {
+
+        given:
+        double a = 1.0
+        double b = 1.0 + 1e-12
+        lhs = new Matrix([[a,a], [a,b]])
+        rhs = new Matrix([[a,a]])
+        ls = new LinearSystem(lhs, rhs)
+
+        when: 'the system is solved with rook pivoting'
+        solvedLs = LinearSystem.solve(ls, LUDecomposition.PivotStrategy.ROOK)
+
+        then: 'the condition number flags the system'
+        assert solvedLs.get().getConditionNumber() > 1e12
+    }
+
+    def 'When rook pivoting interchanges columns' () {
+
+        given: 'a system whose largest entry in the first row lies in its second column'
+        double a = 1.0
+        double b = 0.0
+        double c = 5.0
+        double d = 2.0
+        ls = new LinearSystem(new Matrix([[a,b], [c,d]]), new Matrix([[a,a]]))
+
+        when:
+        def rook = LinearSystem.solve(ls, LUDecomposition.PivotStrategy.ROOK).get()
+        def partial = LinearSystem.solve(ls, LUDecomposition.PivotStrategy.PARTIAL).get()
+
+        then: 'the column interchange is reported beside the row interchanges and the solutions agree'
+        rook.getColumnPermutation().get() == [1, 0]
+        rook.getPivot().getComponents().size() == 2
+        !partial.getColumnPermutation().isPresent()
+        (0..<2).every { Math.abs(rook.getRhs().getComponents().get(0).get(it) - partial.getRhs().getComponents().get(0).get(it)) < 1e-15 }
+    }
+
+    def 'When transforming a system which requires pivoting the input system is left unchanged' () {
+
+        given:
+        double a = 0.0
+        double c = 2.0
+        double f = 4.0
+        double g = 8.0
+        double h = 6.0
+        lhs = new Matrix([[a,f,h], [f,g,-f], [-c,h,c]])
+        rhs = new Matrix([[c,a,a]])
+        ls = new LinearSystem(lhs, rhs)
+
+        when: 'the system undergoes Gauss-Jordan transformation'
+        solvedLs = LinearSystem.gaussJordanTransform(ls)
+
+        then: 'neither the right hand side nor the pivot of the input should have been modified'
+        assert ls.getRhs().getComponents() == [[c,a,a]]
+        assert ls.getPivot().getComponents() == [a,a,a]
+        assert solvedLs.get().getPivot().getComponents() == [1.0d,a,a]
+    }
+
+    def 'When solving a primitive system repeatedly with a workspace' () {
+
+        given:
+        def workspace = new Workspace()
+        double[] lhs = [4.0d, 6.0d, 3.0d, 3.0d]
+        double[] rhs = new double[2]
+
+        when:
+        def solved = (0..<10).collect {
+            rhs[0] = 7.0d
+            rhs[1] = 9.0d
+            LinearSystem.solve(lhs, rhs, 2, 1, workspace)
+        }
+
+        then: 'the right hand side should hold the solution and the workspace should not grow after the first solve'
+        solved.every()
+        Math.abs(4.0d * rhs[0] + 3.0d * rhs[1] - 7.0d) < 1e-12
+        Math.abs(6.0d * rhs[0] + 3.0d * rhs[1] - 9.0d) < 1e-12
+        lhs == [4.0d, 6.0d, 3.0d, 3.0d] as double[]
+        workspace.getBytes() == 8L * (4 + 2) + 4L * 3 * 2
+    }
+
+    def 'When solving a primitive system repeatedly with the workspace of the thread' () {
+
+        given:
+        double[] lhs = [4.0d, 6.0d, 3.0d, 3.0d]
+        double[] rhs = new double[2]
+        def bytes = []
+
+        when: 'solving on a fresh thread'
+        Thread.start {
+            10.times {
+                rhs[0] = 7.0d
+                rhs[1] = 9.0d
+                LinearSystem.solve(lhs, rhs, 2, 1)
+                bytes << Workspace.local().getBytes()
+            }
+        }.join()
+
+        then: 'the right hand side should hold the solution and the workspace should not grow after the first solve'
+        Math.abs(4.0d * rhs[0] + 3.0d * rhs[1] - 7.0d) < 1e-12
+        Math.abs(6.0d * rhs[0] + 3.0d * rhs[1] - 9.0d) < 1e-12
+        bytes.unique() == [8L * (4 + 2) + 4L * 3 * 2]
+    }
+
+    def 'When solving a singular primitive system' () {
+
+        expect: 'the solve should report failure'
+        !LinearSystem.solve([1.0d, 2.0d, 2.0d, 4.0d] as double[], new double[2], 2, 1, new Workspace())
+    }
+
+    def 'When solving a primitive system with arrays that are too short' () {
+
+        when:
+        LinearSystem.solve(new double[3], new double[2], 2, 1, new Workspace())
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
 }
@@ -0,0 +1,73 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class Matrix2Spec extends Specification {
+
+    @Shared matrix
+
+    def setup() {
+
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+        double d = 4.0
+        matrix = new Matrix2(a, b, c, d)
+    }
+
+    def 'When converting a matrix of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Matrix2.from(null) == Optional.empty()
+        assert Matrix2.from(new Matrix([[a,a,a], [a,a,a]])) == Optional.empty()
+    }
+
+    def 'Fixed size matrices convert to and from general matrices' () {
+
+        when:
+        def general = matrix.toMatrix()
+
+        then: 'the general matrix holds the components column by column'
+        assert general.getComponents() == [[1.0, 3.0], [2.0, 4.0]]
+        assert Matrix2.from(general).get().get(1, 0) == 3.0
+    }
+
+    def 'When reading a component outside of the matrix' () {
+
+        when:
+        matrix.get(0, 2)
+
+        then: 'an index out of bounds exception should be thrown.'
+        thrown IndexOutOfBoundsException
+    }
+
+    def 'Fixed size matrices may be multiplied' () {
+
+        expect: 'the product to match the general matrix product'
+        assert Matrix2.matrixMultiplication(matrix, matrix).toMatrix().getComponents() == [[7.0, 15.0], [10.0, 22.0]]
+        assert Matrix2.vectorMultiplication(matrix, new Vector2(1.0, 1.0)).toVector().getComponents() == [3.0, 7.0]
+    }
+
+    def 'The determinant of a fixed size matrix may be computed' () {
+
+        expect:
+        assert Matrix2.determinant(matrix) == -2.0
+    }
+
+    def 'When inverting a singular fixed size matrix' () {
+
+        expect: 'the return of an empty optional'
+        assert Matrix2.inverse(new Matrix2(1.0, 2.0, 2.0, 4.0)) == Optional.empty()
+    }
+
+    def 'When inverting and solving with a fixed size matrix' () {
+
+        expect: 'the inverse and solution to be returned'
+        assert Matrix2.inverse(matrix).get().toMatrix().getComponents() == [[-2.0, 1.5], [1.0, -0.5]]
+        assert Matrix2.solve(matrix, new Vector2(3.0, 7.0)).get().toVector().getComponents() == [1.0, 1.0]
+    }
+}
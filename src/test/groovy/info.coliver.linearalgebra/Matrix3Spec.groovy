@@ -0,0 +1,73 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class Matrix3Spec extends Specification {
+
+    @Shared matrix
+
+    def setup() {
+
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+        double d = 7.0
+
+        // the left hand side used in the Gauss-Jordan transform specification
+        matrix = Matrix3.from(new Matrix([[a,c,a], [a,a,d], [b,d,a]])).get()
+    }
+
+    def 'When converting a matrix of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Matrix3.from(null) == Optional.empty()
+        assert Matrix3.from(new Matrix([[a,a], [a,a], [a,a]])) == Optional.empty()
+    }
+
+    def 'Fixed size matrices convert to and from general matrices' () {
+
+        expect: 'components to be read by row and column'
+        assert matrix.get(1, 0) == 3.0
+        assert matrix.get(0, 2) == 2.0
+        assert matrix.toMatrix().getComponents() == [[1.0, 3.0, 1.0], [1.0, 1.0, 7.0], [2.0, 7.0, 1.0]]
+    }
+
+    def 'Fixed size matrices may be multiplied' () {
+
+        given:
+        def general = matrix.toMatrix()
+
+        expect: 'the product to match the general matrix product'
+        assert Matrix3.matrixMultiplication(matrix, Matrix3.identity()).toMatrix().getComponents() == general.getComponents()
+        assert Matrix3.matrixMultiplication(matrix, matrix).toMatrix().getComponents() == Matrix.matrixMultiplication(general, general).get().getComponents()
+        assert Matrix3.transpose(matrix).get(0, 1) == 3.0
+    }
+
+    def 'The determinant of a fixed size matrix may be computed' () {
+
+        expect:
+        assert Matrix3.determinant(matrix) == -4.0
+        assert Matrix3.determinant(Matrix3.identity()) == 1.0
+    }
+
+    def 'When inverting a singular fixed size matrix' () {
+
+        expect: 'the return of an empty optional'
+        assert Matrix3.inverse(new Matrix3(1.0, 2.0, 3.0, 2.0, 4.0, 6.0, 0.0, 1.0, 1.0)) == Optional.empty()
+    }
+
+    def 'When solving with a fixed size matrix' () {
+
+        when:
+        def solution = Matrix3.solve(matrix, new Vector3(-1.0, -7.0, 7.0)).get()
+
+        then: 'the solution matches the Gauss-Jordan transform'
+        assert solution.getX() == 2.0
+        assert solution.getY() == 1.0
+        assert solution.getZ() == -2.0
+    }
+}
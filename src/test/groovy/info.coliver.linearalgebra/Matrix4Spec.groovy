@@ -0,0 +1,67 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class Matrix4Spec extends Specification {
+
+    @Shared matrix
+
+    def setup() {
+
+        matrix = new Matrix4(2.0, 0.0, 0.0, 1.0,
+                0.0, 4.0, 0.0, 0.0,
+                0.0, 0.0, 1.0, 0.0,
+                0.0, 0.0, 0.0, 1.0)
+    }
+
+    def 'When converting a matrix of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Matrix4.from(null) == Optional.empty()
+        assert Matrix4.from(new Matrix([[a,a,a], [a,a,a], [a,a,a]])) == Optional.empty()
+    }
+
+    def 'Fixed size matrices convert to and from general matrices' () {
+
+        expect:
+        assert Matrix4.from(matrix.toMatrix()).get().get(0, 3) == 1.0
+        assert matrix.toMatrix().getComponents().get(3) == [1.0, 0.0, 0.0, 1.0]
+    }
+
+    def 'The determinant of a fixed size matrix may be computed' () {
+
+        expect:
+        assert Matrix4.determinant(matrix) == 8.0
+        assert Matrix4.determinant(Matrix4.identity()) == 1.0
+    }
+
+    def 'When inverting a singular fixed size matrix' () {
+
+        expect: 'the return of an empty optional'
+        assert Matrix4.inverse(Matrix4.scale(matrix, 0.0)) == Optional.empty()
+    }
+
+    def 'When inverting a fixed size matrix' () {
+
+        when:
+        def inverse = Matrix4.inverse(matrix).get()
+
+        then: 'the product with the original matrix is the identity'
+        assert Matrix4.matrixMultiplication(matrix, inverse).toMatrix().getComponents() == Matrix4.identity().toMatrix().getComponents()
+        assert inverse.get(0, 0) == 0.5
+        assert inverse.get(0, 3) == -0.5
+    }
+
+    def 'When solving with a fixed size matrix' () {
+
+        when:
+        def solution = Matrix4.solve(matrix, new Vector4(3.0, 4.0, 1.0, 1.0)).get()
+
+        then:
+        assert solution.toVector().getComponents() == [1.0, 1.0, 1.0, 1.0]
+    }
+}
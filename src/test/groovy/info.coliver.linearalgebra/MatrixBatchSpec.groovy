@@ -0,0 +1,169 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class MatrixBatchSpec extends Specification {
+
+    @Shared matrix
+    @Shared singular
+
+    def setup() {
+
+        double a = 0.0
+        double b = 1.0
+        double c = 2.0
+        matrix = new Matrix([[c,a], [b,b]])
+        singular = new Matrix([[b,b], [b,b]])
+    }
+
+    def 'Given a non positive size to the constructor' () {
+
+        when:
+        new MatrixBatch(0, 2, 2)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'Given components of the wrong length to the constructor' () {
+
+        when:
+        new MatrixBatch(new double[3], 1, 2, 2)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When packing a null or empty list into a batch' () {
+
+        expect: 'the return of an empty optional'
+        assert MatrixBatch.of(null) == Optional.empty()
+        assert MatrixBatch.of([]) == Optional.empty()
+    }
+
+    def 'When packing matrices of different sizes into a batch' () {
+
+        given:
+        double a = 1.0
+        def other = new Matrix([[a,a,a], [a,a,a]])
+
+        expect: 'the return of an empty optional'
+        assert MatrixBatch.of([matrix, other]) == Optional.empty()
+    }
+
+    def 'Matrices packed into a batch may be retrieved' () {
+
+        when:
+        def batch = MatrixBatch.of([matrix, singular]).get()
+
+        then: 'they match those that were packed and are stored component by component'
+        assert batch.getCount() == 2
+        assert batch.get(0).get().getComponents() == matrix.getComponents()
+        assert batch.get(1).get().getComponents() == singular.getComponents()
+        assert batch.getComponents() == [2.0, 1.0, 0.0, 1.0, 1.0, 1.0, 1.0, 1.0] as double[]
+        assert batch.get(2) == Optional.empty()
+    }
+
+    def 'When setting a matrix of the wrong size into a batch' () {
+
+        given:
+        double a = 1.0
+        def batch = new MatrixBatch(2, 2, 2)
+
+        when:
+        batch.set(0, new Matrix([[a,a,a], [a,a,a]]))
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When passing batches of incompatible sizes to batch multiplication' () {
+
+        given:
+        double a = 1.0
+        def left = MatrixBatch.of([matrix, matrix]).get()
+        def right = MatrixBatch.of([matrix]).get()
+        def wide = MatrixBatch.of([new Matrix([[a,a,a], [a,a,a]]), new Matrix([[a,a,a], [a,a,a]])]).get()
+
+        expect: 'the return of an empty optional'
+        assert MatrixBatch.matrixMultiplication(null, null) == Optional.empty()
+        assert MatrixBatch.matrixMultiplication(left, right) == Optional.empty()
+        assert MatrixBatch.matrixMultiplication(left, wide) == Optional.empty()
+    }
+
+    def 'When passing compatible batches to batch multiplication' () {
+
+        given:
+        double a = 0.0
+        double b = 1.0
+        double c = 3.0
+        double d = 4.0
+        double e = 2.0
+        def batch = MatrixBatch.of([matrix, singular]).get()
+
+        when:
+        def product = MatrixBatch.matrixMultiplication(batch, batch).get()
+
+        then: 'every matrix of the batch is multiplied by its counterpart'
+        assert product.get(0).get().getComponents() == [[d,a], [c,b]]
+        assert product.get(1).get().getComponents() == [[e,e], [e,e]]
+    }
+
+    def 'When inverting a batch containing a singular matrix' () {
+
+        given:
+        def batch = MatrixBatch.of([matrix, singular]).get()
+
+        expect: 'the return of an empty optional'
+        assert MatrixBatch.inverse(batch) == Optional.empty()
+        assert MatrixBatch.inverse(null) == Optional.empty()
+    }
+
+    def 'When inverting a large batch of invertible matrices' () {
+
+        given:
+        double a = 0.0
+        double b = 1.0
+        double c = 0.5
+        def batch = MatrixBatch.of(Collections.nCopies(1000, matrix)).get()
+
+        when:
+        def inverse = MatrixBatch.inverse(batch).get()
+
+        then: 'every matrix of the batch is inverted'
+        (0..<1000).each { assert inverse.get(it).get().getComponents() == [[c,a], [-c,b]] }
+    }
+
+    def 'When solving a batch of systems' () {
+
+        given:
+        double a = 1.0
+        double b = 3.0
+        double c = 0.0
+        double d = 2.0
+        double e = 4.0
+        def lhs = MatrixBatch.of([matrix, new Matrix([[d,c], [c,e]])]).get()
+        def rhs = MatrixBatch.of([new Matrix([[b,a]]), new Matrix([[d,e]])]).get()
+
+        when:
+        def solution = MatrixBatch.solve(lhs, rhs).get()
+
+        then: 'every system of the batch is solved'
+        assert solution.get(0).get().getComponents() == [[a,a]]
+        assert solution.get(1).get().getComponents() == [[a,a]]
+    }
+
+    def 'When solving a batch of systems with mismatched sizes or a singular left hand side' () {
+
+        given:
+        double a = 1.0
+        def lhs = MatrixBatch.of([singular]).get()
+        def rhs = MatrixBatch.of([new Matrix([[a,a]])]).get()
+        def tall = MatrixBatch.of([new Matrix([[a,a,a]])]).get()
+
+        expect: 'the return of an empty optional'
+        assert MatrixBatch.solve(lhs, rhs) == Optional.empty()
+        assert MatrixBatch.solve(lhs, tall) == Optional.empty()
+    }
+}
@@ -0,0 +1,116 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class MatrixExpressionSpec extends Specification {
+
+    @Shared a
+    @Shared b
+
+    def setup() {
+
+        double c = 2.0
+        double d = -1.0
+        double e = 1.0
+        double f = 0.0
+        double g = 3.0
+        a = new Matrix([[c, d, e], [f, e, g]])
+        b = new Matrix([[e, f], [d, c], [g, e]])
+    }
+
+    /**
+     * A list that, like those of List.of, throws a null pointer exception when asked whether it contains null.
+     */
+    static List nullHostile(List elements) {
+        return new AbstractList() {
+            Object get(int index) { elements.get(index) }
+            int size() { elements.size() }
+            int indexOf(Object element) { Objects.requireNonNull(element); super.indexOf(element) }
+            boolean contains(Object element) { Objects.requireNonNull(element); super.contains(element) }
+        }
+    }
+
+    def 'When building an expression from operands that may not be queried for null' () {
+
+        when:
+        def expression = MatrixExpression.subtract(nullHostile([MatrixExpression.of(a), MatrixExpression.of(a)]))
+
+        then: 'the expression should be built as from any other list'
+        MatrixExpression.evaluate(expression).get().getComponents().flatten().every { it == 0.0d }
+    }
+
+    def 'When building an expression from null operands' () {
+
+        when:
+        MatrixExpression.add([MatrixExpression.of(a), null])
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+
+    def 'When evaluating a null expression' () {
+
+        expect: 'the return of an empty optional'
+        assert MatrixExpression.evaluate(null) == Optional.empty()
+    }
+
+    def 'When evaluating a scaled sum' () {
+
+        given:
+        def expression = MatrixExpression.subtract([
+                MatrixExpression.scale(MatrixExpression.of(a), 2.0),
+                MatrixExpression.scale(MatrixExpression.of(a), 0.5)])
+
+        expect: 'the same matrix as the eager operations'
+        assert MatrixExpression.evaluate(expression).get().getComponents() == Matrix.scale(a, 1.5).get().getComponents()
+    }
+
+    def 'When evaluating products of transposed operands' () {
+
+        given:
+        def product = Matrix.matrixMultiplication(a, b).get()
+        def at = MatrixExpression.transpose(MatrixExpression.of(Matrix.transpose(a).get()))
+        def bt = MatrixExpression.transpose(MatrixExpression.of(Matrix.transpose(b).get()))
+
+        expect: 'the same matrix as the eager multiplication'
+        assert MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(MatrixExpression.of(a), MatrixExpression.of(b))).get().getComponents() == product.getComponents()
+        assert MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(at, MatrixExpression.of(b))).get().getComponents() == product.getComponents()
+        assert MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(MatrixExpression.of(a), bt)).get().getComponents() == product.getComponents()
+        assert MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(at, bt)).get().getComponents() == product.getComponents()
+    }
+
+    def 'When evaluating the transpose of a scaled product added to a matrix' () {
+
+        given:
+        def product = Matrix.matrixMultiplication(b, a).get()
+        def expression = MatrixExpression.add([
+                MatrixExpression.transpose(MatrixExpression.scale(MatrixExpression.matrixMultiplication(MatrixExpression.of(b), MatrixExpression.of(a)), 2.0)),
+                MatrixExpression.of(product)])
+        def expected = Matrix.add([Matrix.scale(Matrix.transpose(product).get(), 2.0).get(), product]).get()
+
+        expect:
+        assert MatrixExpression.evaluate(expression).get().getComponents() == expected.getComponents()
+    }
+
+    def 'When evaluating an expression with operands of incompatible shapes' () {
+
+        expect: 'the return of an empty optional'
+        assert MatrixExpression.evaluate(MatrixExpression.add([MatrixExpression.of(a), MatrixExpression.of(b)])) == Optional.empty()
+        assert MatrixExpression.evaluate(MatrixExpression.matrixMultiplication(MatrixExpression.of(a), MatrixExpression.of(a))) == Optional.empty()
+    }
+
+    def 'Expressions are only evaluated on demand' () {
+
+        given:
+        double c = 4.0
+        def matrix = new Matrix([[c]])
+        def expression = MatrixExpression.scale(MatrixExpression.of(matrix), 0.5)
+
+        when: 'the matrix changes after the expression is built'
+        matrix.setComponents([[c * 2]])
+
+        then: 'the change is seen by the evaluation'
+        assert MatrixExpression.evaluate(expression).get().getComponents() == [[c]]
+    }
+}
@@ -469,6 +469,56 @@ class MatrixSpec extends Specification {
         assert transposedMatrix.get().getComponents() == answerMatrix.getComponents()
     }
 
+    def 'Matrices larger than a transpose block are transposed out of place and in place' () {
+
+        given: 'sizes that split unevenly into blocks'
+        def random = new Random(5)
+        def wide = new Matrix((0..<97).collect { (0..<45).collect { random.nextGaussian() } })
+        def square = new Matrix((0..<67).collect { (0..<67).collect { random.nextGaussian() } })
+        def original = square.getComponents().collect { new ArrayList<>(it) }
+
+        when:
+        def transposed = Matrix.transpose(wide).get().getComponents()
+        def inPlace = Matrix.transposeInPlace(square).get()
+
+        then:
+        transposed.size() == 45
+        (0..<45).every { i -> (0..<97).every { j -> transposed.get(i).get(j) == wide.getComponents().get(j).get(i) } }
+        inPlace.is(square)
+        (0..<67).every { i -> (0..<67).every { j -> square.getComponents().get(i).get(j) == original.get(j).get(i) } }
+        ImmutableMatrix.transpose(ImmutableMatrix.of(wide).get()).get().toMatrix().getComponents() == transposed
+    }
+
+    def 'When transposing a ragged matrix or a non square matrix in place' () {
+
+        given:
+        double a = 1.0
+        def ragged = new Matrix([[a,a], [a]])
+        def wide = new Matrix([[a,a], [a,a], [a,a]])
+
+        expect: 'the return of an empty optional'
+        assert Matrix.transpose(ragged) == Optional.empty()
+        assert Matrix.transposeInPlace(wide) == Optional.empty()
+        assert Matrix.transposeInPlace(null) == Optional.empty()
+    }
+
+    def 'When passing a matrix whose columns cannot be exchanged to in place transpose' () {
+
+        given: 'a view of an immutable matrix and a matrix whose columns are one list'
+        double a = 1.0
+        double b = 2.0
+        def immutable = ImmutableMatrix.of(new Matrix([[a,b], [b,a]])).get()
+        def view = immutable.asMatrix()
+        def column = [a,b]
+        def shared = new Matrix([column, column])
+
+        expect: 'the return of an empty optional and both matrices unchanged'
+        assert Matrix.transposeInPlace(view) == Optional.empty()
+        assert Matrix.transposeInPlace(shared) == Optional.empty()
+        assert immutable.asMatrix().getComponents() == [[a,b], [b,a]]
+        assert shared.getComponents() == [[a,b], [a,b]]
+    }
+
     def 'When passing a null argument to the symmetrize from lower triangle matrix method' () {
 
         expect: 'an empty Optional to be returned'
@@ -782,5 +832,149 @@ class MatrixSpec extends Specification {
 
         expect: 'the return of the appropriate matrix'
         assert Matrix.swapRows(matrix, 1, 0).get().getComponents() == [[a,b,a], [b,a,a], [a,a,b]]
+        assert matrix.getComponents() == [[b,a,a], [a,b,a], [a,a,b]]
+    }
+
+    def 'When passing a null argument or non square matrices to Strassen multiplication' () {
+
+        given:
+        double a = 1.0
+        def square = new Matrix([[a,a], [a,a]])
+        def wide = new Matrix([[a,a], [a,a], [a,a]])
+
+        expect: 'the return of an empty optional'
+        assert Matrix.strassenMultiplication(null, square) == Optional.empty()
+        assert Matrix.strassenMultiplication(square, wide) == Optional.empty()
+        assert Matrix.strassenMultiplication(square, square, 0) == Optional.empty()
+    }
+
+    def 'When passing square matrices to Strassen multiplication' () {
+
+        given:
+        double c = 2.0
+        double d = -1.0
+        double e = 1.0
+        double f = 0.0
+        def a = new Matrix([[c, d, e], [f, e, c], [e, f, e]])
+        def b = new Matrix([[e, c, f], [d, e, e], [c, f, c]])
+
+        expect: 'the return of the same matrix as the classical algorithm, including when padding is required'
+        assert Matrix.strassenMultiplication(a, b, 1).get().getComponents() == Matrix.matrixMultiplication(a, b).get().getComponents()
+        assert Matrix.strassenMultiplication(a, b).get().getComponents() == Matrix.matrixMultiplication(a, b).get().getComponents()
+    }
+
+    def 'When passing large square matrices to Strassen multiplication' () {
+
+        given:
+        def random = new Random(7)
+        def n = 75
+        def a = new Matrix((0..<n).collect { (0..<n).collect { (double) random.nextInt(5) - 2 } })
+        def b = new Matrix((0..<n).collect { (0..<n).collect { (double) random.nextInt(5) - 2 } })
+
+        expect: 'the return of the same matrix as the classical algorithm'
+        assert Matrix.strassenMultiplication(a, b, 8).get().getComponents() == Matrix.matrixMultiplication(a, b).get().getComponents()
+    }
+
+    def 'When passing a null argument or incompatible matrices to chain multiplication' () {
+
+        given:
+        double a = 1.0
+        def square = new Matrix([[a,a], [a,a]])
+        def wide = new Matrix([[a,a,a], [a,a,a]])
+
+        expect: 'the return of an empty optional'
+        assert Matrix.multiplyChain(null) == Optional.empty()
+        assert Matrix.multiplyChain([]) == Optional.empty()
+        assert Matrix.multiplyChain([square, null]) == Optional.empty()
+        assert Matrix.multiplyChain([square, wide]) == Optional.empty()
+    }
+
+    def 'When passing factors that may not be queried for null to chain multiplication' () {
+
+        given: 'lists that, like those of List.of, throw a null pointer exception when asked whether they contain null'
+        double a = 1.0
+        def square = new Matrix([[a,a], [a,a]])
+        def nullHostile = { List elements ->
+            new AbstractList() {
+                Object get(int index) { elements.get(index) }
+                int size() { elements.size() }
+                int indexOf(Object element) { Objects.requireNonNull(element); super.indexOf(element) }
+                boolean contains(Object element) { Objects.requireNonNull(element); super.contains(element) }
+            }
+        }
+
+        expect: 'the same results as for any other list'
+        assert Matrix.multiplyChain(nullHostile([square, square])).get().getComponents() == [[2.0, 2.0], [2.0, 2.0]]
+        assert Matrix.multiplyChain(nullHostile([square, null])) == Optional.empty()
+    }
+
+    def 'When passing a chain of matrices of different shapes to chain multiplication' () {
+
+        given: 'a 3 by 1, a 1 by 3 and a 3 by 2 matrix'
+        double a = 1.0
+        double b = 2.0
+        double c = 0.0
+        def column = new Matrix([[a,b,c]])
+        def row = new Matrix([[b], [a], [a]])
+        def rectangle = new Matrix([[a,c,a], [c,b,a]])
+
+        expect: 'the return of the product in the original order'
+        assert Matrix.multiplyChain([column]).get().getComponents() == column.getComponents()
+        assert Matrix.multiplyChain([column, row, rectangle]).get().getComponents() == [[3.0, 6.0, 0.0], [3.0, 6.0, 0.0]]
+        assert Matrix.multiplyChain([column, row, rectangle], true).get().getComponents() == [[3.0, 6.0, 0.0], [3.0, 6.0, 0.0]]
+    }
+
+    def 'The cheapest order of multiplication is chosen' () {
+
+        expect: '(AB)C for 10x100, 100x5 and 5x50 matrices and A(BC) for 50x5, 5x100 and 100x10 matrices'
+        assert MatrixChain.order([10, 100, 5, 50] as int[])[0][2] == 1
+        assert MatrixChain.order([50, 5, 100, 10] as int[])[0][2] == 0
+    }
+
+    def 'When mapping, zipping, multiplying and reducing the components of matrices in every mode of execution' () {
+
+        given: 'a 3 by 2 matrix and a 300 by 200 matrix, which is split among several tasks by blocks of columns'
+        double a = 1.0
+        double b = -2.0
+        double c = 3.0
+        def small = new Matrix([[a,b,c], [c,a,b]])
+        def other = new Matrix([[c,c,a], [b,b,a]])
+        def large = new Matrix((0..<200).collect { j -> (0..<300).collect { i -> (i + 300 * j) as double } })
+
+        expect: 'the same results whatever the mode of execution'
+        for (Execution execution : Execution.values()) {
+            assert Matrix.map(small, { x -> -x } as java.util.function.DoubleUnaryOperator, execution).get().getComponents() == [[-1.0d, 2.0d, -3.0d], [-3.0d, -1.0d, 2.0d]]
+            assert Matrix.zipWith(small, other, { x, y -> x + y } as java.util.function.DoubleBinaryOperator, execution).get().getComponents() == [[4.0d, 1.0d, 4.0d], [1.0d, -1.0d, -1.0d]]
+            assert Matrix.hadamardProduct(small, other, execution).get().getComponents() == [[3.0d, -6.0d, 3.0d], [-6.0d, -2.0d, -2.0d]]
+            assert Matrix.reduce(small, 0.0d, { x, y -> x + y } as java.util.function.DoubleBinaryOperator, execution).get() == 4.0d
+
+            def squared = Matrix.hadamardProduct(large, large, execution).get().getComponents()
+            assert squared.size() == 200 && squared[0].size() == 300
+            assert squared[199][299] == 59999.0d * 59999.0d && squared[57][13] == 17113.0d * 17113.0d
+            def shifted = Matrix.map(large, { x -> x + 1.0d } as java.util.function.DoubleUnaryOperator, execution).get().getComponents()
+            assert shifted[100][0] == 30001.0d && shifted[199][299] == 60000.0d
+            assert Matrix.reduce(large, 0.0d, { x, y -> x + y } as java.util.function.DoubleBinaryOperator, execution).get() == 59999.0d * 60000.0d / 2
+            assert Matrix.reduce(large, Double.POSITIVE_INFINITY, { x, y -> Math.min(x, y) } as java.util.function.DoubleBinaryOperator, execution).get() == 0.0d
+        }
+        assert Matrix.zipWith(small, other, { x, y -> x * y } as java.util.function.DoubleBinaryOperator).get().getComponents() == Matrix.hadamardProduct(small, other).get().getComponents()
+    }
+
+    def 'When passing null or matrices of different shapes to the element-wise operations' () {
+
+        given:
+        double a = 1.0
+        def square = new Matrix([[a,a], [a,a]])
+        def wide = new Matrix([[a,a], [a,a], [a,a]])
+        def ragged = new Matrix([[a,a], [a]])
+        def sum = { x, y -> x + y } as java.util.function.DoubleBinaryOperator
+
+        expect: 'the return of an empty optional'
+        assert Matrix.map(null, { x -> x } as java.util.function.DoubleUnaryOperator) == Optional.empty()
+        assert Matrix.map(ragged, { x -> x } as java.util.function.DoubleUnaryOperator) == Optional.empty()
+        assert Matrix.zipWith(square, wide, sum) == Optional.empty()
+        assert Matrix.zipWith(square, square, null) == Optional.empty()
+        assert Matrix.hadamardProduct(square, wide, Execution.VECTORIZED) == Optional.empty()
+        assert Matrix.hadamardProduct(null, square) == Optional.empty()
+        assert Matrix.reduce(square, 0.0d, sum, null) == Optional.empty()
     }
 }
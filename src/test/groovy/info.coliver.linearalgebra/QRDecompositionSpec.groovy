@@ -0,0 +1,87 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class QRDecompositionSpec extends Specification {
+
+    @Shared lhs
+    @Shared rhs
+
+    def setup() {
+
+        // fit the line y = 1 + 2x through four points
+        double a = 0.0
+        double b = 1.0
+        double c = 2.0
+        double d = 3.0
+        double e = 5.0
+        double f = 7.0
+        lhs = new Matrix([[b,b,b,b], [a,b,c,d]])
+        rhs = new Matrix([[b,d,e,f]])
+    }
+
+    def 'When passing a null argument or a wide matrix to the QR decomposition' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert QRDecomposition.decompose(null) == Optional.empty()
+        assert QRDecomposition.decompose(new Matrix([[a,a], [a,a], [a,a]])) == Optional.empty()
+    }
+
+    def 'The factors of the QR decomposition reproduce the matrix' () {
+
+        when:
+        def qr = QRDecomposition.decompose(lhs).get()
+        def q = qr.getQ()
+        def r = qr.getR()
+
+        then: 'R is upper triangular, the columns of Q are orthonormal and QR equals the matrix'
+        assert qr.getHeight() == 4
+        assert qr.getWidth() == 2
+        assert r.getComponents().get(0).get(1) == 0.0
+        (0..<2).each { i ->
+            (0..<2).each { j ->
+                double dot = (0..<4).sum { k -> q.getComponents().get(i).get(k) * q.getComponents().get(j).get(k) }
+                assert Math.abs(dot - (i == j ? 1.0 : 0.0)) < 1e-12
+            }
+            (0..<4).each { k ->
+                double component = (0..<2).sum { j -> q.getComponents().get(j).get(k) * r.getComponents().get(i).get(j) }
+                assert Math.abs(component - lhs.getComponents().get(i).get(k)) < 1e-12
+            }
+        }
+    }
+
+    def 'When solving an overdetermined system in the least squares sense' () {
+
+        when:
+        def solution = LinearSystem.leastSquares(lhs, rhs).get()
+
+        then: 'the best fitting coefficients are returned'
+        assert Math.abs(solution.getComponents().get(0).get(0) - 1.0) < 1e-12
+        assert Math.abs(solution.getComponents().get(0).get(1) - 2.0) < 1e-12
+    }
+
+    def 'When solving a least squares problem with a right hand side of the wrong height' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert QRDecomposition.decompose(lhs).get().leastSquares(new Matrix([[a,a,a]])) == Optional.empty()
+        assert LinearSystem.leastSquares(null, rhs) == Optional.empty()
+    }
+
+    def 'When solving a rank deficient least squares problem' () {
+
+        given:
+        double a = 0.0
+        double b = 1.0
+        def deficient = new Matrix([[b,b,b,b], [a,a,a,a]])
+
+        expect: 'the return of an empty optional'
+        assert LinearSystem.leastSquares(deficient, rhs) == Optional.empty()
+    }
+}
@@ -0,0 +1,68 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class SingularValueDecompositionSpec extends Specification {
+
+    @Shared matrix
+
+    def setup() {
+
+        // a 30 by 20 matrix with singular values 20, 19, ..., 1 along its diagonal
+        matrix = new Matrix((0..<20).collect { j -> (0..<30).collect { i -> i == j ? (double) (20 - j) : 0.0d } })
+    }
+
+    def 'When passing invalid arguments to the truncated singular value decomposition' () {
+
+        expect: 'the return of an empty optional'
+        assert SingularValueDecomposition.truncated(null, 1) == Optional.empty()
+        assert SingularValueDecomposition.truncated(matrix, 0) == Optional.empty()
+        assert SingularValueDecomposition.truncated(matrix, 21) == Optional.empty()
+        assert SingularValueDecomposition.truncated(matrix, 2, -1, 0, new Random(1)) == Optional.empty()
+    }
+
+    def 'The largest singular triplets are found when the samples span the range of the matrix' () {
+
+        when:
+        def svd = SingularValueDecomposition.truncated(matrix, 3, 17, 1, new Random(1)).get()
+        def values = svd.getSingularValues().getComponents()
+        def u = svd.getU().getComponents()
+        def v = svd.getV().getComponents()
+
+        then: 'the singular values descend and the singular vectors are the matching unit vectors'
+        assert svd.getRank() == 3
+        (0..<3).each { j ->
+            assert Math.abs(values.get(j) - (20 - j)) < 1e-8
+            assert Math.abs(Math.abs(u.get(j).get(j)) - 1.0) < 1e-8
+            assert Math.abs(Math.abs(v.get(j).get(j)) - 1.0) < 1e-8
+            assert Math.signum(u.get(j).get(j)) == Math.signum(v.get(j).get(j))
+        }
+    }
+
+    def 'Singular values far below the square root of the machine precision keep their accuracy' () {
+
+        given: 'a 60 by 60 matrix U diag(sigma) V^T with sigma falling geometrically from 1 to 1e-12'
+        def random = new Random(7)
+        def n = 60
+        def u = QRDecomposition.decompose(new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })).get().getQ()
+        def v = QRDecomposition.decompose(new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })).get().getQ()
+        def sigma = (0..<n).collect { Math.pow(10.0d, -12.0d * it / (n - 1)) }
+        def scaled = new Matrix((0..<n).collect { j -> u.getComponents().get(j).collect { it * sigma[j] } })
+        def a = ImmutableMatrix.matrixMultiplication(ImmutableMatrix.of(scaled).get(), ImmutableMatrix.transpose(ImmutableMatrix.of(v).get()).get()).get().asMatrix()
+
+        when:
+        def svd = SingularValueDecomposition.truncated(a, n, 0, 1, new Random(1)).get()
+        def values = svd.getSingularValues().getComponents()
+        def right = svd.getV().getComponents()
+
+        then: 'every singular value is accurate to about eps times the largest and V stays orthonormal'
+        (0..<n).each { j -> assert Math.abs(values.get(j) - sigma[j]) < 1e-14 }
+        (0..<n).each { j ->
+            (0..<n).each { i ->
+                def dot = (0..<n).sum { right.get(j).get(it) * right.get(i).get(it) }
+                assert Math.abs(dot - (i == j ? 1.0d : 0.0d)) < 1e-8
+            }
+        }
+    }
+}
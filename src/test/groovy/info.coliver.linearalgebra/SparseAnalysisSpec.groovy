@@ -0,0 +1,46 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class SparseAnalysisSpec extends Specification {
+
+    def 'When analysing a null or non square matrix' () {
+
+        expect: 'the return of an empty optional'
+        SparseAnalysis.analyze(null) == Optional.empty()
+        SparseAnalysis.analyze(SparseMatrix.builder(2, 3).add(0, 0, 1.0d).build()) == Optional.empty()
+    }
+
+    def 'The ordering of an arrow matrix eliminates the hub last and causes no fill' () {
+
+        given: 'a matrix whose first row and column are full, which fills completely in its natural order'
+        def n = 50
+        def builder = SparseMatrix.builder(n, n)
+        (0..<n).each { builder.add(it, it, 4.0d * n) }
+        (1..<n).each { builder.add(0, it, 1.0d).add(it, 0, 1.0d) }
+
+        when:
+        def analysis = SparseAnalysis.analyze(builder.build()).get()
+
+        then: 'L holds only the diagonal and a single off diagonal component per column'
+        analysis.getFactorNonZeros() == 2 * n - 1
+        analysis.getOrdering().indexOf(0) >= n - 2
+        analysis.getOrdering().toSorted() == (0..<n).toList()
+    }
+
+    def 'An analysis matches exactly the matrices with its pattern' () {
+
+        given:
+        def matrix = SparseMatrix.builder(2, 2).add(0, 0, 1.0d).add(1, 1, 1.0d).add(0, 1, 1.0d).build()
+        def values = SparseMatrix.builder(2, 2).add(0, 0, 5.0d).add(1, 1, 6.0d).add(0, 1, 7.0d).build()
+        def pattern = SparseMatrix.builder(2, 2).add(0, 0, 1.0d).add(1, 1, 1.0d).add(1, 0, 1.0d).build()
+
+        when:
+        def analysis = SparseAnalysis.analyze(matrix).get()
+
+        then:
+        analysis.matches(values)
+        !analysis.matches(pattern)
+        !analysis.matches(null)
+    }
+}
@@ -0,0 +1,77 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class SparseCholeskySpec extends Specification {
+
+    static SparseMatrix laplacian(int m, double diagonal) {
+
+        def builder = SparseMatrix.builder(m * m, m * m)
+        (0..<m).each { i ->
+            (0..<m).each { j ->
+                def k = i * m + j
+                builder.add(k, k, diagonal)
+                if (i > 0) builder.add(k, k - m, -1.0d)
+                if (i < m - 1) builder.add(k, k + m, -1.0d)
+                if (j > 0) builder.add(k, k - 1, -1.0d)
+                if (j < m - 1) builder.add(k, k + 1, -1.0d)
+            }
+        }
+
+        return builder.build()
+    }
+
+    static double residual(SparseMatrix matrix, Vector x, Vector b) {
+        def product = SparseMatrix.vectorMultiplication(matrix, x).get().getComponents()
+        return (0..<product.size()).collect { Math.abs(product.get(it) - b.getComponents().get(it)) }.max()
+    }
+
+    def 'When decomposing a matrix that is not symmetric positive definite' () {
+
+        given:
+        def indefinite = SparseMatrix.builder(2, 2).add(0, 0, 1.0d).add(1, 1, 1.0d).add(0, 1, 2.0d).add(1, 0, 2.0d).build()
+        def unsymmetric = SparseMatrix.builder(2, 2).add(0, 0, 2.0d).add(1, 1, 2.0d).add(0, 1, 1.0d).build()
+
+        expect: 'the return of an empty optional'
+        SparseCholesky.decompose(indefinite) == Optional.empty()
+        SparseCholesky.decompose(unsymmetric) == Optional.empty()
+        SparseCholesky.decompose(null) == Optional.empty()
+    }
+
+    def 'The factor of the reordered matrix reproduces it and solves the system' () {
+
+        given: 'the five point Laplacian of a 12 by 12 grid'
+        def matrix = laplacian(12, 4.0d)
+        def random = new Random(5)
+        def b = new Vector((0..<144).collect { random.nextGaussian() })
+
+        when:
+        def cholesky = SparseCholesky.decompose(matrix).get()
+        def l = cholesky.getL().toMatrix()
+        def product = Matrix.matrixMultiplication(l, Matrix.transpose(l).get()).get().getComponents()
+        def ordering = cholesky.getAnalysis().getOrdering()
+
+        then: 'P A P^T = L L^T, with far fewer non zeros than the dense triangle'
+        (0..<144).every { j -> (0..<144).every { i -> Math.abs(product.get(j).get(i) - matrix.get(ordering.get(i), ordering.get(j))) < 1e-12d } }
+        cholesky.getNonZeros() == cholesky.getAnalysis().getFactorNonZeros()
+        cholesky.getNonZeros() < 144 * 145 / 4
+        residual(matrix, cholesky.solve(b).get(), b) < 1e-12d
+        cholesky.solve(new Vector([1.0d])) == Optional.empty()
+    }
+
+    def 'An analysis is reused for a matrix with the same pattern and different values' () {
+
+        given:
+        def analysis = SparseAnalysis.analyze(laplacian(8, 4.0d)).get()
+        def shifted = laplacian(8, 6.5d)
+        def b = new Vector((0..<64).collect { 1.0d })
+
+        when:
+        def cholesky = SparseCholesky.decompose(shifted, analysis).get()
+
+        then:
+        cholesky.getAnalysis().is(analysis)
+        residual(shifted, cholesky.solve(b).get(), b) < 1e-12d
+        SparseCholesky.decompose(laplacian(7, 4.0d), analysis) == Optional.empty()
+    }
+}
@@ -0,0 +1,57 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class SparseLUSpec extends Specification {
+
+    def 'When decomposing a singular matrix' () {
+
+        given: 'a matrix with an empty column'
+        def singular = SparseMatrix.builder(3, 3).add(0, 0, 1.0d).add(1, 0, 1.0d).add(2, 2, 1.0d).add(1, 2, 1.0d).build()
+
+        expect: 'the return of an empty optional'
+        SparseLU.decompose(singular) == Optional.empty()
+        SparseLU.decompose(null) == Optional.empty()
+    }
+
+    def 'The factors reproduce the permuted matrix and solve the system' () {
+
+        given: 'a random unsymmetric sparse matrix that needs row pivoting'
+        def n = 60
+        def random = new Random(11)
+        def builder = SparseMatrix.builder(n, n)
+        (0..<n).each { builder.add(it, (it + 1) % n, 1.0d + random.nextDouble()).add(it, it, 1e-3d * random.nextGaussian()) }
+        (0..<3 * n).each { builder.add(random.nextInt(n), random.nextInt(n), random.nextGaussian()) }
+        def matrix = builder.build()
+        def b = new Vector((0..<n).collect { random.nextGaussian() })
+
+        when:
+        def lu = SparseLU.decompose(matrix).get()
+        def product = Matrix.matrixMultiplication(lu.getL().toMatrix(), lu.getU().toMatrix()).get().getComponents()
+        def rows = lu.getRowPermutation()
+        def columns = lu.getAnalysis().getOrdering()
+        def x = lu.solve(b).get()
+        def ax = SparseMatrix.vectorMultiplication(matrix, x).get().getComponents()
+
+        then: 'P A Q = L U and A x = b'
+        (0..<n).every { j -> (0..<n).every { i -> Math.abs(product.get(j).get(i) - matrix.get(rows.get(i), columns.get(j))) < 1e-10d } }
+        (0..<n).every { Math.abs(ax.get(it) - b.getComponents().get(it)) < 1e-9d }
+    }
+
+    def 'An analysis is reused for a matrix with the same pattern and different values' () {
+
+        given:
+        def first = SparseMatrix.builder(3, 3).add(0, 0, 4.0d).add(1, 1, 4.0d).add(2, 2, 4.0d).add(2, 0, 1.0d).add(0, 1, 1.0d).build()
+        def second = SparseMatrix.builder(3, 3).add(0, 0, 1.0d).add(1, 1, 2.0d).add(2, 2, 3.0d).add(2, 0, 5.0d).add(0, 1, 7.0d).build()
+        def analysis = SparseAnalysis.analyze(first).get()
+        def b = new Vector([1.0d, 2.0d, 3.0d])
+
+        when:
+        def x = SparseLU.decompose(second, analysis).get().solve(b).get().getComponents()
+
+        then: 'x solves the second system'
+        Math.abs(x.get(0) + 7.0d * x.get(1) - 1.0d) < 1e-12d
+        Math.abs(2.0d * x.get(1) - 2.0d) < 1e-12d
+        Math.abs(5.0d * x.get(0) + 3.0d * x.get(2) - 3.0d) < 1e-12d
+    }
+}
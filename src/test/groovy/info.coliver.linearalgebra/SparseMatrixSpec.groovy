@@ -0,0 +1,81 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class SparseMatrixSpec extends Specification {
+
+    def 'When building a matrix of non positive size' () {
+
+        when:
+        SparseMatrix.builder(0, 2)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def 'When adding a component outside of the matrix' () {
+
+        when:
+        SparseMatrix.builder(2, 2).add(2, 0, 1.0d)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def 'Components given in any order are sorted and duplicates are summed' () {
+
+        given:
+        def matrix = SparseMatrix.builder(3, 2)
+                .add(2, 1, 5.0d)
+                .add(1, 0, 2.0d)
+                .add(0, 1, 3.0d)
+                .add(1, 0, 4.0d)
+                .build()
+
+        expect:
+        matrix.getNonZeros() == 3
+        matrix.get(1, 0) == 6.0d
+        matrix.get(0, 1) == 3.0d
+        matrix.get(2, 1) == 5.0d
+        matrix.get(0, 0) == 0.0d
+        matrix.rowIndices() == [1, 0, 2] as int[]
+    }
+
+    def 'A dense matrix keeps only its non zero components' () {
+
+        given:
+        double a = 1.0
+        double b = 0.0
+        def dense = new Matrix([[a,b,a], [b,b,a]])
+
+        when:
+        def sparse = SparseMatrix.of(dense).get()
+
+        then:
+        sparse.getRows() == 3
+        sparse.getColumns() == 2
+        sparse.getNonZeros() == 3
+        sparse.toMatrix().getComponents() == dense.getComponents()
+        SparseMatrix.of(null) == Optional.empty()
+    }
+
+    def 'The transpose and the product with a vector match the dense operations' () {
+
+        given:
+        def random = new Random(3)
+        def builder = SparseMatrix.builder(7, 5)
+        (0..<12).each { builder.add(random.nextInt(7), random.nextInt(5), random.nextGaussian()) }
+        def sparse = builder.build()
+        def vector = new Vector((0..<5).collect { random.nextGaussian() })
+
+        when:
+        def product = SparseMatrix.vectorMultiplication(sparse, vector).get().getComponents()
+        def dense = sparse.toMatrix().getComponents()
+        def expected = (0..<7).collect { i -> (0..<5).sum { j -> dense.get(j).get(i) * vector.getComponents().get(j) } }
+
+        then:
+        SparseMatrix.transpose(sparse).toMatrix().getComponents() == Matrix.transpose(sparse.toMatrix()).get().getComponents()
+        (0..<7).every { Math.abs(product.get(it) - expected.get(it)) < 1e-12d }
+        SparseMatrix.vectorMultiplication(sparse, new Vector([1.0d])) == Optional.empty()
+    }
+}
@@ -0,0 +1,76 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class SymmetricEigenDecompositionSpec extends Specification {
+
+    def 'When passing a null argument or a non square matrix to the eigenvalue decomposition' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert SymmetricEigenDecomposition.decompose(null) == Optional.empty()
+        assert SymmetricEigenDecomposition.decompose(new Matrix([[a,a,a], [a,a,a]])) == Optional.empty()
+    }
+
+    def 'The eigenvalues of a small symmetric matrix are found in ascending order' () {
+
+        given:
+        double a = 2.0
+        double b = 1.0
+        double c = 0.0
+        def matrix = Matrix.symmetrizeFromLowerTriangular(new Matrix([[a,b,c], [c,a,b], [c,c,a]])).get()
+
+        when:
+        def eigenvalues = SymmetricEigenDecomposition.decompose(matrix).get().getEigenvalues().getComponents()
+
+        then: 'they match 2 - sqrt(2), 2 and 2 + sqrt(2)'
+        assert Math.abs(eigenvalues.get(0) - (2.0 - Math.sqrt(2.0))) < 1e-12
+        assert Math.abs(eigenvalues.get(1) - 2.0) < 1e-12
+        assert Math.abs(eigenvalues.get(2) - (2.0 + Math.sqrt(2.0))) < 1e-12
+    }
+
+    def 'The eigenvectors of a large symmetric matrix satisfy the eigenvalue equation' () {
+
+        given: 'a matrix large enough to be split by divide and conquer'
+        def random = new Random(11)
+        def n = 80
+        def lower = new Matrix((0..<n).collect { (0..<n).collect { random.nextGaussian() } })
+        def matrix = Matrix.symmetrizeFromLowerTriangular(lower).get()
+
+        when:
+        def decomposition = SymmetricEigenDecomposition.decompose(matrix).get()
+        def values = decomposition.getEigenvalues().getComponents()
+        def vectors = decomposition.getEigenvectors().getComponents()
+
+        then: 'A v = lambda v for every eigenpair and the eigenvectors are orthonormal'
+        (0..<n).each { j ->
+            (0..<n).each { i ->
+                double component = (0..<n).sum { k -> matrix.getComponents().get(k).get(i) * vectors.get(j).get(k) }
+                assert Math.abs(component - values.get(j) * vectors.get(j).get(i)) < 1e-10
+            }
+            double length = (0..<n).sum { k -> vectors.get(j).get(k) * vectors.get(j).get(k) }
+            assert Math.abs(length - 1.0) < 1e-12
+            if (j > 0) {
+                assert values.get(j - 1) <= values.get(j)
+                double dot = (0..<n).sum { k -> vectors.get(j - 1).get(k) * vectors.get(j).get(k) }
+                assert Math.abs(dot) < 1e-12
+            }
+        }
+    }
+
+    def 'Repeated eigenvalues are deflated' () {
+
+        given:
+        def n = 60
+        def matrix = new Matrix((0..<n).collect { j -> (0..<n).collect { i -> i == j ? (double) (i % 2) : 0.0d } })
+
+        when:
+        def values = SymmetricEigenDecomposition.decompose(matrix).get().getEigenvalues().getComponents()
+
+        then:
+        assert values.count { it == 0.0 } == n / 2
+        assert values.count { it == 1.0 } == n / 2
+    }
+}
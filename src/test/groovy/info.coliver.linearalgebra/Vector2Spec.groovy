@@ -0,0 +1,46 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class Vector2Spec extends Specification {
+
+    def 'When converting a vector of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Vector2.from(null) == Optional.empty()
+        assert Vector2.from(new Vector([a])) == Optional.empty()
+        assert Vector2.from(new Vector([a,a,a])) == Optional.empty()
+    }
+
+    def 'Fixed size vectors convert to and from general vectors' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+
+        when:
+        def vector = Vector2.from(new Vector([a,b])).get()
+
+        then:
+        assert vector.getX() == a
+        assert vector.getY() == b
+        assert vector.toVector().getComponents() == [a,b]
+    }
+
+    def 'Fixed size vectors may be combined' () {
+
+        given:
+        def x = new Vector2(1.0, 2.0)
+        def y = new Vector2(3.0, -4.0)
+
+        expect:
+        assert Vector2.add(x, y).toVector().getComponents() == [4.0, -2.0]
+        assert Vector2.subtract(y, x).toVector().getComponents() == [2.0, -6.0]
+        assert Vector2.scale(x, -0.5).toVector().getComponents() == [-0.5, -1.0]
+        assert Vector2.dotProduct(x, y) == -5.0
+        assert Vector2.dotProduct(y, y) == 25.0
+    }
+}
@@ -0,0 +1,45 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class Vector3Spec extends Specification {
+
+    def 'When converting a vector of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Vector3.from(null) == Optional.empty()
+        assert Vector3.from(new Vector([a,a])) == Optional.empty()
+    }
+
+    def 'Fixed size vectors convert to and from general vectors' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+
+        when:
+        def vector = Vector3.from(new Vector([a,b,c])).get()
+
+        then:
+        assert vector.getX() == a
+        assert vector.getZ() == c
+        assert vector.toVector().getComponents() == [a,b,c]
+    }
+
+    def 'Fixed size vectors may be combined' () {
+
+        given:
+        def x = new Vector3(1.0, 2.0, 3.0)
+        def y = new Vector3(4.0, 5.0, 6.0)
+
+        expect:
+        assert Vector3.add(x, y).toVector().getComponents() == [5.0, 7.0, 9.0]
+        assert Vector3.subtract(y, x).toVector().getComponents() == [3.0, 3.0, 3.0]
+        assert Vector3.scale(x, 2.0).toVector().getComponents() == [2.0, 4.0, 6.0]
+        assert Vector3.dotProduct(x, y) == 32.0
+    }
+}
@@ -0,0 +1,49 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class Vector4Spec extends Specification {
+
+    def 'When converting a vector of the wrong size' () {
+
+        given:
+        double a = 1.0
+
+        expect: 'the return of an empty optional'
+        assert Vector4.from(null) == Optional.empty()
+        assert Vector4.from(new Vector([a,a,a])) == Optional.empty()
+        assert Vector4.from(new Vector([a,a,a,a,a])) == Optional.empty()
+    }
+
+    def 'Fixed size vectors convert to and from general vectors' () {
+
+        given:
+        double a = 1.0
+        double b = 2.0
+        double c = 3.0
+        double d = 4.0
+
+        when:
+        def vector = Vector4.from(new Vector([a,b,c,d])).get()
+
+        then:
+        assert vector.getX() == a
+        assert vector.getY() == b
+        assert vector.getZ() == c
+        assert vector.getW() == d
+        assert vector.toVector().getComponents() == [a,b,c,d]
+    }
+
+    def 'Fixed size vectors may be combined' () {
+
+        given:
+        def x = new Vector4(1.0, 2.0, 3.0, 4.0)
+        def y = new Vector4(5.0, 6.0, 7.0, 8.0)
+
+        expect:
+        assert Vector4.add(x, y).toVector().getComponents() == [6.0, 8.0, 10.0, 12.0]
+        assert Vector4.subtract(y, x).toVector().getComponents() == [4.0, 4.0, 4.0, 4.0]
+        assert Vector4.scale(x, 2.0).toVector().getComponents() == [2.0, 4.0, 6.0, 8.0]
+        assert Vector4.dotProduct(x, y) == 70.0
+    }
+}
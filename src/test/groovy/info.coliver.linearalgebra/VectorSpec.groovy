@@ -418,4 +418,50 @@ class VectorSpec extends Specification {
         expect: 'a vector of the correct size with zeroes in all components to be returned'
         assert Vector.createZeroVector(3).get().getComponents() == [x0,x0,x0]
     }
+
+    def 'When mapping, zipping, multiplying and reducing the components of vectors in every mode of execution' () {
+
+        given: 'a short vector and one long enough to be split among several tasks'
+        double x0 = 1.0
+        double x1 = -2.0
+        double x2 = 3.0
+        def x = new Vector([x0, x1, x2])
+        def y = new Vector([x2, x0, x1])
+        def large = new Vector((0..<100003).collect { it as double })
+
+        expect: 'the same results whatever the mode of execution'
+        for (Execution execution : Execution.values()) {
+            assert Vector.map(x, { a -> a * a } as java.util.function.DoubleUnaryOperator, execution).get().getComponents() == [1.0d, 4.0d, 9.0d]
+            assert Vector.zipWith(x, y, { a, b -> a - b } as java.util.function.DoubleBinaryOperator, execution).get().getComponents() == [-2.0d, -3.0d, 5.0d]
+            assert Vector.hadamardProduct(x, y, execution).get().getComponents() == [3.0d, -2.0d, -6.0d]
+            assert Vector.reduce(x, 0.0d, { a, b -> a + b } as java.util.function.DoubleBinaryOperator, execution).get() == 2.0d
+            assert Vector.reduce(x, Double.NEGATIVE_INFINITY, { a, b -> Math.max(a, b) } as java.util.function.DoubleBinaryOperator, execution).get() == 3.0d
+
+            def doubled = Vector.map(large, { a -> 2.0d * a } as java.util.function.DoubleUnaryOperator, execution).get().getComponents()
+            assert doubled.size() == 100003
+            assert doubled[0] == 0.0d && doubled[50000] == 100000.0d && doubled[100002] == 200004.0d
+            assert Vector.hadamardProduct(large, large, execution).get().getComponents()[100002] == 100002.0d * 100002.0d
+            assert Vector.reduce(large, 0.0d, { a, b -> a + b } as java.util.function.DoubleBinaryOperator, execution).get() == 100002.0d * 100003.0d / 2
+        }
+        assert Vector.map(x, { a -> a * a } as java.util.function.DoubleUnaryOperator).get().getComponents() == [1.0d, 4.0d, 9.0d]
+        assert Vector.hadamardProduct(x, y).get().getComponents() == [3.0d, -2.0d, -6.0d]
+    }
+
+    def 'When passing null or vectors of different sizes to the element-wise operations' () {
+
+        given:
+        double x0 = 1.0
+        def x = new Vector([x0, x0])
+        def y = new Vector([x0, x0, x0])
+        def sum = { a, b -> a + b } as java.util.function.DoubleBinaryOperator
+
+        expect: 'the return of an empty optional'
+        assert Vector.map(null, { a -> a } as java.util.function.DoubleUnaryOperator) == Optional.empty()
+        assert Vector.map(x, null) == Optional.empty()
+        assert Vector.zipWith(x, y, sum) == Optional.empty()
+        assert Vector.hadamardProduct(x, y, Execution.PARALLEL) == Optional.empty()
+        assert Vector.hadamardProduct(x, null) == Optional.empty()
+        assert Vector.reduce(null, 0.0d, sum) == Optional.empty()
+        assert Vector.reduce(x, 0.0d, sum, null) == Optional.empty()
+    }
 }
@@ -0,0 +1,123 @@
+package info.coliver.linearalgebra
+
+import spock.lang.Specification
+
+class WorkspaceSpec extends Specification {
+
+    def 'When buffers are released and acquired again' () {
+
+        given:
+        def workspace = new Workspace()
+        def mark = workspace.mark()
+        def first = workspace.doubles(16)
+        first[3] = 1.0d
+        workspace.release(mark)
+
+        when:
+        def second = workspace.doubles(8)
+
+        then: 'the same buffer should be handed out again with its requested components zeroed'
+        second.is(first)
+        second[3] == 0.0d
+        workspace.getBytes() == 128L
+    }
+
+    def 'When a larger buffer is requested' () {
+
+        given:
+        def workspace = new Workspace()
+        def mark = workspace.mark()
+        def small = workspace.doubles(4)
+        workspace.release(mark)
+
+        when:
+        def large = workspace.doubles(64)
+
+        then: 'the buffer should be replaced'
+        !large.is(small)
+        large.length == 64
+    }
+
+    def 'When buffers are acquired before a mark' () {
+
+        given:
+        def workspace = new Workspace()
+        def outer = workspace.ints(4)
+        def mark = workspace.mark()
+        def inner = workspace.ints(4)
+        workspace.release(mark)
+
+        when:
+        def again = workspace.ints(4)
+
+        then: 'only the buffers acquired after the mark should be reused'
+        !again.is(outer)
+        again.is(inner)
+    }
+
+    def 'When clearing a workspace whose buffers are in use' () {
+
+        given:
+        def workspace = new Workspace()
+        workspace.doubles(4)
+
+        when:
+        workspace.clear()
+
+        then: 'an illegal state exception should be thrown.'
+        thrown IllegalStateException
+    }
+
+    def 'When clearing a workspace whose buffers are released' () {
+
+        given:
+        def workspace = new Workspace()
+        def mark = workspace.mark()
+        workspace.doubles(4)
+        workspace.release(mark)
+
+        when:
+        workspace.clear()
+
+        then: 'every buffer should be dropped'
+        workspace.getBytes() == 0L
+    }
+
+    def 'Each thread has a workspace of its own' () {
+
+        when:
+        def other = null
+        def thread = Thread.start { other = Workspace.local() }
+        thread.join()
+
+        then:
+        Workspace.local().is(Workspace.local())
+        !other.is(Workspace.local())
+    }
+
+    def 'When a workspace retaining a limited number of bytes is released' () {
+
+        given:
+        def workspace = new Workspace(1024L)
+        def mark = workspace.mark()
+        def small = workspace.doubles(16)
+        def large = workspace.doubles(1024)
+
+        when:
+        workspace.release(mark)
+
+        then: 'released buffers beyond the limit should be dropped, the last acquired first'
+        workspace.getBytes() == 128L
+        workspace.doubles(16).is(small)
+        !workspace.doubles(1024).is(large)
+    }
+
+    def 'When creating a workspace retaining a negative number of bytes' () {
+
+        when:
+        new Workspace(-1L)
+
+        then: 'an illegal argument exception should be thrown.'
+        thrown IllegalArgumentException
+    }
+}